@@ -14,6 +14,7 @@ public class BackendUtils {
     // Initialize your Stripe API key (use test key from Stripe Dashboard)
     static {
         Stripe.apiKey = "sk_test_XXXXXXXXXXXXXXXXXXXXXXXX"; // TODO: Replace with your test secret key
+        StripeStub.configureSdk(); // -Dstripe.stub / STRIPE_API_BASE
     }
 
     /**
@@ -25,6 +26,9 @@ public class BackendUtils {
     public static String getLatestPaymentIntentIdForUser(String userEmail) {
         try {
             System.out.println("🔄 [BackendUtils] Fetching latest PaymentIntent for: " + userEmail);
+            if (StripeStub.isEnabled()) {
+                return StripeStub.shared().latestPaymentIntentFor(userEmail).orElse(null);
+            }
 
             PaymentIntentListParams params = PaymentIntentListParams.builder()
                     .setLimit(5L) // limit results for performance
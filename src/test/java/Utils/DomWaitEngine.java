@@ -0,0 +1,176 @@
+package Utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-page wait engine used behind the {@link WaitUtils} facade.
+ *
+ * Instead of polling findElements + isDisplayed/getSize over the wire every 200ms, a single
+ * executeAsyncScript installs a MutationObserver (re-checked on the next animation frame, plus a
+ * cheap in-page safety tick for CSS-only changes) and calls back the moment the condition holds.
+ * One WebDriver round-trip per wait instead of several per poll.
+ *
+ * Falls back to regular polling ({@link EngineUnavailableException}) when the driver cannot run
+ * async scripts or a locator cannot be expressed in-page. Disable with -Dwait.engine=poll.
+ */
+public final class DomWaitEngine {
+
+    /** Thrown when the engine cannot serve this wait; callers should use WebDriver polling instead. */
+    public static final class EngineUnavailableException extends RuntimeException {
+        EngineUnavailableException(String msg, Throwable cause) { super(msg, cause); }
+    }
+
+    private static final String SCRIPT =
+            "var spec=arguments[0], done=arguments[arguments.length-1];" +
+            "function q(s){try{" +
+            "  var d=document, v=s.value;" +
+            "  if(s.using==='css selector') return Array.prototype.slice.call(d.querySelectorAll(v));" +
+            "  if(s.using==='xpath'){var r=d.evaluate(v,d,null,XPathResult.ORDERED_NODE_SNAPSHOT_TYPE,null),a=[];" +
+            "    for(var i=0;i<r.snapshotLength;i++)a.push(r.snapshotItem(i)); return a;}" +
+            "  if(s.using==='id'){var e=d.getElementById(v); return e?[e]:[];}" +
+            "  if(s.using==='name') return Array.prototype.slice.call(d.getElementsByName(v));" +
+            "  if(s.using==='class name') return Array.prototype.slice.call(d.getElementsByClassName(v));" +
+            "  if(s.using==='tag name') return Array.prototype.slice.call(d.getElementsByTagName(v));" +
+            "  if(s.using==='link text'||s.using==='partial link text'){var as=d.getElementsByTagName('a'),o=[];" +
+            "    for(var j=0;j<as.length;j++){var t=(as[j].innerText||'').trim();" +
+            "      if(s.using==='link text'?t===v:t.indexOf(v)>=0)o.push(as[j]);} return o;}" +
+            "}catch(e){} return [];}" +
+            "function vis(el){if(!el||!el.isConnected)return false;var r=el.getBoundingClientRect();" +
+            "  if(r.width<=0||r.height<=0)return false;" +
+            "  if(el.checkVisibility)return el.checkVisibility({opacityProperty:true,visibilityProperty:true});" +
+            "  var cs=getComputedStyle(el);return cs.display!=='none'&&cs.visibility!=='hidden'&&cs.opacity!=='0';}" +
+            "function check(){" +
+            "  for(var i=0;i<spec.sels.length;i++){var els=q(spec.sels[i]);" +
+            "    if(spec.mode==='invisible'){var n=spec.all?els.length:Math.min(1,els.length);" +
+            "      for(var k=0;k<n;k++){if(vis(els[k]))return null;} continue;}" +
+            "    var lim=spec.first?Math.min(1,els.length):els.length;" +
+            "    for(var m=0;m<lim;m++){var el=els[m];if(!vis(el))continue;" +
+            "      if(spec.mode==='text'&&((el.innerText||el.textContent||'').indexOf(spec.text)<0))continue;" +
+            "      return el;}" +
+            "  }" +
+            "  return spec.mode==='invisible'?true:null;}" +
+            "var finished=false,mo=null,timer=null,tick=null,queued=false;" +
+            "function finish(v){if(finished)return;finished=true;if(mo)mo.disconnect();clearTimeout(timer);clearInterval(tick);done(v);}" +
+            "function recheck(){queued=false;var v=check();if(v)finish(v);}" +
+            "var first=check();if(first){finish(first);return;}" +
+            "mo=new MutationObserver(function(){if(!queued){queued=true;requestAnimationFrame(recheck);}});" +
+            "mo.observe(document.documentElement||document,{subtree:true,childList:true,attributes:true,characterData:true});" +
+            "tick=setInterval(recheck,spec.safetyMs);" +
+            "timer=setTimeout(function(){finish(null);},spec.timeoutMs);";
+
+    private DomWaitEngine() {}
+
+    public static boolean isEnabled() {
+        return !"poll".equalsIgnoreCase(Config.get("wait.engine", "WAIT_ENGINE", "observer"));
+    }
+
+    /** First visible element among all matches of any of the locators. */
+    public static WebElement awaitVisible(WebDriver driver, Duration timeout, By... locators) {
+        return (WebElement) await(driver, timeout, spec("visible", null, false, false, locators));
+    }
+
+    /**
+     * The locator's first match, once it is visible (Selenium visibilityOfElementLocated semantics:
+     * a hidden first match is not skipped in favour of a later visible one).
+     */
+    public static WebElement awaitFirstVisible(WebDriver driver, Duration timeout, By locator) {
+        return (WebElement) await(driver, timeout, spec("visible", null, false, true, locator));
+    }
+
+    /** True once the first match of each locator is absent or hidden (Selenium invisibilityOf semantics). */
+    public static boolean awaitInvisible(WebDriver driver, Duration timeout, By... locators) {
+        return Boolean.TRUE.equals(await(driver, timeout, spec("invisible", null, false, false, locators)));
+    }
+
+    /** True once every match of every locator is absent or hidden (loader/overlay semantics). */
+    public static boolean awaitAllInvisible(WebDriver driver, Duration timeout, By... locators) {
+        return Boolean.TRUE.equals(await(driver, timeout, spec("invisible", null, true, false, locators)));
+    }
+
+    /** The locator's first match, once it is visible and its rendered text contains {@code text}. */
+    public static WebElement awaitText(WebDriver driver, Duration timeout, By locator, String text) {
+        return (WebElement) await(driver, timeout, spec("text", text, false, true, locator));
+    }
+
+    // ---------- internals ----------
+
+    private static Map<String, Object> spec(String mode, String text, boolean all, boolean first, By... locators) {
+        List<Map<String, Object>> sels = new ArrayList<>();
+        for (By by : locators) {
+            if (!(by instanceof By.Remotable)) {
+                throw new EngineUnavailableException("Locator is not remotable: " + by, null);
+            }
+            By.Remotable.Parameters p = ((By.Remotable) by).getRemoteParameters();
+            sels.add(Map.of("using", p.using(), "value", String.valueOf(p.value())));
+        }
+        Map<String, Object> spec = new LinkedHashMap<>();
+        spec.put("mode", mode);
+        spec.put("text", text == null ? "" : text);
+        spec.put("all", all);
+        spec.put("first", first);
+        spec.put("sels", sels);
+        spec.put("safetyMs", 100);
+        return spec;
+    }
+
+    /**
+     * Runs the in-page watcher in chunks bounded by the driver's script timeout, re-arming after
+     * navigations (the async script dies with the document). Throws TimeoutException at the deadline.
+     */
+    private static Object await(WebDriver driver, Duration timeout, Map<String, Object> spec) {
+        if (!(driver instanceof JavascriptExecutor)) {
+            throw new EngineUnavailableException("Driver cannot execute scripts", null);
+        }
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+
+        long scriptBudget = scriptTimeoutMillis(driver) - 1_000L;
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        WebDriverException last = null;
+        int scriptErrors = 0;
+
+        do {
+            long left = Math.max(0L, deadline - System.currentTimeMillis());
+            spec.put("timeoutMs", Math.max(0L, Math.min(left, scriptBudget)));
+            try {
+                Object v = js.executeAsyncScript(SCRIPT, spec);
+                if (v != null) return v;
+            } catch (NoSuchSessionException | UnsupportedCommandException e) {
+                throw new EngineUnavailableException("Async script not available: " + e.getMessage(), e);
+            } catch (WebDriverException e) {
+                // Typically "document unloaded while waiting for result" after a navigation: re-arm.
+                last = e;
+                if (++scriptErrors > 20) {
+                    throw new EngineUnavailableException("In-page watcher keeps failing", e);
+                }
+                sleep(50);
+            }
+        } while (System.currentTimeMillis() < deadline);
+
+        throw new TimeoutException("In-page wait timed out after " + timeout.toMillis() + "ms for " + spec.get("sels"), last);
+    }
+
+    private static long scriptTimeoutMillis(WebDriver driver) {
+        try {
+            Duration d = driver.manage().timeouts().getScriptTimeout();
+            if (d != null && d.toMillis() > 2_000L) return d.toMillis();
+        } catch (Exception ignored) {}
+        return 30_000L;
+    }
+
+    private static void sleep(long ms) {
+        try { Thread.sleep(ms); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+    }
+}
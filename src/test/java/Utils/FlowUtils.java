@@ -3,7 +3,6 @@ package Utils;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import pages.LoginPage;
 import pages.Shop.AssessmentEntryPage;
@@ -52,9 +51,8 @@ public class FlowUtils {
                 .until(wd -> "complete".equals(
                         ((JavascriptExecutor) wd).executeScript("return document.readyState")));
         try {
-            By loaders = By.cssSelector("[role='progressbar'], .ant-spin-spinning, .MuiBackdrop-root, [aria-busy='true']");
             new WebDriverWait(d, Duration.ofSeconds(5))
-                    .until(ExpectedConditions.invisibilityOfElementLocated(loaders));
+                    .until(WaitUtils.loadersGone("[role='progressbar'], .ant-spin-spinning, .MuiBackdrop-root, [aria-busy='true']"));
         } catch (Exception ignore) {}
     }
 
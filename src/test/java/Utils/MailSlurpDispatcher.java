@@ -0,0 +1,255 @@
+package Utils;
+
+import com.mailslurp.clients.ApiException;
+import com.mailslurp.models.Email;
+import com.mailslurp.models.EmailPreview;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * One background poller per MailSlurp inbox, shared by every test waiting on that inbox.
+ *
+ * Parallel tests all use the suite's fixed inbox and tell their mail apart by +alias
+ * ({@link MailSlurpUtils#uniqueAliasEmail} / {@link MailSlurpUtils#extractAliasToken}). Instead of each
+ * test listing the inbox on its own, waiters register (alias token, predicate) and get a
+ * CompletableFuture; a single poller lists the inbox while anyone is waiting, fetches each email body at
+ * most once, and completes the futures of the waiters whose token it is addressed to.
+ * N waiters cost one stream of list calls plus one getEmail per relevant email.
+ *
+ * Read state follows what the server would report without the shared cache: for unreadOnly waiters an email
+ * is read once it has been handed to any waiter, or when it was fetched before the waiter registered
+ * (getEmail marks it read). Sequential waiters on one alias therefore get successive emails.
+ *
+ * Used automatically by {@link MailSlurpUtils#waitForEmailMatching} for predicates built with
+ * addressedToAliasToken(...). Disable with -Dmailslurp.dispatch=false.
+ */
+public final class MailSlurpDispatcher {
+
+    private static final Logger logger = LogManager.getLogger(MailSlurpDispatcher.class);
+
+    private static final Map<UUID, MailSlurpDispatcher> BY_INBOX = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService POLLER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "mailslurp-dispatcher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final long SEEN_TTL_MS = Duration.ofMinutes(30).toMillis();
+    private static final long MAX_BACKOFF_MS = 10_000L;
+
+    // orders waiter registration against body fetches
+    private static final AtomicLong SEQ = new AtomicLong();
+
+    private final UUID inboxId;
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Seen> seen = new ConcurrentHashMap<>();   // touched only on the poller thread
+    private final AtomicLong listCalls = new AtomicLong();
+    private final AtomicLong bodyFetches = new AtomicLong();
+
+    private ScheduledFuture<?> task;     // guarded by this
+    private long backoffMs;              // poller thread only
+    private long nextPollAt;             // System.nanoTime() deadline while backing off; poller thread only
+
+    private MailSlurpDispatcher(UUID inboxId) {
+        this.inboxId = inboxId;
+    }
+
+    public static boolean isEnabled() {
+        return Config.getBoolean("mailslurp.dispatch", "MAILSLURP_DISPATCH", true);
+    }
+
+    public static MailSlurpDispatcher forInbox(UUID inboxId) {
+        Objects.requireNonNull(inboxId, "inboxId must not be null");
+        return BY_INBOX.computeIfAbsent(inboxId, MailSlurpDispatcher::new);
+    }
+
+    // =========================================================
+    // WAITERS
+    // =========================================================
+
+    /**
+     * Register interest in the next email addressed to {@code aliasToken} (e.g. "+invite-1730...")
+     * that satisfies {@code predicate}. Mail that already arrived is considered too.
+     * Cancel the future to stop waiting.
+     */
+    public CompletableFuture<Email> register(String aliasToken, boolean unreadOnly, Predicate<Email> predicate) {
+        String tok = Optional.ofNullable(aliasToken).orElse("").toLowerCase(Locale.ROOT);
+        if (tok.isBlank()) throw new IllegalArgumentException("aliasToken must not be blank");
+        Objects.requireNonNull(predicate, "predicate must not be null");
+
+        Waiter w = new Waiter(tok, unreadOnly, predicate);
+        w.future.whenComplete((e, t) -> waiters.remove(w));
+        waiters.add(w);
+        ensurePolling();
+        return w.future;
+    }
+
+    /** Blocking form with the {@link MailSlurpUtils#waitForEmailMatching} contract: null on timeout. */
+    public Email waitFor(String aliasToken, boolean unreadOnly, Predicate<Email> predicate, Duration timeout)
+            throws InterruptedException {
+        CompletableFuture<Email> f = register(aliasToken, unreadOnly, predicate);
+        try {
+            return f.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            throw new RuntimeException("[MailSlurp][dispatch] wait failed for " + aliasToken, e.getCause());
+        } finally {
+            f.cancel(false);
+        }
+    }
+
+    public String stats() {
+        return String.format("inbox=%s waiters=%d seen=%d listCalls=%d bodyFetches=%d",
+                inboxId, waiters.size(), seen.size(), listCalls.get(), bodyFetches.get());
+    }
+
+    // =========================================================
+    // POLLER
+    // =========================================================
+
+    private synchronized void ensurePolling() {
+        if (task != null && !task.isDone()) return;
+        long every = Config.getInt("mailslurp.dispatch.pollMs", "MAILSLURP_DISPATCH_POLL_MS", 1500);
+        task = POLLER.scheduleWithFixedDelay(this::tickSafely, 0L, every, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void stopIfIdle() {
+        if (waiters.isEmpty() && task != null) {
+            task.cancel(false);
+            task = null;
+            logger.debug("[MailSlurp][dispatch] idle | {}", stats());
+        }
+    }
+
+    private void tickSafely() {
+        if (waiters.isEmpty()) {
+            stopIfIdle();
+            return;
+        }
+        // Back off by skipping ticks, never by sleeping: POLLER is shared by every inbox
+        if (backoffMs > 0 && System.nanoTime() - nextPollAt < 0) return;
+        try {
+            tick();
+            backoffMs = 0L;
+        } catch (ApiException e) {
+            backoffMs = Math.min(MAX_BACKOFF_MS, Math.max(1_000L, backoffMs * 2));
+            nextPollAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+            logger.warn("[MailSlurp][dispatch] list failed (HTTP {}), backing off {}ms", e.getCode(), backoffMs);
+        } catch (Throwable t) {
+            logger.warn("[MailSlurp][dispatch] tick failed: {}", t.toString());
+        }
+    }
+
+    private void tick() throws ApiException {
+        int pageSize = Config.getInt("mailslurp.dispatch.pageSize", "MAILSLURP_DISPATCH_PAGE_SIZE", 25);
+        List<EmailPreview> previews = MailSlurpUtils.listPreviews(inboxId, pageSize);
+        listCalls.incrementAndGet();
+
+        long now = System.currentTimeMillis();
+        if (previews != null) {
+            for (EmailPreview p : previews) {
+                if (p.getId() != null) seen.computeIfAbsent(p.getId(), id -> new Seen(p, now));
+            }
+        }
+        seen.values().removeIf(s -> now - s.firstSeenAt > SEEN_TTL_MS);
+
+        for (Waiter w : new ArrayList<>(waiters)) {
+            if (w.future.isDone()) continue;
+            for (Seen s : seen.values()) {
+                if (w.checked.contains(s.id)) continue;
+                if ((w.unreadOnly && s.isReadFor(w)) || !s.mayBeAddressedTo(w.token)) {
+                    w.checked.add(s.id);
+                    continue;
+                }
+                Email e = body(s);
+                w.checked.add(s.id);
+                if (e != null && MailSlurpUtils.addressedToAliasToken(w.token).test(e) && w.predicate.test(e)) {
+                    s.consumed = true;
+                    w.future.complete(e);
+                    break;
+                }
+            }
+        }
+    }
+
+    private Email body(Seen s) throws ApiException {
+        if (s.email == null) {
+            s.email = MailSlurpUtils.fetchEmail(s.id);
+            s.fetchedSeq = SEQ.incrementAndGet();
+            bodyFetches.incrementAndGet();
+        }
+        return s.email;
+    }
+
+    // =========================================================
+    // STATE
+    // =========================================================
+
+    private static final class Waiter {
+        final String token;
+        final boolean unreadOnly;
+        final Predicate<Email> predicate;
+        final Set<UUID> checked = ConcurrentHashMap.newKeySet();
+        final CompletableFuture<Email> future = new CompletableFuture<>();
+        final long seq = SEQ.incrementAndGet();
+
+        Waiter(String token, boolean unreadOnly, Predicate<Email> predicate) {
+            this.token = token;
+            this.unreadOnly = unreadOnly;
+            this.predicate = predicate;
+        }
+    }
+
+    private static final class Seen {
+        final UUID id;
+        final List<String> toLower;       // null when the preview has no recipients
+        final boolean readAtFirstSight;
+        final long firstSeenAt;
+        volatile Email email;
+        volatile long fetchedSeq;         // 0 until the body is fetched
+        volatile boolean consumed;        // handed to a waiter
+
+        Seen(EmailPreview p, long now) {
+            this.id = p.getId();
+            List<String> to = null;
+            if (p.getTo() != null) {
+                to = new ArrayList<>();
+                for (String a : p.getTo()) if (a != null) to.add(a.toLowerCase(Locale.ROOT));
+            }
+            this.toLower = to;
+            this.readAtFirstSight = MailSlurpUtils.isRead(p, "getRead");
+            this.firstSeenAt = now;
+        }
+
+        /** Read as far as {@code w} is concerned: read on arrival, already handed out, or fetched before w registered. */
+        boolean isReadFor(Waiter w) {
+            return readAtFirstSight || consumed || (fetchedSeq != 0 && fetchedSeq < w.seq);
+        }
+
+        boolean mayBeAddressedTo(String token) {
+            return toLower == null || toLower.stream().anyMatch(a -> a.contains(token));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package Utils;
+
+import com.mailslurp.models.Email;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dispatcher read-state and backoff checks against {@link MailSlurpFake} (loopback only), through
+ * MailSlurpUtils.waitForEmailMatching with an alias predicate, as the UI tests call it.
+ */
+@Test(singleThreaded = true)
+public class MailSlurpDispatcherTest {
+
+    private static final String[] PROPS = {
+            "mailslurp.basePath", "mailslurp.apiKey", "mailslurp.allowCreate", "mailslurp.dispatch.pollMs"
+    };
+
+    private final Map<String, String> saved = new HashMap<>();
+    private MailSlurpFake fake;
+
+    @BeforeClass
+    public void install() {
+        for (String p : PROPS) saved.put(p, System.getProperty(p));
+        fake = MailSlurpFake.install();
+        System.setProperty("mailslurp.dispatch.pollMs", "100");
+        MailSlurpUtils._resetClientForTestOnly();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void restore() {
+        saved.forEach((k, v) -> {
+            if (v == null) System.clearProperty(k);
+            else System.setProperty(k, v);
+        });
+        MailSlurpUtils._resetClientForTestOnly();
+    }
+
+    @Test
+    public void testSequentialUnreadWaitersGetSuccessiveEmails() throws Exception {
+        UUID inbox = fake.inbox(UUID.randomUUID());
+        String alias = MailSlurpUtils.addPlusAlias(fake.emailAddressOf(inbox), "remind-1");
+        String token = MailSlurpUtils.extractAliasToken(alias);
+
+        UUID firstId = fake.deliver("noreply@tilt365.com", List.of(alias), "Assessment reminder", "first");
+        Email first = MailSlurpUtils.waitForEmailMatching(inbox, 5_000, 100, true,
+                MailSlurpUtils.addressedToAliasToken(token).and(MailSlurpUtils.subjectContains("reminder")));
+        Assert.assertNotNull(first, "first waiter should get the first email");
+        Assert.assertEquals(first.getId(), firstId);
+
+        // a resend: the next waiter must not be handed the email the first one already consumed
+        Thread sender = new Thread(() -> {
+            try {
+                Thread.sleep(300);
+                fake.deliver("noreply@tilt365.com", List.of(alias), "Assessment reminder", "second");
+            } catch (InterruptedException ignored) { }
+        });
+        sender.start();
+        Email second = MailSlurpUtils.waitForEmailMatching(inbox, 5_000, 100, true,
+                MailSlurpUtils.addressedToAliasToken(token).and(MailSlurpUtils.subjectContains("reminder")));
+        sender.join();
+
+        Assert.assertNotNull(second, "second waiter should get the resent email");
+        Assert.assertNotEquals(second.getId(), first.getId(), "second waiter got the already-consumed email");
+        Assert.assertEquals(second.getBody(), "second");
+    }
+
+    @Test
+    public void testReadEmailsStillMatchWhenNotUnreadOnly() throws Exception {
+        UUID inbox = fake.inbox(UUID.randomUUID());
+        String alias = MailSlurpUtils.addPlusAlias(fake.emailAddressOf(inbox), "invite-1");
+        String token = MailSlurpUtils.extractAliasToken(alias);
+        UUID id = fake.deliver("noreply@tilt365.com", List.of(alias), "You are invited", "accept");
+
+        Email first = MailSlurpUtils.waitForEmailMatching(inbox, 5_000, 100, true, MailSlurpUtils.addressedToAliasToken(token));
+        Email again = MailSlurpUtils.waitForEmailMatching(inbox, 5_000, 100, false, MailSlurpUtils.addressedToAliasToken(token));
+
+        Assert.assertNotNull(first);
+        Assert.assertNotNull(again, "unreadOnly=false should see the consumed email again");
+        Assert.assertEquals(again.getId(), id);
+    }
+
+    @Test
+    public void testBackoffOnOneInboxDoesNotStallTheOthers() throws Exception {
+        UUID broken = fake.inbox(UUID.randomUUID());
+        UUID healthy = fake.inbox(UUID.randomUUID());
+        fake.failListing(broken, true);
+        try {
+            String brokenToken = MailSlurpUtils.extractAliasToken(
+                    MailSlurpUtils.addPlusAlias(fake.emailAddressOf(broken), "stuck-1"));
+            CompletableFuture<Email> stuck = MailSlurpDispatcher.forInbox(broken)
+                    .register(brokenToken, true, MailSlurpUtils.addressedToAliasToken(brokenToken));
+
+            // failures at ~0s and ~1s, then ~3.3s starts a 4s backoff: deliver inside it
+            Thread.sleep(4_000);
+
+            String alias = MailSlurpUtils.addPlusAlias(fake.emailAddressOf(healthy), "ok-1");
+            String token = MailSlurpUtils.extractAliasToken(alias);
+            fake.deliver("noreply@tilt365.com", List.of(alias), "Welcome", "hi");
+
+            long t0 = System.nanoTime();
+            Email e = MailSlurpUtils.waitForEmailMatching(healthy, 8_000, 100, true, MailSlurpUtils.addressedToAliasToken(token));
+            long ms = (System.nanoTime() - t0) / 1_000_000L;
+
+            stuck.cancel(false);
+            Assert.assertNotNull(e, "healthy inbox should be polled while the other one backs off");
+            Assert.assertTrue(ms < 1_500, "healthy inbox waited on the other inbox's backoff: " + ms + "ms");
+        } finally {
+            fake.failListing(broken, false);
+        }
+    }
+}
@@ -0,0 +1,569 @@
+package Utils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for the part of the MailSlurp REST API that {@link MailSlurpUtils} uses,
+ * plus a tiny SMTP listener that drops received mail into the matching inbox.
+ *
+ * REST (JSON shaped like MailSlurp's, so the real SDK deserializes it):
+ *   GET    /inboxes, /inboxes/{id}            (unknown ids are created on first use)
+ *   POST   /inboxes/withDefaults
+ *   GET    /inboxes/{id}/emails?size=&sort=
+ *   DELETE /inboxes/{id}/deleteAllInboxEmails
+ *   GET    /emails/{id}                        (marks the email read)
+ *   POST   /waitFor                            (blocks until the conditions hold, 408 on timeout)
+ *
+ * Mail is routed by the local part before '+', so aliased addresses land in their base inbox.
+ * Use -Dmailslurp.fake=true: the suite calls {@link #install()}, which starts the shared instance and sets
+ * the regular mailslurp.basePath override to it; MailSlurpUtils itself knows nothing about the fake.
+ * Ports: mailslurp.fake.port / mailslurp.fake.smtpPort (0 = ephemeral).
+ */
+public final class MailSlurpFake implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(MailSlurpFake.class);
+
+    public static final String DOMAIN = "fake.mailslurp.local";
+    private static final DateTimeFormatter ISO = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+    private static final UUID USER_ID = UUID.nameUUIDFromBytes("mailslurp-fake-user".getBytes(StandardCharsets.UTF_8));
+
+    private static volatile MailSlurpFake shared;
+
+    private final HttpServer http;
+    private final ServerSocket smtp;
+    private final Map<UUID, Inbox> inboxes = new ConcurrentHashMap<>();
+    private final Map<UUID, Message> emails = new ConcurrentHashMap<>();
+    private final Set<UUID> failingLists = ConcurrentHashMap.newKeySet();
+    private final Object arrivals = new Object();
+    private volatile boolean running = true;
+
+    public static boolean isEnabled() {
+        return Config.getBoolean("mailslurp.fake", "MAILSLURP_FAKE", false);
+    }
+
+    /** Suite-wide instance, started on first use and stopped with the JVM. */
+    public static MailSlurpFake shared() {
+        MailSlurpFake s = shared;
+        if (s != null) return s;
+        synchronized (MailSlurpFake.class) {
+            if (shared == null) {
+                try {
+                    shared = start(
+                            Config.getInt("mailslurp.fake.port", "MAILSLURP_FAKE_PORT", 0),
+                            Config.getInt("mailslurp.fake.smtpPort", "MAILSLURP_FAKE_SMTP_PORT", 0));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not start MailSlurp fake: " + e.getMessage(), e);
+                }
+                MailSlurpFake started = shared;
+                Runtime.getRuntime().addShutdownHook(new Thread(started::close, "mailslurp-fake-stop"));
+            }
+            return shared;
+        }
+    }
+
+    /**
+     * Start the shared instance and point MailSlurpUtils at it through mailslurp.basePath. The fake ignores
+     * auth, so a placeholder mailslurp.apiKey is set when none is configured, and inbox creation is allowed
+     * unless configured otherwise. Call before the first MailSlurpUtils request (the client is built once).
+     */
+    public static MailSlurpFake install() {
+        MailSlurpFake f = shared();
+        System.setProperty("mailslurp.basePath", f.baseUrl());
+        if (Config.getMailSlurpApiKey() == null) {
+            System.setProperty("mailslurp.apiKey", "mailslurp-fake");
+        }
+        if (Config.getAny("MAILSLURP_ALLOW_CREATE_INBOX_FALLBACK", "ALLOW_CREATE_INBOX_FALLBACK",
+                "mailslurp.allowCreate", "MAILSLURP_ALLOW_CREATE") == null) {
+            System.setProperty("mailslurp.allowCreate", "true");
+        }
+        logger.info("[MailSlurpFake] installed as mailslurp.basePath={}", f.baseUrl());
+        return f;
+    }
+
+    public static MailSlurpFake start(int httpPort, int smtpPort) throws IOException {
+        return new MailSlurpFake(httpPort, smtpPort);
+    }
+
+    private MailSlurpFake(int httpPort, int smtpPort) throws IOException {
+        InetAddress lo = InetAddress.getLoopbackAddress();
+        http = HttpServer.create(new InetSocketAddress(lo, httpPort), 0);
+        http.createContext("/", this::handle);
+        // waitFor blocks a handler thread, so one thread per request
+        http.setExecutor(Executors.newCachedThreadPool(daemon("mailslurp-fake-http")));
+        http.start();
+
+        smtp = new ServerSocket(smtpPort, 50, lo);
+        Thread acceptor = daemon("mailslurp-fake-smtp").newThread(this::acceptSmtp);
+        acceptor.start();
+
+        logger.info("[MailSlurpFake] REST on {} | SMTP on {}:{}", baseUrl(), lo.getHostAddress(), smtp.getLocalPort());
+    }
+
+    public String baseUrl() {
+        return "http://" + http.getAddress().getAddress().getHostAddress() + ":" + http.getAddress().getPort();
+    }
+
+    public int smtpPort() {
+        return smtp.getLocalPort();
+    }
+
+    // =========================================================
+    // DIRECT API (for tests / in-process senders)
+    // =========================================================
+
+    /** Inbox with this id, created on first use. */
+    public UUID inbox(UUID id) {
+        return inboxFor(id).id;
+    }
+
+    public String emailAddressOf(UUID inboxId) {
+        return inboxFor(inboxId).address;
+    }
+
+    /** Deliver a message as if it came in over SMTP. Returns the email id, or null when no inbox matches. */
+    public UUID deliver(String from, List<String> to, String subject, String body) {
+        UUID stored = null;
+        for (String rcpt : to) {
+            Inbox in = inboxForAddress(rcpt);
+            if (in == null) continue;
+            Message m = new Message(UUID.randomUUID(), in.id, from, to, subject, body, now());
+            emails.put(m.id, m);
+            in.emails.add(m);
+            stored = m.id;
+        }
+        synchronized (arrivals) {
+            arrivals.notifyAll();
+        }
+        return stored;
+    }
+
+    /** Make listing this inbox's emails answer 503 (or recover), to exercise client backoff. */
+    public void failListing(UUID inboxId, boolean fail) {
+        if (fail) failingLists.add(inboxId);
+        else failingLists.remove(inboxId);
+    }
+
+    @Override
+    public void close() {
+        if (!running) return;
+        running = false;
+        http.stop(0);
+        try { smtp.close(); } catch (IOException ignored) {}
+        synchronized (arrivals) {
+            arrivals.notifyAll();
+        }
+    }
+
+    // =========================================================
+    // REST
+    // =========================================================
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            String method = ex.getRequestMethod();
+            String path = ex.getRequestURI().getPath().replaceAll("/+$", "");
+            Map<String, String> q = query(ex.getRequestURI());
+            String[] seg = path.split("/");
+
+            if ("GET".equals(method) && path.equals("/inboxes")) {
+                JsonArray arr = new JsonArray();
+                inboxes.values().stream().limit(intParam(q, "size", 20)).forEach(i -> arr.add(i.toJson()));
+                send(ex, 200, arr);
+            } else if ("POST".equals(method) && path.equals("/inboxes/withDefaults")) {
+                send(ex, 201, inboxFor(UUID.randomUUID()).toJson());
+            } else if ("GET".equals(method) && seg.length == 3 && "inboxes".equals(seg[1])) {
+                send(ex, 200, inboxFor(UUID.fromString(seg[2])).toJson());
+            } else if ("GET".equals(method) && seg.length == 4 && "inboxes".equals(seg[1]) && "emails".equals(seg[3])) {
+                Inbox in = inboxFor(UUID.fromString(seg[2]));
+                if (failingLists.contains(in.id)) {
+                    send(ex, 503, error("Listing unavailable for inbox " + in.id));
+                    return;
+                }
+                boolean asc = "ASC".equalsIgnoreCase(q.get("sort"));
+                JsonArray arr = new JsonArray();
+                sorted(in.emails, asc).stream().limit(intParam(q, "size", 20)).forEach(m -> arr.add(m.previewJson()));
+                send(ex, 200, arr);
+            } else if ("DELETE".equals(method) && seg.length == 4 && "inboxes".equals(seg[1])
+                    && "deleteAllInboxEmails".equals(seg[3])) {
+                Inbox in = inboxFor(UUID.fromString(seg[2]));
+                in.emails.forEach(m -> emails.remove(m.id));
+                in.emails.clear();
+                send(ex, 204, null);
+            } else if ("GET".equals(method) && seg.length == 3 && "emails".equals(seg[1])) {
+                Message m = emails.get(UUID.fromString(seg[2]));
+                if (m == null) {
+                    send(ex, 404, error("Email not found: " + seg[2]));
+                } else {
+                    JsonObject json = m.emailJson();   // reports the state before this read, like MailSlurp
+                    m.read = true;
+                    send(ex, 200, json);
+                }
+            } else if ("POST".equals(method) && path.equals("/waitFor")) {
+                waitFor(ex, JsonParser.parseString(body(ex)).getAsJsonObject());
+            } else {
+                send(ex, 404, error("Not implemented in MailSlurpFake: " + method + " " + path));
+            }
+        } catch (IllegalArgumentException e) {
+            send(ex, 400, error(e.getMessage()));
+        } catch (Exception e) {
+            logger.warn("[MailSlurpFake] {} {} failed: {}", ex.getRequestMethod(), ex.getRequestURI(), e.toString());
+            send(ex, 500, error(e.toString()));
+        }
+    }
+
+    /** Server-side wait: count / countType / matches / since / unreadOnly / sortDirection / timeout. */
+    private void waitFor(HttpExchange ex, JsonObject c) throws IOException {
+        Inbox in = inboxFor(UUID.fromString(c.get("inboxId").getAsString()));
+        int count = c.has("count") && !c.get("count").isJsonNull() ? c.get("count").getAsInt() : 1;
+        boolean atLeast = !c.has("countType") || !"EQUAL".equalsIgnoreCase(c.get("countType").getAsString());
+        boolean unreadOnly = c.has("unreadOnly") && c.get("unreadOnly").getAsBoolean();
+        boolean asc = c.has("sortDirection") && "ASC".equalsIgnoreCase(c.get("sortDirection").getAsString());
+        OffsetDateTime since = c.has("since") && !c.get("since").isJsonNull()
+                ? OffsetDateTime.parse(c.get("since").getAsString()) : null;
+        long timeout = c.has("timeout") && !c.get("timeout").isJsonNull() ? c.get("timeout").getAsLong() : 5_000L;
+        JsonArray matches = c.has("matches") && c.get("matches").isJsonArray() ? c.getAsJsonArray("matches") : new JsonArray();
+
+        long deadline = System.currentTimeMillis() + timeout;
+        List<Message> result = null;
+        synchronized (arrivals) {
+            while (running) {
+                List<Message> hits = new ArrayList<>();
+                for (Message m : sorted(in.emails, asc)) {
+                    if (unreadOnly && m.read) continue;
+                    if (since != null && m.createdAt.isBefore(since)) continue;
+                    if (matchesAll(m, matches)) hits.add(m);
+                }
+                if (atLeast ? hits.size() >= count : hits.size() == count) {
+                    result = hits;
+                    break;
+                }
+                long left = deadline - System.currentTimeMillis();
+                if (left <= 0) break;
+                try {
+                    arrivals.wait(left);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (result == null) {
+            send(ex, 408, error("Timed out waiting for " + count + " matching emails"));
+            return;
+        }
+        JsonArray arr = new JsonArray();
+        result.forEach(m -> arr.add(m.previewJson()));
+        send(ex, 200, arr);
+    }
+
+    private static boolean matchesAll(Message m, JsonArray matches) {
+        for (JsonElement el : matches) {
+            JsonObject o = el.getAsJsonObject();
+            String field = o.get("field").getAsString().toUpperCase(Locale.ROOT);
+            String should = o.get("should").getAsString().toUpperCase(Locale.ROOT);
+            String value = o.get("value").getAsString();
+            List<String> candidates = switch (field) {
+                case "SUBJECT" -> List.of(m.subject == null ? "" : m.subject);
+                case "TO" -> m.to;
+                case "FROM" -> List.of(m.from == null ? "" : m.from);
+                default -> List.of();
+            };
+            boolean ok = candidates.stream().anyMatch(v -> switch (should) {
+                case "CONTAIN" -> v.contains(value);   // case-sensitive, like MailSlurp
+                case "EQUAL" -> v.equalsIgnoreCase(value);
+                case "MATCH" -> Pattern.compile(value).matcher(v).find();
+                default -> false;
+            });
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    // =========================================================
+    // SMTP
+    // =========================================================
+
+    private void acceptSmtp() {
+        while (running) {
+            try {
+                Socket s = smtp.accept();
+                daemon("mailslurp-fake-smtp-session").newThread(() -> smtpSession(s)).start();
+            } catch (IOException e) {
+                if (running) logger.warn("[MailSlurpFake] SMTP accept failed: {}", e.toString());
+            }
+        }
+    }
+
+    /** Just enough SMTP for JavaMail / Postfix relays: HELO/EHLO, MAIL, RCPT, DATA, RSET, NOOP, QUIT. */
+    private void smtpSession(Socket s) {
+        try (s;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(s.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            reply(out, "220 " + DOMAIN + " MailSlurpFake ESMTP");
+            String from = null;
+            List<String> rcpts = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String cmd = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line.toUpperCase(Locale.ROOT);
+                switch (cmd) {
+                    case "HELO" -> reply(out, "250 " + DOMAIN);
+                    case "EHLO" -> { reply(out, "250-" + DOMAIN); reply(out, "250 8BITMIME"); }
+                    case "MAIL" -> { from = angle(line); rcpts.clear(); reply(out, "250 OK"); }
+                    case "RCPT" -> { rcpts.add(angle(line)); reply(out, "250 OK"); }
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder data = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+                        }
+                        storeRaw(from, rcpts, data.toString());
+                        rcpts.clear();
+                        reply(out, "250 OK queued");
+                    }
+                    case "RSET" -> { from = null; rcpts.clear(); reply(out, "250 OK"); }
+                    case "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> { reply(out, "221 Bye"); return; }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("[MailSlurpFake] SMTP session ended: {}", e.toString());
+        }
+    }
+
+    private void storeRaw(String envelopeFrom, List<String> rcpts, String raw) {
+        int split = raw.indexOf("\r\n\r\n");
+        String head = split < 0 ? raw : raw.substring(0, split);
+        String body = split < 0 ? "" : raw.substring(split + 4);
+        Map<String, String> headers = new LinkedHashMap<>();
+        String last = null;
+        for (String h : head.split("\r\n")) {
+            if ((h.startsWith(" ") || h.startsWith("\t")) && last != null) {
+                headers.put(last, headers.get(last) + " " + h.trim());   // folded header
+                continue;
+            }
+            int c = h.indexOf(':');
+            if (c <= 0) continue;
+            last = h.substring(0, c).trim().toLowerCase(Locale.ROOT);
+            headers.put(last, h.substring(c + 1).trim());
+        }
+        String from = headers.getOrDefault("from", envelopeFrom);
+        deliver(from, new ArrayList<>(rcpts), headers.getOrDefault("subject", ""), body.trim());
+    }
+
+    private static void reply(PrintWriter out, String line) {
+        out.print(line + "\r\n");
+        out.flush();
+    }
+
+    private static String angle(String line) {
+        Matcher m = Pattern.compile("<([^>]*)>").matcher(line);
+        if (m.find()) return m.group(1).trim();
+        int c = line.indexOf(':');
+        return c < 0 ? "" : line.substring(c + 1).trim();
+    }
+
+    // =========================================================
+    // STATE
+    // =========================================================
+
+    private Inbox inboxFor(UUID id) {
+        return inboxes.computeIfAbsent(id, Inbox::new);
+    }
+
+    private Inbox inboxForAddress(String address) {
+        if (address == null) return null;
+        String a = address.trim().toLowerCase(Locale.ROOT);
+        int at = a.indexOf('@');
+        if (at < 0) return null;
+        String local = a.substring(0, at);
+        int plus = local.indexOf('+');
+        String base = (plus >= 0 ? local.substring(0, plus) : local) + a.substring(at);
+        for (Inbox in : inboxes.values()) {
+            if (in.address.equalsIgnoreCase(base)) return in;
+        }
+        return null;
+    }
+
+    private static List<Message> sorted(List<Message> list, boolean asc) {
+        List<Message> copy = new ArrayList<>(list);
+        Comparator<Message> byTime = Comparator.comparing(m -> m.createdAt);
+        copy.sort(asc ? byTime : byTime.reversed());
+        return copy;
+    }
+
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now(ZoneOffset.UTC);
+    }
+
+    private static final class Inbox {
+        final UUID id;
+        final String address;
+        final OffsetDateTime createdAt = now();
+        final List<Message> emails = new CopyOnWriteArrayList<>();
+
+        Inbox(UUID id) {
+            this.id = id;
+            this.address = id.toString().replace("-", "").substring(0, 12) + "@" + DOMAIN;
+        }
+
+        JsonObject toJson() {
+            JsonObject o = new JsonObject();
+            o.addProperty("id", id.toString());
+            o.addProperty("userId", USER_ID.toString());
+            o.addProperty("createdAt", ISO.format(createdAt));
+            o.addProperty("name", "fake-" + id.toString().substring(0, 8));
+            o.addProperty("emailAddress", address);
+            o.addProperty("favourite", false);
+            o.add("tags", new JsonArray());
+            o.addProperty("teamAccess", false);
+            o.addProperty("inboxType", "HTTP_INBOX");
+            o.addProperty("readOnly", false);
+            o.addProperty("virtualInbox", false);
+            return o;
+        }
+    }
+
+    private static final class Message {
+        final UUID id;
+        final UUID inboxId;
+        final String from;
+        final List<String> to;
+        final String subject;
+        final String body;
+        final OffsetDateTime createdAt;
+        volatile boolean read;
+
+        Message(UUID id, UUID inboxId, String from, List<String> to, String subject, String body, OffsetDateTime createdAt) {
+            this.id = id;
+            this.inboxId = inboxId;
+            this.from = from;
+            this.to = List.copyOf(to);
+            this.subject = subject;
+            this.body = body;
+            this.createdAt = createdAt;
+        }
+
+        JsonObject previewJson() {
+            JsonObject o = new JsonObject();
+            o.addProperty("id", id.toString());
+            o.addProperty("inboxId", inboxId.toString());
+            o.addProperty("subject", subject);
+            o.add("to", strings(to));
+            o.addProperty("from", from);
+            o.add("bcc", new JsonArray());
+            o.add("cc", new JsonArray());
+            o.addProperty("createdAt", ISO.format(createdAt));
+            o.addProperty("read", read);
+            o.add("attachments", new JsonArray());
+            return o;
+        }
+
+        JsonObject emailJson() {
+            JsonObject o = new JsonObject();
+            o.addProperty("id", id.toString());
+            o.addProperty("userId", USER_ID.toString());
+            o.addProperty("inboxId", inboxId.toString());
+            o.add("to", strings(to));
+            o.addProperty("from", from);
+            o.add("cc", new JsonArray());
+            o.add("bcc", new JsonArray());
+            o.add("attachments", new JsonArray());
+            o.addProperty("subject", subject);
+            o.addProperty("body", body);
+            o.addProperty("isHTML", body != null && body.toLowerCase(Locale.ROOT).contains("<html"));
+            o.addProperty("charset", "UTF-8");
+            o.addProperty("createdAt", ISO.format(createdAt));
+            o.addProperty("updatedAt", ISO.format(createdAt));
+            o.addProperty("read", read);
+            o.addProperty("teamAccess", false);
+            return o;
+        }
+    }
+
+    // ---------- helpers ----------
+
+    private static JsonArray strings(List<String> values) {
+        JsonArray a = new JsonArray();
+        values.forEach(a::add);
+        return a;
+    }
+
+    private static JsonObject error(String msg) {
+        JsonObject o = new JsonObject();
+        o.addProperty("message", msg);
+        return o;
+    }
+
+    private static String body(HttpExchange ex) throws IOException {
+        return new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange ex, int code, JsonElement json) throws IOException {
+        byte[] bytes = json == null ? new byte[0] : json.toString().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream os = ex.getResponseBody()) { os.write(bytes); }
+        }
+        ex.close();
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> out = new LinkedHashMap<>();
+        String raw = uri.getQuery();
+        if (raw == null) return out;
+        for (String kv : raw.split("&")) {
+            int eq = kv.indexOf('=');
+            if (eq > 0) out.put(kv.substring(0, eq), kv.substring(eq + 1));
+        }
+        return out;
+    }
+
+    private static int intParam(Map<String, String> q, String key, int dflt) {
+        try { return Integer.parseInt(q.get(key)); } catch (Exception e) { return dflt; }
+    }
+
+    private static java.util.concurrent.ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
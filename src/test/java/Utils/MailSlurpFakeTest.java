@@ -0,0 +1,202 @@
+package Utils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mailslurp.models.Email;
+import com.mailslurp.models.InboxDto;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Loopback-only checks for the MailSlurp stand-in: SMTP delivery, alias routing, preview listing,
+ * read marking and the blocking waitFor endpoint, both raw and through the MailSlurp SDK via mailslurp.basePath.
+ */
+@Test(singleThreaded = true)
+public class MailSlurpFakeTest {
+
+    private static final String[] INSTALLED = { "mailslurp.basePath", "mailslurp.apiKey", "mailslurp.allowCreate" };
+
+    private MailSlurpFake fake;
+    private final HttpClient http = HttpClient.newHttpClient();
+    private final Map<String, String> saved = new HashMap<>();
+
+    @BeforeClass
+    public void start() throws Exception {
+        fake = MailSlurpFake.start(0, 0);
+        for (String p : INSTALLED) saved.put(p, System.getProperty(p));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stop() {
+        if (fake != null) fake.close();
+        saved.forEach((k, v) -> {
+            if (v == null) System.clearProperty(k);
+            else System.setProperty(k, v);
+        });
+        MailSlurpUtils._resetClientForTestOnly();
+    }
+
+    @Test
+    public void testSmtpDeliveryIsRoutedByAliasAndListed() throws Exception {
+        UUID inbox = fake.inbox(UUID.randomUUID());
+        String alias = MailSlurpUtils.addPlusAlias(fake.emailAddressOf(inbox), "invite-1");
+
+        smtpSend("noreply@tilt365.com", alias, "You are invited", "Click accept");
+
+        JsonArray previews = JsonParser.parseString(get("/inboxes/" + inbox + "/emails?size=10")).getAsJsonArray();
+        Assert.assertEquals(previews.size(), 1, "one email expected in the base inbox");
+        JsonObject p = previews.get(0).getAsJsonObject();
+        Assert.assertEquals(p.get("subject").getAsString(), "You are invited");
+        Assert.assertEquals(p.getAsJsonArray("to").get(0).getAsString(), alias);
+        Assert.assertFalse(p.get("read").getAsBoolean());
+
+        JsonObject email = JsonParser.parseString(get("/emails/" + p.get("id").getAsString())).getAsJsonObject();
+        Assert.assertTrue(email.get("body").getAsString().contains("Click accept"));
+
+        JsonObject again = JsonParser.parseString(get("/inboxes/" + inbox + "/emails")).getAsJsonArray()
+                .get(0).getAsJsonObject();
+        Assert.assertTrue(again.get("read").getAsBoolean(), "getEmail should mark the email read");
+    }
+
+    @Test
+    public void testWaitForBlocksUntilMatchingMailArrives() throws Exception {
+        UUID inbox = fake.inbox(UUID.randomUUID());
+        String address = fake.emailAddressOf(inbox);
+
+        Thread sender = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+                fake.deliver("noreply@tilt365.com", List.of(address), "Unrelated", "x");
+                fake.deliver("noreply@tilt365.com", List.of(address), "Assessment reminder", "Complete Assessment");
+            } catch (InterruptedException ignored) { }
+        });
+        sender.start();
+
+        String conditions = "{\"inboxId\":\"" + inbox + "\",\"count\":1,\"countType\":\"ATLEAST\",\"timeout\":5000," +
+                "\"matches\":[{\"field\":\"SUBJECT\",\"should\":\"CONTAIN\",\"value\":\"reminder\"}]}";
+        HttpResponse<String> resp = http.send(
+                HttpRequest.newBuilder(URI.create(fake.baseUrl() + "/waitFor"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(conditions)).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        Assert.assertEquals(resp.statusCode(), 200);
+        JsonArray hits = JsonParser.parseString(resp.body()).getAsJsonArray();
+        Assert.assertEquals(hits.size(), 1);
+        Assert.assertEquals(hits.get(0).getAsJsonObject().get("subject").getAsString(), "Assessment reminder");
+    }
+
+    @Test
+    public void testWaitForTimesOutWith408() throws Exception {
+        UUID inbox = fake.inbox(UUID.randomUUID());
+        String conditions = "{\"inboxId\":\"" + inbox + "\",\"count\":1,\"timeout\":100}";
+        HttpResponse<String> resp = http.send(
+                HttpRequest.newBuilder(URI.create(fake.baseUrl() + "/waitFor"))
+                        .POST(HttpRequest.BodyPublishers.ofString(conditions)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        Assert.assertEquals(resp.statusCode(), 408);
+    }
+
+    @Test
+    public void testSdkDeserializesFakeResponsesViaBasePath() throws Exception {
+        MailSlurpFake shared = MailSlurpFake.install();
+        Assert.assertEquals(MailSlurpUtils._basePathForTestOnly(), shared.baseUrl());
+        MailSlurpUtils._resetClientForTestOnly();
+
+        UUID inbox = shared.inbox(UUID.randomUUID());
+        InboxDto dto = MailSlurpUtils.getInboxById(inbox);
+        Assert.assertEquals(dto.getId(), inbox);
+        Assert.assertEquals(dto.getEmailAddress(), shared.emailAddressOf(inbox));
+
+        String alias = MailSlurpUtils.addPlusAlias(dto.getEmailAddress(), "sdk-1");
+        shared.deliver("noreply@tilt365.com", List.of(alias), "Assessment Reminder", "<html><body>Complete Assessment</body></html>");
+
+        // server-side wait (waitFor → EmailPreview list) then getEmail → Email
+        Email e = MailSlurpUtils.waitForEmailMatching(inbox, 5_000, 200, true, MailSlurpUtils.subjectContains("Reminder"));
+        Assert.assertNotNull(e, "email should be found through the SDK");
+        Assert.assertEquals(e.getSubject(), "Assessment Reminder");
+        Assert.assertEquals(e.getTo(), List.of(alias));
+        Assert.assertTrue(MailSlurpUtils.safeEmailBody(e).contains("Complete Assessment"));
+    }
+
+    @Test
+    public void testSubjectNeedleCaseDoesNotReachServerMatch() throws Exception {
+        MailSlurpFake shared = MailSlurpFake.install();
+        MailSlurpUtils._resetClientForTestOnly();
+        UUID inbox = shared.inbox(UUID.randomUUID());
+        shared.deliver("noreply@tilt365.com", List.of(shared.emailAddressOf(inbox)), "Assessment Reminder", "x");
+
+        // the fake's CONTAIN is case-sensitive like MailSlurp's; subjectContains is not
+        long start = System.currentTimeMillis();
+        Email lower = MailSlurpUtils.waitForEmailMatching(inbox, 5_000, 200, false, MailSlurpUtils.subjectContains("reminder"));
+        Email upper = MailSlurpUtils.waitForEmailMatching(inbox, 5_000, 200, false, MailSlurpUtils.subjectContains("REMINDER"));
+        Assert.assertNotNull(lower);
+        Assert.assertNotNull(upper);
+        Assert.assertTrue(System.currentTimeMillis() - start < 4_000, "matches should not wait for the deadline");
+    }
+
+    // ---------- helpers ----------
+
+    private String get(String path) throws Exception {
+        HttpResponse<String> resp = http.send(
+                HttpRequest.newBuilder(URI.create(fake.baseUrl() + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        Assert.assertEquals(resp.statusCode(), 200, "GET " + path + " -> " + resp.body());
+        return resp.body();
+    }
+
+    private void smtpSend(String from, String to, String subject, String body) throws Exception {
+        try (Socket s = new Socket(InetAddress.getLoopbackAddress(), fake.smtpPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(s.getOutputStream(), true, StandardCharsets.UTF_8)) {
+            expect(in, "220");
+            line(out, "EHLO test");
+            expect(in, "250-");
+            expect(in, "250 ");
+            line(out, "MAIL FROM:<" + from + ">");
+            expect(in, "250");
+            line(out, "RCPT TO:<" + to + ">");
+            expect(in, "250");
+            line(out, "DATA");
+            expect(in, "354");
+            line(out, "From: " + from);
+            line(out, "To: " + to);
+            line(out, "Subject: " + subject);
+            line(out, "");
+            line(out, body);
+            line(out, ".");
+            expect(in, "250");
+            line(out, "QUIT");
+            expect(in, "221");
+        }
+    }
+
+    private static void line(PrintWriter out, String l) {
+        out.print(l + "\r\n");
+        out.flush();
+    }
+
+    private static void expect(BufferedReader in, String prefix) throws Exception {
+        String l = in.readLine();
+        Assert.assertNotNull(l, "SMTP connection closed, expected " + prefix);
+        Assert.assertTrue(l.startsWith(prefix), "SMTP expected " + prefix + " got: " + l);
+    }
+}
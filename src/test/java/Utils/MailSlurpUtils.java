@@ -1,5 +1,6 @@
 package Utils;
 
+import api.HttpTransport;
 import com.mailslurp.apis.EmailControllerApi;
 import com.mailslurp.apis.InboxControllerApi;
 import com.mailslurp.apis.WaitForControllerApi;
@@ -9,12 +10,16 @@ import com.mailslurp.clients.Configuration;
 import com.mailslurp.models.Email;
 import com.mailslurp.models.EmailPreview;
 import com.mailslurp.models.InboxDto;
+import com.mailslurp.models.MatchOption;
+import com.mailslurp.models.WaitForConditions;
 import org.testng.SkipException;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
@@ -31,6 +36,9 @@ public class MailSlurpUtils {
     private static volatile EmailControllerApi emailController;
     private static volatile WaitForControllerApi waitForController;
 
+    // set once the server-side wait fails for a non-timeout reason; later waits poll
+    private static volatile boolean serverWaitUnavailable;
+
     // cached fingerprint for logs (optional)
     private static volatile String keyFingerprint;
 
@@ -122,8 +130,15 @@ public class MailSlurpUtils {
     }
 
     /**
-     * Poll inbox until an email matching the predicate arrives, or timeout.
-     * If unreadOnly=true, attempts to filter out read messages when API supports it.
+     * Wait until an email matching the predicate arrives, or timeout (returns null).
+     * If unreadOnly=true, read messages are ignored.
+     *
+     * Default mode (-Dmailslurp.waitMode=server) blocks on MailSlurp's server-side wait
+     * (WaitForControllerApi#waitFor) instead of sleeping between polls; pollIntervalMillis is then unused.
+     * -Dmailslurp.waitMode=poll keeps client polling. In both modes, previews are pre-filtered on the
+     * subject/recipient hints carried by {@link EmailMatch} predicates, so full bodies are only fetched
+     * for candidates, and each email is fetched at most once per wait. Only recipient hints are sent to the
+     * server: its CONTAIN match is case-sensitive, while subject hints are meant case-insensitively.
      */
     public static Email waitForEmailMatching(
             UUID inboxId,
@@ -140,50 +155,222 @@ public class MailSlurpUtils {
 
         ensureClientReadyOrThrow();
 
+        // Alias-addressed waits share one poller per inbox instead of each test listing it.
+        String aliasToken = dispatchToken(predicate);
+        if (aliasToken != null && MailSlurpDispatcher.isEnabled()) {
+            return MailSlurpDispatcher.forInbox(inboxId)
+                    .waitFor(aliasToken, unreadOnly, predicate, java.time.Duration.ofMillis(timeoutMillis));
+        }
+
         final long deadline = System.currentTimeMillis() + timeoutMillis;
+        final Set<UUID> rejected = new HashSet<>();
+
+        if (isServerWaitMode()) {
+            try {
+                return waitViaServer(inboxId, deadline, unreadOnly, predicate, rejected);
+            } catch (ApiException e) {
+                serverWaitUnavailable = true;
+                logger.warn("[MailSlurp][wait] server-side wait failed (HTTP {}: {}); polling instead.",
+                        e.getCode(), safeMsg(e));
+            }
+        }
+        return waitViaPolling(inboxId, deadline, pollIntervalMillis, unreadOnly, predicate, rejected);
+    }
+
+    /**
+     * Server-side wait: block until at least (already rejected + 1) emails match the recipient hints,
+     * then fetch only the new candidates. Waits are chunked so each call stays under the client read timeout.
+     * Network errors (no HTTP status) back off and re-arm until the deadline; HTTP errors are rethrown.
+     */
+    private static Email waitViaServer(UUID inboxId, long deadline, boolean unreadOnly,
+                                       Predicate<Email> predicate, Set<UUID> rejected)
+            throws ApiException, InterruptedException {
+        // Subject hints stay client-side (previewMayMatch): they are lower-cased, the server match is not
+        List<MatchOption> matches = new ArrayList<>();
+        for (String t : toHints(predicate)) {
+            matches.add(new MatchOption().field(MatchOption.FieldEnum.TO).should(MatchOption.ShouldEnum.CONTAIN).value(t));
+        }
+        // Same horizon as the old "10 newest" poll: do not match mail from long before this wait.
+        OffsetDateTime since = OffsetDateTime.now(ZoneOffset.UTC)
+                .minusSeconds(Config.getInt("mailslurp.wait.lookbackSec", "MAILSLURP_WAIT_LOOKBACK_SEC", 900));
+        long chunkMs = Config.getInt("mailslurp.wait.chunkMs", "MAILSLURP_WAIT_CHUNK_MS", 20_000);
+        long backoffMs = 0L;
+
+        while (System.currentTimeMillis() < deadline) {
+            long left = deadline - System.currentTimeMillis();
+            // Server-side unreadOnly would drop emails we already fetched (fetching marks them read)
+            // and break the count; read state is checked client-side instead.
+            WaitForConditions conditions = new WaitForConditions()
+                    .inboxId(inboxId)
+                    .count(rejected.size() + 1)
+                    .countType(WaitForConditions.CountTypeEnum.ATLEAST)
+                    .matches(matches)
+                    .since(since)
+                    .sortDirection(WaitForConditions.SortDirectionEnum.DESC)
+                    .unreadOnly(false)
+                    .timeout(Math.max(1_000L, Math.min(left, chunkMs)));
+
+            List<EmailPreview> previews;
+            try {
+                previews = waitForController.waitFor(conditions).execute();
+                backoffMs = 0L;
+            } catch (ApiException e) {
+                if (isWaitTimeout(e)) continue; // nothing new yet: re-arm
+                if (!isNetworkError(e)) throw e;
+                backoffMs = Math.min(5_000L, Math.max(500L, backoffMs * 2));
+                logger.warn("[MailSlurp][wait] {}; retrying in {}ms", safeMsg(e.getCause()), backoffMs);
+                Thread.sleep(Math.min(backoffMs, Math.max(0L, deadline - System.currentTimeMillis())));
+                continue;
+            }
+            Email hit = firstMatch(previews, unreadOnly, predicate, rejected);
+            if (hit != null) return hit;
+        }
+        return null;
+    }
+
+    private static Email waitViaPolling(UUID inboxId, long deadline, long pollIntervalMillis, boolean unreadOnly,
+                                        Predicate<Email> predicate, Set<UUID> rejected) throws InterruptedException {
         while (System.currentTimeMillis() < deadline) {
             try {
                 // Pull a small page; MailSlurp sorts newest-first by default
                 List<EmailPreview> previews = inboxController.getEmails(inboxId).size(10).execute();
-                if (previews != null) {
-                    for (EmailPreview p : previews) {
-                        // If unreadOnly is requested and preview has a read flag, skip read ones
-                        try {
-                            Boolean read = null;
-                            try {
-                                Method gm = p.getClass().getMethod("getRead");
-                                Object rv = gm.invoke(p);
-                                if (rv instanceof Boolean) read = (Boolean) rv;
-                            } catch (NoSuchMethodException ignore) {}
-                            if (unreadOnly && Boolean.TRUE.equals(read)) continue;
-                        } catch (Exception ignore) {}
-
-                        Email e = emailController.getEmail(p.getId()).execute();
-
-                        // Also enforce unreadOnly at full Email level if getIsRead exists
-                        if (unreadOnly) {
-                            try {
-                                Method gm = e.getClass().getMethod("getIsRead");
-                                Object rv = gm.invoke(e);
-                                if (rv instanceof Boolean && (Boolean) rv) continue;
-                            } catch (NoSuchMethodException ignore) {}
-                        }
-
-                        if (predicate.test(e)) return e;
-                    }
-                }
+                Email hit = firstMatch(previews, unreadOnly, predicate, rejected);
+                if (hit != null) return hit;
             } catch (Exception e) {
                 logger.warn("[MailSlurp][poll] list/get failed: {}", e.getMessage());
             }
-            Thread.sleep(pollIntervalMillis);
+            Thread.sleep(Math.min(pollIntervalMillis, Math.max(0L, deadline - System.currentTimeMillis())));
         }
         return null;
     }
 
+    /** Fetch full bodies only for unseen previews that pass the cheap checks; remember rejects. */
+    private static Email firstMatch(List<EmailPreview> previews, boolean unreadOnly,
+                                    Predicate<Email> predicate, Set<UUID> rejected) throws ApiException {
+        if (previews == null) return null;
+        for (EmailPreview p : previews) {
+            if (p.getId() == null || rejected.contains(p.getId())) continue;
+            if ((unreadOnly && isRead(p, "getRead")) || !previewMayMatch(p, predicate)) {
+                rejected.add(p.getId());
+                continue;
+            }
+            Email e = emailController.getEmail(p.getId()).execute();
+            if (!(unreadOnly && isRead(e, "getIsRead")) && predicate.test(e)) return e;
+            rejected.add(p.getId());
+        }
+        return null;
+    }
+
+    private static boolean previewMayMatch(EmailPreview p, Predicate<Email> predicate) {
+        String subject = Optional.ofNullable(p.getSubject()).orElse("").toLowerCase(Locale.ROOT);
+        for (String s : subjectHints(predicate)) {
+            if (p.getSubject() != null && !subject.contains(s)) return false;
+        }
+        List<String> to = Optional.ofNullable(p.getTo()).orElseGet(ArrayList::new);
+        for (String t : toHints(predicate)) {
+            if (p.getTo() != null && to.stream().filter(Objects::nonNull)
+                    .noneMatch(a -> a.toLowerCase(Locale.ROOT).contains(t))) return false;
+        }
+        return true;
+    }
+
+    static boolean isRead(Object emailOrPreview, String getter) {
+        try {
+            Object rv = emailOrPreview.getClass().getMethod(getter).invoke(emailOrPreview);
+            return rv instanceof Boolean && (Boolean) rv;
+        } catch (Exception ignore) {
+            return false; // not all SDK versions expose the read flag
+        }
+    }
+
+    /** The wait ran out server-side (408/504) or the read timed out: nothing new yet. */
+    private static boolean isWaitTimeout(ApiException e) {
+        int code = e.getCode();
+        return code == 408 || code == 504 || e.getCause() instanceof java.net.SocketTimeoutException;
+    }
+
+    /** No HTTP status: the SDK wrapped an IOException (connection refused, DNS, TLS, reset). */
+    private static boolean isNetworkError(ApiException e) {
+        return e.getCode() == 0 && e.getCause() instanceof java.io.IOException;
+    }
+
+    private static boolean isServerWaitMode() {
+        return !serverWaitUnavailable
+                && !"poll".equalsIgnoreCase(Config.get("mailslurp.waitMode", "MAILSLURP_WAIT_MODE", "server"));
+    }
+
+    /** The +alias token an {@link EmailMatch} is addressed to, or null. */
+    private static String dispatchToken(Predicate<?> p) {
+        for (String t : toHints(p)) {
+            if (t.startsWith("+")) return t;
+        }
+        return null;
+    }
+
+    /* Raw access for MailSlurpDispatcher (same lazy client). */
+    static List<EmailPreview> listPreviews(UUID inboxId, int size) throws ApiException {
+        ensureClientReadyOrThrow();
+        return inboxController.getEmails(inboxId).size(size).execute();
+    }
+
+    static Email fetchEmail(UUID emailId) throws ApiException {
+        ensureClientReadyOrThrow();
+        return emailController.getEmail(emailId).execute();
+    }
+
+    private static List<String> subjectHints(Predicate<?> p) {
+        return p instanceof EmailMatch ? ((EmailMatch) p).subjectHints() : List.of();
+    }
+
+    private static List<String> toHints(Predicate<?> p) {
+        return p instanceof EmailMatch ? ((EmailMatch) p).toHints() : List.of();
+    }
+
+    /**
+     * Email predicate that also carries cheap preview-level hints (lower-cased substrings the subject /
+     * a recipient must contain, compared case-insensitively). Composing with {@code and(...)} keeps the hints of both sides.
+     */
+    public interface EmailMatch extends Predicate<Email> {
+        default List<String> subjectHints() { return List.of(); }
+        default List<String> toHints() { return List.of(); }
+
+        @Override
+        default EmailMatch and(Predicate<? super Email> other) {
+            Objects.requireNonNull(other, "other");
+            List<String> subj = new ArrayList<>(subjectHints());
+            List<String> to = new ArrayList<>(toHints());
+            if (other instanceof EmailMatch) {
+                subj.addAll(((EmailMatch) other).subjectHints());
+                to.addAll(((EmailMatch) other).toHints());
+            }
+            Predicate<Email> self = this;
+            return new HintedMatch(e -> self.test(e) && other.test(e), subj, to);
+        }
+    }
+
+    private static final class HintedMatch implements EmailMatch {
+        private final Predicate<Email> test;
+        private final List<String> subjectHints;
+        private final List<String> toHints;
+
+        HintedMatch(Predicate<Email> test, List<String> subjectHints, List<String> toHints) {
+            this.test = test;
+            this.subjectHints = List.copyOf(subjectHints);
+            this.toHints = List.copyOf(toHints);
+        }
+
+        @Override public boolean test(Email e) { return test.test(e); }
+        @Override public List<String> subjectHints() { return subjectHints; }
+        @Override public List<String> toHints() { return toHints; }
+    }
+
     /* Predicates / body helpers */
-    public static java.util.function.Predicate<Email> subjectContains(String needle) {
+    public static EmailMatch subjectContains(String needle) {
         String n = (needle == null) ? "" : needle.toLowerCase(Locale.ROOT);
-        return e -> Optional.ofNullable(e.getSubject()).orElse("").toLowerCase(Locale.ROOT).contains(n);
+        return new HintedMatch(
+                e -> Optional.ofNullable(e.getSubject()).orElse("").toLowerCase(Locale.ROOT).contains(n),
+                n.isBlank() ? List.of() : List.of(n),
+                List.of());
     }
 
     public static java.util.function.Predicate<Email> bodyContains(String needle) {
@@ -230,13 +417,16 @@ public class MailSlurpUtils {
         return addPlusAlias(base, suffix);
     }
 
-    public static java.util.function.Predicate<Email> addressedToAliasToken(String aliasToken) {
+    public static EmailMatch addressedToAliasToken(String aliasToken) {
         String tok = Optional.ofNullable(aliasToken).orElse("").toLowerCase(Locale.ROOT);
-        return e -> !tok.isBlank() &&
-                Optional.ofNullable(e.getTo()).orElseGet(java.util.ArrayList::new).stream()
-                        .filter(Objects::nonNull)
-                        .map(s -> s.toLowerCase(Locale.ROOT))
-                        .anyMatch(s -> s.contains(tok));
+        return new HintedMatch(
+                e -> !tok.isBlank() &&
+                        Optional.ofNullable(e.getTo()).orElseGet(java.util.ArrayList::new).stream()
+                                .filter(Objects::nonNull)
+                                .map(s -> s.toLowerCase(Locale.ROOT))
+                                .anyMatch(s -> s.contains(tok)),
+                List.of(),
+                tok.isBlank() ? List.of() : List.of(tok));
     }
 
     public static String extractAliasToken(String aliasedEmail) {
@@ -268,6 +458,7 @@ public class MailSlurpUtils {
             keyFingerprint = safeSha12(apiKey);
 
             ApiClient client = Configuration.getDefaultApiClient();
+            client.setHttpClient(HttpTransport.okHttp());   // shared pool; timeouts below derive from it
             client.setBasePath(basePath());
             client.setApiKey(apiKey);
             client.setConnectTimeout(30_000);
@@ -474,6 +665,17 @@ public class MailSlurpUtils {
         );
     }
 
+    // Drops the lazy client so the next call rebuilds it from the current basePath / key.
+    static void _resetClientForTestOnly() {
+        synchronized (MailSlurpUtils.class) {
+            apiClient = null;
+            inboxController = null;
+            emailController = null;
+            waitForController = null;
+            serverWaitUnavailable = false;
+        }
+    }
+
 
 
 
@@ -1,10 +1,15 @@
 package Utils;
 
 import org.testng.Assert;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Zero-network checks for MailSlurp API key precedence.
  * NOTE: We only toggle System properties here; env vars are read-only at runtime.
@@ -13,6 +18,26 @@ import org.testng.annotations.Test;
 @Test(singleThreaded = true)
 public class MailSlurpUtilsKeyResolutionTest {
 
+    private static final String[] PROPS = {
+            "mailslurp.forceKey", "mailslurp.apiKey", "MAILSLURP_API_KEY", "mailslurp.expectedFingerprint", "mailslurp.basePath"
+    };
+
+    // The suite may run against MailSlurpFake, which supplies mailslurp.basePath / mailslurp.apiKey: put them back
+    private final Map<String, String> saved = new HashMap<>();
+
+    @BeforeClass
+    public void saveProps() {
+        for (String p : PROPS) saved.put(p, System.getProperty(p));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void restoreProps() {
+        saved.forEach((k, v) -> {
+            if (v == null) System.clearProperty(k);
+            else System.setProperty(k, v);
+        });
+    }
+
     @BeforeMethod
     public void clearBefore() {
         clearProps();
@@ -24,11 +49,7 @@ public class MailSlurpUtilsKeyResolutionTest {
     }
 
     private static void clearProps() {
-        System.clearProperty("mailslurp.forceKey");
-        System.clearProperty("mailslurp.apiKey");
-        System.clearProperty("MAILSLURP_API_KEY");
-        System.clearProperty("mailslurp.expectedFingerprint");
-        System.clearProperty("mailslurp.basePath");
+        for (String p : PROPS) System.clearProperty(p);
     }
 
     @Test
@@ -1,20 +1,22 @@
 package Utils;
 
+import base.DevToolsHub;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import org.openqa.selenium.devtools.DevTools;
-import org.openqa.selenium.devtools.HasDevTools;
 import org.openqa.selenium.devtools.v142.network.Network;
 import org.openqa.selenium.devtools.v142.network.model.Headers;
 import org.openqa.selenium.devtools.v142.network.model.RequestId;
 
-
-
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
@@ -35,59 +37,65 @@ public class NetSniffer {
     /**
      * Starts Network capture and returns the first JSON response whose URL matches urlMatcher.
      * Call BEFORE clicking the button that triggers the request.
+     *
+     * Runs on the driver's {@link DevToolsHub}: listeners only note matching request ids, and the body
+     * is fetched here once loading has finished. The subscriptions are removed on return.
      */
     public static JsonResponse waitForJsonResponse(org.openqa.selenium.WebDriver driver,
                                                    Predicate<String> urlMatcher,
                                                    Duration timeout) {
-        DevTools devTools = ((HasDevTools) driver).getDevTools();
-        devTools.createSession();
-        devTools.send(
-                Network.enable(
-                        Optional.empty(),   // maxTotalBufferSize
-                        Optional.empty(),   // maxResourceBufferSize
-                        Optional.empty(),   // maxPostDataSize
-                        Optional.of(true),  // captureNetworkRequests
-                        Optional.of(true)   // reportRawHeaders
-                )
-
-        );
-
-        CompletableFuture<JsonResponse> future = new CompletableFuture<>();
-
-        // Attach listener for responseReceived
-        devTools.addListener(Network.responseReceived(), rr -> {
-            try {
-                String url = rr.getResponse().getUrl();
-                if (!urlMatcher.test(url)) return;
-
-                Headers headers = rr.getResponse().getHeaders();
-                String contentType = Optional.ofNullable(headers.toJson())
-                        .map(j -> String.valueOf(j.getOrDefault("content-type", "")))
-                        .orElse("");
-                if (!contentType.toLowerCase().contains("application/json")) return;
+        DevToolsHub hub = DevToolsHub.forDriver(driver)
+                .orElseThrow(() -> new IllegalStateException("DevTools is not available for this driver"));
+        hub.enableNetwork();
+
+        Map<RequestId, String> pending = new ConcurrentHashMap<>();
+        LinkedBlockingQueue<RequestId> finished = new LinkedBlockingQueue<>();
+
+        List<DevToolsHub.Subscription> subscriptions = new ArrayList<>();
+        subscriptions.add(hub.subscribe(Network.responseReceived(), rr -> {
+            String url = rr.getResponse().getUrl();
+            if (!urlMatcher.test(url)) return;
+
+            Headers headers = rr.getResponse().getHeaders();
+            String contentType = Optional.ofNullable(headers.toJson())
+                    .map(j -> String.valueOf(j.getOrDefault("content-type", "")))
+                    .orElse("");
+            if (!contentType.toLowerCase().contains("application/json")) return;
+            pending.put(rr.getRequestId(), url);
+        }));
+        subscriptions.add(hub.subscribe(Network.loadingFinished(), lf -> {
+            if (pending.containsKey(lf.getRequestId())) finished.add(lf.getRequestId());
+        }));
 
-                RequestId reqId = rr.getRequestId();
-                // Fetch body
-                Network.GetResponseBodyResponse bodyResp =
-                        devTools.send(Network.getResponseBody(reqId));
-
-                String text = bodyResp.getBody();
-                if (Boolean.TRUE.equals(bodyResp.getBase64Encoded())) {
-                    text = new String(Base64.getDecoder().decode(text), StandardCharsets.UTF_8);
-                }
-                JsonObject json = JsonParser.parseString(text).getAsJsonObject();
-
-                if (!future.isDone()) {
-                    future.complete(new JsonResponse(url, text, json));
-                }
-            } catch (Throwable ignored) {
+        try {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            long left;
+            while ((left = deadline - System.nanoTime()) > 0) {
+                RequestId reqId = finished.poll(left, TimeUnit.NANOSECONDS);
+                if (reqId == null) break;
+                JsonResponse r = fetchJson(hub, reqId, pending.get(reqId));
+                if (r != null) return r;
             }
-        });
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscriptions.forEach(DevToolsHub.Subscription::close);
+        }
+        throw new RuntimeException("Timed out waiting for matching JSON response");
+    }
 
+    /** Body of a finished request as a JSON object; null when unavailable or not an object. */
+    private static JsonResponse fetchJson(DevToolsHub hub, RequestId reqId, String url) {
         try {
-            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
-        } catch (Exception e) {
-            throw new RuntimeException("Timed out waiting for matching JSON response", e);
+            Network.GetResponseBodyResponse bodyResp = hub.send(Network.getResponseBody(reqId));
+            String text = bodyResp.getBody();
+            if (Boolean.TRUE.equals(bodyResp.getBase64Encoded())) {
+                text = new String(Base64.getDecoder().decode(text), StandardCharsets.UTF_8);
+            }
+            JsonElement el = JsonParser.parseString(text);
+            return el.isJsonObject() ? new JsonResponse(url, text, el.getAsJsonObject()) : null;
+        } catch (Exception ignored) {
+            return null;
         }
     }
 }
@@ -1,12 +1,12 @@
 package Utils;
 
+import api.HttpTransport;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
 import java.io.*;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -37,9 +37,21 @@ public class StripeCheckoutHelper {
         }
     }
 
+    /**
+     * How events are fired: "direct" posts signed events to the backend via {@link StripeWebhookEmitter},
+     * "cli" runs {@code stripe trigger}, "auto" (default) uses direct when the webhook URL + secret are set.
+     */
+    private static boolean useDirectWebhook() {
+        String mode = Config.get("stripe.trigger", "STRIPE_TRIGGER_MODE", "auto").toLowerCase();
+        if ("cli".equals(mode)) return false;
+        if ("direct".equals(mode)) return true;
+        return StripeWebhookEmitter.isConfigured();
+    }
+
     /** Returns a valid test-mode API key (rk_test_ or sk_test_). */
     private static String resolveStripeKey() {
         String k = Config.getStripeSecretKey(); // supports ENV and UPPERCASE properties
+        if ((k == null || k.isBlank()) && StripeStub.isEnabled()) return StripeStub.STUB_KEY;
         if (k == null || k.isBlank()) {
             throw new IllegalStateException(
                     "Missing Stripe test key. Set STRIPE_TEST_SECRET_KEY or STRIPE_SECRET_KEY (config.local.properties or ENV)."
@@ -57,11 +69,7 @@ public class StripeCheckoutHelper {
         Objects.requireNonNull(sessionId, "sessionId");
         String key = resolveStripeKey();
         try {
-            HttpClient client = HttpClient.newBuilder()
-                    .connectTimeout(HTTP_TIMEOUT)
-                    .build();
-
-            String url = "https://api.stripe.com/v1/checkout/sessions/" + sessionId + "?expand[]=payment_intent";
+            String url = StripeStub.apiBase() + "/v1/checkout/sessions/" + sessionId + "?expand[]=payment_intent";
             HttpRequest req = HttpRequest.newBuilder()
                     .uri(URI.create(url))
                     .timeout(HTTP_TIMEOUT)
@@ -69,7 +77,7 @@ public class StripeCheckoutHelper {
                     .GET()
                     .build();
 
-            HttpResponse<String> res = client.send(req, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> res = HttpTransport.send(req, HttpResponse.BodyHandlers.ofString());
             if (res.statusCode() / 100 != 2) {
                 throw new RuntimeException("Stripe GET session failed: " + res.statusCode() + " " + res.body());
             }
@@ -108,10 +116,14 @@ public class StripeCheckoutHelper {
     }
 
     // ===== 2) Trigger checkout.session.completed with exact body JSON (metadata[body]) =====
+    // Signed POST to the backend when configured (see useDirectWebhook), Stripe CLI otherwise.
     public static TriggerResult triggerCheckoutCompletedWithBody(String bodyJson) {
         if (bodyJson == null || bodyJson.isBlank()) {
             throw new IllegalArgumentException("bodyJson is empty");
         }
+        if (useDirectWebhook()) {
+            return StripeWebhookEmitter.fromConfig().checkoutSessionCompleted(bodyJson);
+        }
         String key = resolveStripeKey();
 
         // Compact to single-line JSON to avoid CLI parsing issues with newlines/whitespace
@@ -129,6 +141,9 @@ public class StripeCheckoutHelper {
     /** Simulate a successful Checkout and set checkout_session.metadata[order_id]. */
     public static TriggerResult simulateCheckoutSuccess(String orderId) {
         Objects.requireNonNull(orderId, "orderId");
+        if (useDirectWebhook()) {
+            return StripeWebhookEmitter.join(StripeWebhookEmitter.fromConfig().checkoutSessionCompletedForOrderAsync(orderId));
+        }
         String key = resolveStripeKey();
         List<String> cmd = List.of(
                 STRIPE_BIN, "trigger", "checkout.session.completed",
@@ -142,6 +157,9 @@ public class StripeCheckoutHelper {
     /** Simulate a failed payment and set payment_intent.metadata[order_id]. */
     public static TriggerResult simulateCheckoutFailure(String orderId) {
         Objects.requireNonNull(orderId, "orderId");
+        if (useDirectWebhook()) {
+            return StripeWebhookEmitter.join(StripeWebhookEmitter.fromConfig().paymentIntentFailedAsync(orderId));
+        }
         String key = resolveStripeKey();
         List<String> cmd = List.of(
                 STRIPE_BIN, "trigger", "payment_intent.payment_failed",
@@ -0,0 +1,386 @@
+package Utils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.stripe.Stripe;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process stand-in for the Stripe endpoints the suite calls (stripe-java SDK and raw HttpClient).
+ *
+ * REST (form-encoded like Stripe, JSON shaped so stripe-java deserializes it):
+ *   POST /v1/checkout/sessions                      (creates the session and its PaymentIntent)
+ *   GET  /v1/checkout/sessions/{id}[?expand[]=payment_intent]
+ *   POST /v1/payment_intents
+ *   GET  /v1/payment_intents?limit=                 (newest first)
+ *   GET  /v1/payment_intents/{id}
+ *   POST /v1/payment_intents/{id}/confirm           (pm_card_chargeDeclined* -> 402 card_declined)
+ *   GET  /c/pay/{sessionId}                         (hosted page: completes the session, 303 to success_url)
+ *
+ * Sessions and PaymentIntents live in memory, indexed by id and by (lower-cased) email, so lookups like
+ * {@link #latestPaymentIntentFor(String)} do not scan.
+ *
+ * Use -Dstripe.stub=true: {@link #apiBase()} then returns this server's URL, {@link #configureSdk()} points
+ * stripe-java at it, and no real Stripe key is needed. -Dstripe.apiBase / STRIPE_API_BASE points the same
+ * paths at any other Stripe-compatible server (e.g. stripe-mock). Port: stripe.stub.port (0 = ephemeral).
+ */
+public final class StripeStub implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(StripeStub.class);
+
+    public static final String STUB_KEY = "sk_test_stub";
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final char[] ID_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+    private static volatile StripeStub shared;
+
+    private final HttpServer http;
+    private final Map<String, JsonObject> sessions = new ConcurrentHashMap<>();
+    private final Map<String, JsonObject> intents = new ConcurrentHashMap<>();
+    private final List<String> intentOrder = new CopyOnWriteArrayList<>();                 // creation order
+    private final Map<String, List<String>> intentsByEmail = new ConcurrentHashMap<>();     // email -> pi ids
+    private final Map<String, List<String>> sessionsByEmail = new ConcurrentHashMap<>();    // email -> cs ids
+
+    public static boolean isEnabled() {
+        return Config.getBoolean("stripe.stub", "STRIPE_STUB", false);
+    }
+
+    /** Suite-wide instance, started on first use and stopped with the JVM. */
+    public static StripeStub shared() {
+        StripeStub s = shared;
+        if (s != null) return s;
+        synchronized (StripeStub.class) {
+            if (shared == null) {
+                try {
+                    shared = start(Config.getInt("stripe.stub.port", "STRIPE_STUB_PORT", 0));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not start Stripe stub: " + e.getMessage(), e);
+                }
+                StripeStub started = shared;
+                Runtime.getRuntime().addShutdownHook(new Thread(started::close, "stripe-stub-stop"));
+            }
+            return shared;
+        }
+    }
+
+    public static StripeStub start(int port) throws IOException {
+        return new StripeStub(port);
+    }
+
+    /** Base URL for Stripe API calls: the stub when enabled, else stripe.apiBase, else api.stripe.com. */
+    public static String apiBase() {
+        if (isEnabled()) return shared().baseUrl();
+        return Config.get("stripe.apiBase", "STRIPE_API_BASE", Stripe.LIVE_API_BASE).replaceAll("/+$", "");
+    }
+
+    /** Point stripe-java at {@link #apiBase()} (no-op against the real API) and supply a key for the stub. */
+    public static void configureSdk() {
+        String base = apiBase();
+        if (!Stripe.LIVE_API_BASE.equals(base)) {
+            Stripe.overrideApiBase(base);
+            logger.info("[StripeStub] stripe-java API base -> {}", base);
+        }
+        if (isEnabled() && (Stripe.apiKey == null || !Stripe.apiKey.startsWith("sk_test_"))) {
+            Stripe.apiKey = STUB_KEY;
+        }
+    }
+
+    private StripeStub(int port) throws IOException {
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.createContext("/", this::handle);
+        http.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "stripe-stub-http");
+            t.setDaemon(true);
+            return t;
+        }));
+        http.start();
+        logger.info("[StripeStub] listening on {}", baseUrl());
+    }
+
+    public String baseUrl() {
+        return "http://" + http.getAddress().getAddress().getHostAddress() + ":" + http.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        http.stop(0);
+    }
+
+    // =========================================================
+    // DIRECT API (for tests / seeding)
+    // =========================================================
+
+    /** Create an open Checkout Session (and its PaymentIntent) for {@code email}. Returns the session id. */
+    public String createCheckoutSession(String email, long amount, Map<String, String> metadata) {
+        Map<String, String> p = new LinkedHashMap<>();
+        if (email != null) p.put("customer_email", email);
+        p.put("amount_total", String.valueOf(amount));
+        if (metadata != null) metadata.forEach((k, v) -> p.put("metadata[" + k + "]", v));
+        return createSession(p).get("id").getAsString();
+    }
+
+    /** Mark the session complete/paid and its PaymentIntent succeeded, as the hosted page would. */
+    public synchronized JsonObject completeCheckoutSession(String sessionId) {
+        JsonObject s = sessions.get(sessionId);
+        if (s == null) throw new IllegalArgumentException("No such checkout.session: " + sessionId);
+        s.addProperty("status", "complete");
+        s.addProperty("payment_status", "paid");
+        JsonObject pi = intents.get(s.get("payment_intent").getAsString());
+        if (pi != null) succeed(pi, "pm_card_visa");
+        return s.deepCopy();
+    }
+
+    public Optional<JsonObject> session(String sessionId) {
+        JsonObject s = sessions.get(sessionId);
+        return Optional.ofNullable(s == null ? null : s.deepCopy());
+    }
+
+    /** Newest PaymentIntent whose receipt_email is {@code email}. */
+    public Optional<String> latestPaymentIntentFor(String email) {
+        List<String> ids = email == null ? null : intentsByEmail.get(email.trim().toLowerCase(Locale.ROOT));
+        return ids == null || ids.isEmpty() ? Optional.empty() : Optional.of(ids.get(ids.size() - 1));
+    }
+
+    /** Newest Checkout Session created for {@code email}. */
+    public Optional<String> latestSessionFor(String email) {
+        List<String> ids = email == null ? null : sessionsByEmail.get(email.trim().toLowerCase(Locale.ROOT));
+        return ids == null || ids.isEmpty() ? Optional.empty() : Optional.of(ids.get(ids.size() - 1));
+    }
+
+    // =========================================================
+    // REST
+    // =========================================================
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            String method = ex.getRequestMethod();
+            String path = ex.getRequestURI().getPath().replaceAll("/+$", "");
+            Map<String, String> q = form(ex.getRequestURI().getRawQuery());
+            Map<String, String> p = "POST".equals(method)
+                    ? form(new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8))
+                    : q;
+            String[] seg = path.split("/");
+
+            if ("POST".equals(method) && path.equals("/v1/checkout/sessions")) {
+                send(ex, 200, createSession(p));
+            } else if ("GET".equals(method) && seg.length == 5 && path.startsWith("/v1/checkout/sessions/")) {
+                JsonObject s = sessions.get(seg[4]);
+                if (s == null) { send(ex, 404, missing("checkout.session", seg[4])); return; }
+                JsonObject out = s.deepCopy();
+                if (q.values().contains("payment_intent")) {   // expand[]=payment_intent
+                    JsonObject pi = intents.get(s.get("payment_intent").getAsString());
+                    if (pi != null) out.add("payment_intent", pi.deepCopy());
+                }
+                send(ex, 200, out);
+            } else if ("POST".equals(method) && path.equals("/v1/payment_intents")) {
+                JsonObject pi = createIntent(p.get("receipt_email"), longParam(p, "amount", 0),
+                        p.getOrDefault("currency", "usd"), metadata(p, "metadata"));
+                if ("true".equals(p.get("confirm"))) confirm(ex, pi, p.get("payment_method"));
+                else send(ex, 200, pi);
+            } else if ("GET".equals(method) && path.equals("/v1/payment_intents")) {
+                int limit = (int) Math.max(1, Math.min(100, longParam(q, "limit", 10)));
+                JsonArray data = new JsonArray();
+                for (int i = intentOrder.size() - 1; i >= 0 && data.size() < limit; i--) {
+                    data.add(intents.get(intentOrder.get(i)).deepCopy());
+                }
+                JsonObject list = new JsonObject();
+                list.addProperty("object", "list");
+                list.add("data", data);
+                list.addProperty("has_more", intentOrder.size() > limit);
+                list.addProperty("url", "/v1/payment_intents");
+                send(ex, 200, list);
+            } else if ("GET".equals(method) && seg.length == 4 && path.startsWith("/v1/payment_intents/")) {
+                JsonObject pi = intents.get(seg[3]);
+                if (pi == null) send(ex, 404, missing("payment_intent", seg[3]));
+                else send(ex, 200, pi.deepCopy());
+            } else if ("POST".equals(method) && seg.length == 5 && "payment_intents".equals(seg[2]) && "confirm".equals(seg[4])) {
+                JsonObject pi = intents.get(seg[3]);
+                if (pi == null) send(ex, 404, missing("payment_intent", seg[3]));
+                else confirm(ex, pi, p.get("payment_method"));
+            } else if ("GET".equals(method) && seg.length == 4 && "c".equals(seg[1]) && "pay".equals(seg[2])) {
+                JsonObject s = completeCheckoutSession(seg[3]);
+                String success = s.has("success_url") && !s.get("success_url").isJsonNull()
+                        ? s.get("success_url").getAsString().replace("{CHECKOUT_SESSION_ID}", seg[3])
+                        : baseUrl() + "/success?session_id=" + seg[3] + "&redirect_status=succeeded";
+                ex.getResponseHeaders().set("Location", success);
+                ex.sendResponseHeaders(303, -1);
+                ex.close();
+            } else {
+                send(ex, 404, stripeError("invalid_request_error", null,
+                        "Unrecognized request URL (" + method + ": " + path + ") in StripeStub."));
+            }
+        } catch (IllegalArgumentException e) {
+            send(ex, 400, stripeError("invalid_request_error", null, e.getMessage()));
+        } catch (Exception e) {
+            logger.warn("[StripeStub] {} {} failed: {}", ex.getRequestMethod(), ex.getRequestURI(), e.toString());
+            send(ex, 500, stripeError("api_error", null, e.toString()));
+        }
+    }
+
+    private synchronized JsonObject createSession(Map<String, String> p) {
+        String email = p.get("customer_email");
+        long amount = longParam(p, "amount_total", 0);
+        if (amount == 0) {
+            amount = longParam(p, "line_items[0][price_data][unit_amount]", 0)
+                    * Math.max(1, longParam(p, "line_items[0][quantity]", 1));
+        }
+        String currency = p.getOrDefault("currency", p.getOrDefault("line_items[0][price_data][currency]", "usd"));
+        JsonObject sessionMd = metadata(p, "metadata");
+        JsonObject piMd = metadata(p, "payment_intent_data[metadata]");
+        JsonObject pi = createIntent(email, amount, currency, piMd.size() > 0 ? piMd : sessionMd.deepCopy());
+
+        String id = newId("cs_test_");
+        JsonObject s = new JsonObject();
+        s.addProperty("id", id);
+        s.addProperty("object", "checkout.session");
+        s.addProperty("mode", p.getOrDefault("mode", "payment"));
+        s.addProperty("status", "open");
+        s.addProperty("payment_status", "unpaid");
+        s.addProperty("amount_total", amount);
+        s.addProperty("currency", currency);
+        s.addProperty("customer_email", email);
+        s.addProperty("payment_intent", pi.get("id").getAsString());
+        s.addProperty("success_url", p.get("success_url"));
+        s.addProperty("cancel_url", p.get("cancel_url"));
+        s.addProperty("url", baseUrl() + "/c/pay/" + id);
+        s.addProperty("livemode", false);
+        s.addProperty("created", nowSeconds());
+        s.addProperty("expires_at", nowSeconds() + 24 * 3600);
+        s.add("metadata", sessionMd);
+        sessions.put(id, s);
+        if (email != null) sessionsByEmail.computeIfAbsent(key(email), k -> new CopyOnWriteArrayList<>()).add(id);
+        return s.deepCopy();
+    }
+
+    private synchronized JsonObject createIntent(String email, long amount, String currency, JsonObject metadata) {
+        String id = newId("pi_test_");
+        JsonObject pi = new JsonObject();
+        pi.addProperty("id", id);
+        pi.addProperty("object", "payment_intent");
+        pi.addProperty("amount", amount);
+        pi.addProperty("currency", currency);
+        pi.addProperty("status", "requires_payment_method");
+        pi.addProperty("receipt_email", email);
+        pi.addProperty("client_secret", id + "_secret_" + newId(""));
+        pi.addProperty("livemode", false);
+        pi.addProperty("created", nowSeconds());
+        pi.add("metadata", metadata);
+        intents.put(id, pi);
+        intentOrder.add(id);
+        if (email != null) intentsByEmail.computeIfAbsent(key(email), k -> new CopyOnWriteArrayList<>()).add(id);
+        return pi.deepCopy();
+    }
+
+    private void confirm(HttpExchange ex, JsonObject pi, String paymentMethod) throws IOException {
+        String pm = paymentMethod == null ? "pm_card_visa" : paymentMethod;
+        JsonObject stored = intents.get(pi.get("id").getAsString());
+        synchronized (this) {
+            if (pm.contains("chargeDeclined")) {
+                JsonObject err = stripeError("card_error", "card_declined", "Your card was declined.");
+                stored.addProperty("status", "requires_payment_method");
+                stored.add("last_payment_error", err.getAsJsonObject("error").deepCopy());
+                err.getAsJsonObject("error").add("payment_intent", stored.deepCopy());
+                send(ex, 402, err);
+                return;
+            }
+            succeed(stored, pm);
+        }
+        send(ex, 200, stored.deepCopy());
+    }
+
+    private static void succeed(JsonObject pi, String paymentMethod) {
+        pi.addProperty("status", "succeeded");
+        pi.addProperty("payment_method", paymentMethod);
+        pi.addProperty("amount_received", pi.get("amount").getAsLong());
+        pi.addProperty("latest_charge", newId("ch_test_"));
+        pi.remove("last_payment_error");
+    }
+
+    // ---------- helpers ----------
+
+    private static JsonObject metadata(Map<String, String> p, String prefix) {
+        JsonObject md = new JsonObject();
+        String open = prefix + "[";
+        p.forEach((k, v) -> {
+            if (k.startsWith(open) && k.endsWith("]")) md.addProperty(k.substring(open.length(), k.length() - 1), v);
+        });
+        return md;
+    }
+
+    private static JsonObject missing(String type, String id) {
+        JsonObject e = stripeError("invalid_request_error", "resource_missing", "No such " + type + ": '" + id + "'");
+        e.getAsJsonObject("error").addProperty("param", "id");
+        return e;
+    }
+
+    private static JsonObject stripeError(String type, String code, String message) {
+        JsonObject err = new JsonObject();
+        err.addProperty("type", type);
+        if (code != null) err.addProperty("code", code);
+        err.addProperty("message", message);
+        JsonObject o = new JsonObject();
+        o.add("error", err);
+        return o;
+    }
+
+    private static void send(HttpExchange ex, int code, JsonElement json) throws IOException {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.getResponseHeaders().set("Request-Id", newId("req_"));
+        ex.sendResponseHeaders(code, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) { os.write(bytes); }
+        ex.close();
+    }
+
+    /** Stripe-style form body / query: a=1&metadata[k]=v&expand[]=x (decoded). */
+    private static Map<String, String> form(String raw) {
+        Map<String, String> out = new LinkedHashMap<>();
+        if (raw == null || raw.isEmpty()) return out;
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String k = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String v = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            out.put(k, v);
+        }
+        return out;
+    }
+
+    private static long longParam(Map<String, String> p, String key, long dflt) {
+        try { return Long.parseLong(p.get(key).trim()); } catch (Exception e) { return dflt; }
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000L;
+    }
+
+    private static String newId(String prefix) {
+        StringBuilder sb = new StringBuilder(prefix);
+        for (int i = 0; i < 24; i++) sb.append(ID_CHARS[RANDOM.nextInt(ID_CHARS.length)]);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package Utils;
+
+import com.stripe.Stripe;
+import com.stripe.exception.CardException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.PaymentIntentCollection;
+import com.stripe.param.PaymentIntentConfirmParams;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.PaymentIntentListParams;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+/** Drives the stub through stripe-java and the raw HttpClient path with -Dstripe.stub=true. */
+@Test(singleThreaded = true)
+public class StripeStubTest {
+
+    private String previousFlag;
+    private String previousKey;
+
+    @BeforeClass
+    public void enable() {
+        previousFlag = System.setProperty("stripe.stub", "true");
+        previousKey = Stripe.apiKey;
+        Stripe.apiKey = null;
+        StripeStub.configureSdk();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void restore() {
+        if (previousFlag == null) System.clearProperty("stripe.stub");
+        else System.setProperty("stripe.stub", previousFlag);
+        Stripe.overrideApiBase(Stripe.LIVE_API_BASE);
+        Stripe.apiKey = previousKey;
+    }
+
+    @Test
+    public void testSdkCreateListAndConfirm() throws Exception {
+        PaymentIntent created = PaymentIntent.create(PaymentIntentCreateParams.builder()
+                .setAmount(4900L).setCurrency("usd").setReceiptEmail("Buyer@Example.com")
+                .putMetadata("order_id", "ord-1").build());
+        Assert.assertEquals(created.getStatus(), "requires_payment_method");
+        Assert.assertEquals(created.getMetadata().get("order_id"), "ord-1");
+
+        PaymentIntentCollection list = PaymentIntent.list(PaymentIntentListParams.builder().setLimit(5L).build());
+        Assert.assertEquals(list.getData().get(0).getId(), created.getId(), "list should be newest first");
+        Assert.assertEquals(StripeStub.shared().latestPaymentIntentFor("buyer@example.com").orElse(null), created.getId());
+
+        PaymentIntent confirmed = PaymentIntent.retrieve(created.getId())
+                .confirm(PaymentIntentConfirmParams.builder().setPaymentMethod("pm_card_visa").build());
+        Assert.assertEquals(confirmed.getStatus(), "succeeded");
+    }
+
+    @Test
+    public void testDeclinedCardSurfacesAsCardException() throws Exception {
+        PaymentIntent pi = PaymentIntent.create(PaymentIntentCreateParams.builder()
+                .setAmount(100L).setCurrency("usd").build());
+        CardException e = Assert.expectThrows(CardException.class, () -> pi.confirm(
+                PaymentIntentConfirmParams.builder().setPaymentMethod("pm_card_chargeDeclined").build()));
+        Assert.assertEquals(e.getCode(), "card_declined");
+        Assert.assertEquals(PaymentIntent.retrieve(pi.getId()).getStatus(), "requires_payment_method");
+    }
+
+    @Test
+    public void testCheckoutBodyReadThroughHttpClientPath() {
+        String body = "{\"order\":{\"items\":[1,2]}}";
+        StripeStub stub = StripeStub.shared();
+        String sessionId = stub.createCheckoutSession("team@example.com", 9900L, Map.of("body", body));
+
+        Assert.assertEquals(StripeCheckoutHelper.fetchCheckoutBodyFromStripe(sessionId), body);
+        Assert.assertEquals(stub.latestSessionFor("TEAM@example.com").orElse(null), sessionId);
+
+        stub.completeCheckoutSession(sessionId);
+        String pi = stub.session(sessionId).orElseThrow().get("payment_intent").getAsString();
+        Assert.assertTrue(BackendUtils.isPaymentSuccessful(pi));
+    }
+}
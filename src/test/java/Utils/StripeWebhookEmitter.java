@@ -0,0 +1,207 @@
+package Utils;
+
+import api.HttpTransport;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Delivers Stripe webhook events straight to the backend, signed with the endpoint's webhook secret,
+ * instead of forking the Stripe CLI ({@code stripe trigger ...}) for each test.
+ *
+ * Events are built the way the backend consumes them: checkout.session.completed carries the order in
+ * data.object.metadata.body (as read by {@link StripeCheckoutHelper#fetchCheckoutBodyFromStripe}) or
+ * metadata.order_id; payment_intent.payment_failed carries metadata.order_id. The Stripe-Signature header
+ * uses Stripe's v1 scheme (HMAC-SHA256 over "timestamp.payload"), so the backend's normal signature check
+ * applies. Requests go through {@link HttpTransport} and can be fired concurrently with the *Async methods.
+ *
+ * Config:
+ *   stripe.webhookUrl    / STRIPE_WEBHOOK_URL     backend webhook endpoint (full URL)
+ *   stripe.webhookSecret / STRIPE_WEBHOOK_SECRET  whsec_... of that endpoint
+ */
+public final class StripeWebhookEmitter {
+
+    private static final Duration HTTP_TIMEOUT = Duration.ofSeconds(15);
+    private static final String API_VERSION = "2023-10-16";
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final char[] ID_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+    private final URI endpoint;
+    private final String secret;
+
+    public StripeWebhookEmitter(URI endpoint, String secret) {
+        this.endpoint = Objects.requireNonNull(endpoint, "endpoint");
+        this.secret = Objects.requireNonNull(secret, "secret");
+    }
+
+    public static boolean isConfigured() {
+        return Config.getAny("stripe.webhookUrl", "STRIPE_WEBHOOK_URL") != null
+                && Config.getAny("stripe.webhookSecret", "STRIPE_WEBHOOK_SECRET") != null;
+    }
+
+    public static StripeWebhookEmitter fromConfig() {
+        String url = Config.getAny("stripe.webhookUrl", "STRIPE_WEBHOOK_URL");
+        String secret = Config.getAny("stripe.webhookSecret", "STRIPE_WEBHOOK_SECRET");
+        if (url == null || secret == null) {
+            throw new IllegalStateException(
+                    "Missing webhook config. Set STRIPE_WEBHOOK_URL and STRIPE_WEBHOOK_SECRET (config.local.properties or ENV).");
+        }
+        return new StripeWebhookEmitter(URI.create(url), secret);
+    }
+
+    // ===== Events =====
+
+    /** checkout.session.completed with data.object.metadata.body = {@code bodyJson} (compacted). */
+    public StripeCheckoutHelper.TriggerResult checkoutSessionCompleted(String bodyJson) {
+        return join(checkoutSessionCompletedAsync(bodyJson));
+    }
+
+    public CompletableFuture<StripeCheckoutHelper.TriggerResult> checkoutSessionCompletedAsync(String bodyJson) {
+        if (bodyJson == null || bodyJson.isBlank()) {
+            throw new IllegalArgumentException("bodyJson is empty");
+        }
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("body", JsonParser.parseString(bodyJson).toString());
+        return sendAsync("checkout.session.completed", checkoutSession(metadata));
+    }
+
+    /** checkout.session.completed with data.object.metadata.order_id = {@code orderId}. */
+    public CompletableFuture<StripeCheckoutHelper.TriggerResult> checkoutSessionCompletedForOrderAsync(String orderId) {
+        Objects.requireNonNull(orderId, "orderId");
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("order_id", orderId);
+        return sendAsync("checkout.session.completed", checkoutSession(metadata));
+    }
+
+    /** payment_intent.payment_failed with data.object.metadata.order_id = {@code orderId}. */
+    public CompletableFuture<StripeCheckoutHelper.TriggerResult> paymentIntentFailedAsync(String orderId) {
+        Objects.requireNonNull(orderId, "orderId");
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("order_id", orderId);
+
+        JsonObject error = new JsonObject();
+        error.addProperty("type", "card_error");
+        error.addProperty("code", "card_declined");
+        error.addProperty("decline_code", "generic_decline");
+        error.addProperty("message", "Your card was declined.");
+
+        JsonObject pi = new JsonObject();
+        pi.addProperty("id", newId("pi_test_"));
+        pi.addProperty("object", "payment_intent");
+        pi.addProperty("amount", 2000);
+        pi.addProperty("currency", "usd");
+        pi.addProperty("status", "requires_payment_method");
+        pi.addProperty("livemode", false);
+        pi.addProperty("created", nowSeconds());
+        pi.add("last_payment_error", error);
+        pi.add("metadata", metadata);
+        return sendAsync("payment_intent.payment_failed", pi);
+    }
+
+    /** Sign and POST one event wrapping {@code dataObject}. */
+    public CompletableFuture<StripeCheckoutHelper.TriggerResult> sendAsync(String type, JsonObject dataObject) {
+        long ts = nowSeconds();
+        String eventId = newId("evt_test_");
+
+        JsonObject data = new JsonObject();
+        data.add("object", dataObject);
+        JsonObject request = new JsonObject();
+        request.add("id", null);
+        request.add("idempotency_key", null);
+
+        JsonObject event = new JsonObject();
+        event.addProperty("id", eventId);
+        event.addProperty("object", "event");
+        event.addProperty("api_version", API_VERSION);
+        event.addProperty("created", ts);
+        event.add("data", data);
+        event.addProperty("livemode", false);
+        event.addProperty("pending_webhooks", 1);
+        event.add("request", request);
+        event.addProperty("type", type);
+
+        String payload = event.toString();
+        HttpRequest req = HttpRequest.newBuilder(endpoint)
+                .timeout(HTTP_TIMEOUT)
+                .header("Content-Type", "application/json; charset=utf-8")
+                .header("User-Agent", "Stripe/1.0 (+https://stripe.com/docs/webhooks)")
+                .header("Stripe-Signature", signatureHeader(payload, secret, ts))
+                .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8))
+                .build();
+
+        System.out.println("[StripeWebhook] POST " + type + " " + eventId + " -> " + endpoint);
+        return HttpTransport.sendAsync(req, HttpResponse.BodyHandlers.ofString()).thenApply(res -> {
+            String out = "HTTP " + res.statusCode() + " " + res.body();
+            if (res.statusCode() / 100 != 2) {
+                throw new RuntimeException("Webhook " + type + " rejected by " + endpoint + ": " + out);
+            }
+            System.out.println("[StripeWebhook] " + eventId + " delivered (" + res.statusCode() + ")");
+            return new StripeCheckoutHelper.TriggerResult(true, eventId, null, out);
+        });
+    }
+
+    // ===== Signing =====
+
+    /** Stripe-Signature value: {@code t=<ts>,v1=<hex hmac_sha256(secret, ts + "." + payload)>}. */
+    static String signatureHeader(String payload, String secret, long timestampSeconds) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] sig = mac.doFinal((timestampSeconds + "." + payload).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(sig.length * 2);
+            for (byte b : sig) hex.append(String.format("%02x", b));
+            return "t=" + timestampSeconds + ",v1=" + hex;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    // ---------- internals ----------
+
+    private static JsonObject checkoutSession(JsonObject metadata) {
+        JsonObject s = new JsonObject();
+        s.addProperty("id", newId("cs_test_"));
+        s.addProperty("object", "checkout.session");
+        s.addProperty("mode", "payment");
+        s.addProperty("status", "complete");
+        s.addProperty("payment_status", "paid");
+        s.addProperty("payment_intent", newId("pi_test_"));
+        s.addProperty("currency", "usd");
+        s.addProperty("livemode", false);
+        s.addProperty("created", nowSeconds());
+        s.add("metadata", metadata);
+        return s;
+    }
+
+    static StripeCheckoutHelper.TriggerResult join(CompletableFuture<StripeCheckoutHelper.TriggerResult> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            Throwable c = e.getCause() != null ? e.getCause() : e;
+            if (c instanceof RuntimeException) throw (RuntimeException) c;
+            throw new RuntimeException("Webhook delivery failed: " + c.getMessage(), c);
+        }
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000L;
+    }
+
+    private static String newId(String prefix) {
+        StringBuilder sb = new StringBuilder(prefix);
+        for (int i = 0; i < 24; i++) sb.append(ID_CHARS[RANDOM.nextInt(ID_CHARS.length)]);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,119 @@
+package Utils;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/** Signs and posts events to a loopback endpoint that verifies them like Stripe's libraries do. */
+public class StripeWebhookEmitterTest {
+
+    private static final String SECRET = "whsec_test_local";
+
+    private HttpServer server;
+    private final List<JsonObject> received = Collections.synchronizedList(new ArrayList<>());
+    private StripeWebhookEmitter emitter;
+
+    @BeforeClass
+    public void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/webhooks/stripe", ex -> {
+            String payload = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            boolean valid = verify(ex.getRequestHeaders().getFirst("Stripe-Signature"), payload);
+            if (valid) received.add(JsonParser.parseString(payload).getAsJsonObject());
+            byte[] out = (valid ? "{\"received\":true}" : "{\"error\":\"bad signature\"}").getBytes(StandardCharsets.UTF_8);
+            ex.sendResponseHeaders(valid ? 200 : 400, out.length);
+            ex.getResponseBody().write(out);
+            ex.close();
+        });
+        server.start();
+        emitter = new StripeWebhookEmitter(
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/webhooks/stripe"), SECRET);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stop() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    public void testCheckoutCompletedCarriesCompactedBody() {
+        StripeCheckoutHelper.TriggerResult r = emitter.checkoutSessionCompleted("{ \"order\": { \"id\": 42 } }");
+
+        Assert.assertTrue(r.ok);
+        Assert.assertTrue(r.eventId.startsWith("evt_test_"), r.eventId);
+        JsonObject evt = lastEvent(r.eventId);
+        Assert.assertEquals(evt.get("type").getAsString(), "checkout.session.completed");
+        JsonObject session = evt.getAsJsonObject("data").getAsJsonObject("object");
+        Assert.assertEquals(session.get("payment_status").getAsString(), "paid");
+        Assert.assertEquals(session.getAsJsonObject("metadata").get("body").getAsString(), "{\"order\":{\"id\":42}}");
+    }
+
+    @Test
+    public void testConcurrentEventsAllDelivered() {
+        List<CompletableFuture<StripeCheckoutHelper.TriggerResult>> fs = new ArrayList<>();
+        for (int i = 0; i < 8; i++) fs.add(emitter.paymentIntentFailedAsync("order-" + i));
+        CompletableFuture.allOf(fs.toArray(new CompletableFuture<?>[0])).join();
+
+        for (int i = 0; i < 8; i++) {
+            JsonObject evt = lastEvent(fs.get(i).join().eventId);
+            Assert.assertEquals(evt.get("type").getAsString(), "payment_intent.payment_failed");
+            Assert.assertEquals(evt.getAsJsonObject("data").getAsJsonObject("object")
+                    .getAsJsonObject("metadata").get("order_id").getAsString(), "order-" + i);
+        }
+    }
+
+    @Test
+    public void testWrongSecretIsRejected() {
+        StripeWebhookEmitter wrong = new StripeWebhookEmitter(
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/webhooks/stripe"), "whsec_other");
+        RuntimeException e = Assert.expectThrows(RuntimeException.class, () -> wrong.checkoutSessionCompleted("{}"));
+        Assert.assertTrue(e.getMessage().contains("HTTP 400"), e.getMessage());
+    }
+
+    // ---------- helpers ----------
+
+    private JsonObject lastEvent(String eventId) {
+        synchronized (received) {
+            for (JsonObject o : received) if (eventId.equals(o.get("id").getAsString())) return o;
+        }
+        throw new AssertionError("event not received: " + eventId);
+    }
+
+    /** Independent check of the v1 scheme: t=..,v1=hex(HMAC_SHA256(secret, t + "." + payload)). */
+    private static boolean verify(String header, String payload) {
+        if (header == null) return false;
+        String t = null, v1 = null;
+        for (String part : header.split(",")) {
+            String[] kv = part.split("=", 2);
+            if (kv.length != 2) continue;
+            if ("t".equals(kv[0])) t = kv[1];
+            if ("v1".equals(kv[0])) v1 = kv[1];
+        }
+        if (t == null || v1 == null) return false;
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] sig = mac.doFinal((t + "." + payload).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : sig) hex.append(String.format("%02x", b));
+            return hex.toString().equals(v1);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
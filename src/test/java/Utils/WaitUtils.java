@@ -2,9 +2,9 @@ package Utils;
 
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.*;
+import probes.NetworkIdleTracker;
 
 import java.time.Duration;
-import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -18,13 +18,29 @@ public class WaitUtils {
     private final Duration defaultTimeout;
 
     /** Single union selector for overlays/spinners/backdrops (faster than N separate waits). */
-    private static final String LOADER_UNION_CSS =
+    public static final String LOADER_UNION_CSS =
             "[data-testid='loading'],[data-test='loading']," +
                     "[role='progressbar']," +
                     ".MuiBackdrop-root,.MuiCircularProgress-root," +
                     ".ant-spin,.ant-spin-spinning," +
                     ".overlay,.spinner,.backdrop,[aria-busy='true']";
 
+    /**
+     * In-page loader predicate: true when nothing matching arguments[0] is rendered.
+     * Visibility = non-zero box + computed display/visibility/opacity (+ checkVisibility when present);
+     * an explicit aria-busy="false" never counts as busy. One round-trip instead of findElements + N isDisplayed.
+     */
+    private static final String NO_VISIBLE_LOADERS_JS =
+            "var els=document.querySelectorAll(arguments[0]);" +
+            "for(var i=0;i<els.length;i++){var e=els[i];" +
+            "  if(e.getAttribute('aria-busy')==='false')continue;" +
+            "  var r=e.getBoundingClientRect();if(r.width<=0||r.height<=0)continue;" +
+            "  var cs=getComputedStyle(e);" +
+            "  if(cs.display==='none'||cs.visibility==='hidden'||cs.visibility==='collapse'||parseFloat(cs.opacity)===0)continue;" +
+            "  if(e.checkVisibility&&!e.checkVisibility({opacityProperty:true,visibilityProperty:true}))continue;" +
+            "  return false;}" +
+            "return true;";
+
     // ✅ FIXED: use Duration.max instead of Math.max
     public WaitUtils(WebDriver driver, Duration timeout) {
         this.driver = driver;
@@ -68,9 +84,35 @@ public class WaitUtils {
         }
     }
 
+    /**
+     * Route a locator wait through the in-page {@link DomWaitEngine} (one round-trip) and fall back
+     * to WebDriver polling with {@code fallback} when the engine is off or cannot serve it; the fallback
+     * only gets the time the engine left over. Timeouts surface exactly like {@link #until(ExpectedCondition, Duration)}.
+     */
+    private <T> T observed(Duration timeout, ExpectedCondition<T> fallback, Supplier<T> engineCall) {
+        long start = System.nanoTime();
+        if (DomWaitEngine.isEnabled()) {
+            try {
+                return engineCall.get();
+            } catch (TimeoutException e) {
+                throw new RuntimeException("❌ Timeout (" + timeout.toSeconds() + "s) waiting for condition: " + fallback, e);
+            } catch (DomWaitEngine.EngineUnavailableException ignored) {
+                // fall through to polling
+            }
+        }
+        return until(fallback, remaining(timeout, start));
+    }
+
+    /** What is left of {@code timeout} since {@code startNanos}; zero still allows one check. */
+    private static Duration remaining(Duration timeout, long startNanos) {
+        Duration left = timeout.minusNanos(System.nanoTime() - startNanos);
+        return left.isNegative() ? Duration.ZERO : left;
+    }
+
     // ---------- Visibility / Clickability ----------
     public WebElement waitForElementVisible(By locator) {
-        return until(visibilityOfElementLocated(locator));
+        return observed(defaultTimeout, visibilityOfElementLocated(locator),
+                () -> DomWaitEngine.awaitFirstVisible(driver, defaultTimeout, locator));
     }
 
     public WebElement waitForElementVisible(WebElement element) {
@@ -87,7 +129,7 @@ public class WaitUtils {
 
     /** Returns the first visible element among provided locators. */
     public WebElement waitForAnyVisible(By... locators) {
-        return until(d -> {
+        ExpectedCondition<WebElement> anyVisible = d -> {
             for (By by : locators) {
                 for (WebElement el : d.findElements(by)) {
                     try {
@@ -96,7 +138,8 @@ public class WaitUtils {
                 }
             }
             return null;
-        }, defaultTimeout);
+        };
+        return observed(defaultTimeout, anyVisible, () -> DomWaitEngine.awaitVisible(driver, defaultTimeout, locators));
     }
 
     /** True/false wait (predicate style). */
@@ -107,14 +150,18 @@ public class WaitUtils {
     public WebElement waitForElementClickable(By locator) { return until(elementToBeClickable(locator)); }
     public WebElement waitForElementClickable(WebElement element) { return until(elementToBeClickable(element)); }
 
-    public boolean waitForElementInvisible(By locator) { return until(invisibilityOfElementLocated(locator)); }
+    public boolean waitForElementInvisible(By locator) {
+        return observed(defaultTimeout, invisibilityOfElementLocated(locator),
+                () -> DomWaitEngine.awaitInvisible(driver, defaultTimeout, locator));
+    }
     public boolean waitForElementInvisible(WebElement element) { return until(invisibilityOf(element)); }
 
     // ---------- Presence / Text / Attributes ----------
     public WebElement waitForPresence(By locator) { return until(presenceOfElementLocated(locator)); }
 
     public boolean waitForTextPresent(By locator, String text) {
-        return until(textToBePresentInElementLocated(locator, text));
+        return observed(defaultTimeout, textToBePresentInElementLocated(locator, text),
+                () -> DomWaitEngine.awaitText(driver, defaultTimeout, locator, text) != null);
     }
 
     public boolean waitForAttributeContains(WebElement el, String attr, String value) {
@@ -146,15 +193,7 @@ public class WaitUtils {
 
     public void waitForLoadersToDisappear() {
         try {
-            baseWait(defaultTimeout).until(d -> {
-                List<WebElement> overlays = d.findElements(By.cssSelector(LOADER_UNION_CSS));
-                for (WebElement e : overlays) {
-                    try {
-                        if (e.isDisplayed() && e.getSize().height > 0 && e.getSize().width > 0) return false;
-                    } catch (StaleElementReferenceException ignored) {}
-                }
-                return true;
-            });
+            baseWait(defaultTimeout).until(loadersGone(LOADER_UNION_CSS));
         } catch (Exception ignored) {}
     }
 
@@ -173,7 +212,14 @@ public class WaitUtils {
         } catch (Exception ignored) {}
     }
 
+    /**
+     * Page looks settled: document complete, no loaders, no running animations and no pending requests.
+     * Pending requests come from the CDP {@link NetworkIdleTracker} when the driver supports it
+     * (no injection needed); otherwise from window.__pendingRequests (see installNetworkInstrumentation).
+     */
     public void waitForNetworkIdleLike(Duration timeout) {
+        NetworkIdleTracker tracker = NetworkIdleTracker.forDriver(driver).orElse(null);
+        Duration quiet = Duration.ofMillis(Config.getInt("net.idle.quietMs", "NET_IDLE_QUIET_MS", 300));
         try {
             baseWait(timeout).until(d -> {
                 JavascriptExecutor js = (JavascriptExecutor) d;
@@ -181,9 +227,7 @@ public class WaitUtils {
                 String rs = String.valueOf(js.executeScript("return document.readyState"));
                 if (!"complete".equals(rs)) return false;
 
-                for (WebElement e : d.findElements(By.cssSelector(LOADER_UNION_CSS))) {
-                    try { if (e.isDisplayed()) return false; } catch (StaleElementReferenceException ignored) {}
-                }
+                if (!noVisibleLoaders(d, LOADER_UNION_CSS)) return false;
 
                 Object anim = js.executeScript(
                         "try { var a=(document.getAnimations?document.getAnimations():[]);" +
@@ -191,6 +235,8 @@ public class WaitUtils {
                 long running = (anim instanceof Number) ? ((Number) anim).longValue() : 0L;
                 if (running > 0) return false;
 
+                if (tracker != null) return tracker.isIdle(quiet);
+
                 Object inflight = js.executeScript("return window.__pendingRequests || 0;");
                 long req = (inflight instanceof Number) ? ((Number) inflight).longValue() : 0L;
                 return req == 0L;
@@ -198,6 +244,17 @@ public class WaitUtils {
         } catch (Exception ignored) {}
     }
 
+    /**
+     * Network-only idle wait (replacement for a blind sleep after a click): true once no request has
+     * been in flight for {@code quietPeriod}. Without CDP support it falls back to waitForNetworkIdleLike.
+     */
+    public boolean waitForNetworkIdle(Duration quietPeriod, Duration timeout) {
+        NetworkIdleTracker tracker = NetworkIdleTracker.forDriver(driver).orElse(null);
+        if (tracker != null) return tracker.awaitIdle(quietPeriod, timeout);
+        waitForNetworkIdleLike(timeout);
+        return true;
+    }
+
     public void installNetworkInstrumentation() {
         try {
             ((JavascriptExecutor) driver).executeScript(
@@ -240,8 +297,18 @@ public class WaitUtils {
     }
 
     public static boolean isVisible(WebDriver driver, By by, Duration max) {
+        long start = System.nanoTime();
+        if (DomWaitEngine.isEnabled()) {
+            try {
+                return DomWaitEngine.awaitFirstVisible(driver, max, by) != null;
+            } catch (TimeoutException e) {
+                return false;
+            } catch (DomWaitEngine.EngineUnavailableException ignored) {
+                // fall through to polling
+            }
+        }
         try {
-            WebDriverWait w = new WebDriverWait(driver, max);
+            WebDriverWait w = new WebDriverWait(driver, remaining(max, start));
             w.pollingEvery(Duration.ofMillis(200));
             w.ignoring(StaleElementReferenceException.class).ignoring(NoSuchElementException.class);
             w.until(ExpectedConditions.visibilityOfElementLocated(by));
@@ -297,19 +364,29 @@ public class WaitUtils {
     }
 
     public boolean waitForInvisibility(By locator) {
+        long start = System.nanoTime();
+        if (DomWaitEngine.isEnabled()) {
+            try {
+                return DomWaitEngine.awaitInvisible(driver, defaultTimeout, locator);
+            } catch (TimeoutException e) {
+                return false;
+            } catch (DomWaitEngine.EngineUnavailableException ignored) {
+                // fall through to polling
+            }
+        }
         try {
-            return baseWait(defaultTimeout).until(ExpectedConditions.invisibilityOfElementLocated(locator));
+            return baseWait(remaining(defaultTimeout, start)).until(ExpectedConditions.invisibilityOfElementLocated(locator));
         } catch (TimeoutException e) {
             return false;
         }
     }
 
     // Common loader/selectors you’ll likely see across pages.
-    private static final List<By> DEFAULT_LOADERS = Arrays.asList(
-            By.cssSelector("[data-testid='loading'], [data-testid='loader']"),
-            By.cssSelector(".loading, .loader, .spinner, .lds-ring, .lds-ellipsis"),
-            By.cssSelector("[role='progressbar']"),
-            By.cssSelector(".overlay, .backdrop, .rdp-overlay, .ant-spin, .chakra-progress__indicator")
+    private static final String DEFAULT_LOADERS_CSS = String.join(",",
+            "[data-testid='loading'], [data-testid='loader']",
+            ".loading, .loader, .spinner, .lds-ring, .lds-ellipsis",
+            "[role='progressbar']",
+            ".overlay, .backdrop, .rdp-overlay, .ant-spin, .chakra-progress__indicator"
     );
 
     public static void waitForLoadersToDisappear(WebDriver driver) {
@@ -320,19 +397,19 @@ public class WaitUtils {
         WebDriverWait wait = new WebDriverWait(driver, timeout);
         wait.ignoring(NoSuchElementException.class)
                 .ignoring(StaleElementReferenceException.class)
-                .until(allGoneOrHidden(DEFAULT_LOADERS));
+                .until(loadersGone(DEFAULT_LOADERS_CSS));
     }
 
-    private static ExpectedCondition<Boolean> allGoneOrHidden(List<By> locators) {
-        return drv -> {
-            for (By by : locators) {
-                for (WebElement el : drv.findElements(by)) {
-                    try {
-                        if (el.isDisplayed()) return false;
-                    } catch (StaleElementReferenceException ignored) {}
-                }
-            }
-            return true;
+    /** Single-round-trip check: true when no element matching {@code css} is visibly rendered. */
+    public static boolean noVisibleLoaders(WebDriver driver, String css) {
+        return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(NO_VISIBLE_LOADERS_JS, css));
+    }
+
+    /** Wait condition form of {@link #noVisibleLoaders(WebDriver, String)}. */
+    public static ExpectedCondition<Boolean> loadersGone(String css) {
+        return new ExpectedCondition<>() {
+            @Override public Boolean apply(WebDriver d) { return noVisibleLoaders(d, css); }
+            @Override public String toString() { return "no visible loaders matching: " + css; }
         };
     }
 
@@ -0,0 +1,71 @@
+package Utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/** Engine/fallback routing in WaitUtils, against a driver stub whose async scripts are unavailable. */
+public class WaitUtilsTest {
+
+    /** Driver that finds nothing and whose executeAsyncScript fails after {@code engineMs}. */
+    private static WebDriver driver(long engineMs, List<Map<?, ?>> specs) {
+        return (WebDriver) Proxy.newProxyInstance(WaitUtilsTest.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "executeAsyncScript":
+                            specs.add((Map<?, ?>) ((Object[]) args[1])[0]);
+                            Thread.sleep(engineMs);
+                            throw new NoSuchSessionException("no async scripts here");
+                        case "findElement":
+                            throw new NoSuchElementException("none");
+                        case "findElements":
+                            return Collections.emptyList();
+                        case "toString":
+                            return "stub-driver";
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    @Test
+    public void testFallbackOnlyGetsTheTimeLeft() {
+        List<Map<?, ?>> specs = new ArrayList<>();
+        WaitUtils w = new WaitUtils(driver(2_000, specs), Duration.ofSeconds(3));
+
+        long t0 = System.nanoTime();
+        Assert.assertThrows(RuntimeException.class, () -> w.waitForElementVisible(By.id("never")));
+        long ms = (System.nanoTime() - t0) / 1_000_000L;
+
+        Assert.assertEquals(specs.size(), 1, "engine tried once");
+        Assert.assertTrue(ms < 4_500, "engine + fallback should fit the 3s timeout, took " + ms + "ms");
+    }
+
+    @Test
+    public void testSingleLocatorWaitsCheckTheFirstMatchOnly() {
+        List<Map<?, ?>> specs = new ArrayList<>();
+        WebDriver d = driver(0, specs);
+
+        Assert.assertFalse(WaitUtils.isVisible(d, By.cssSelector(".row"), Duration.ofMillis(200)));
+        Assert.assertThrows(RuntimeException.class,
+                () -> new WaitUtils(d, Duration.ofSeconds(3)).waitForAnyVisible(By.cssSelector(".a"), By.cssSelector(".b")));
+
+        Assert.assertEquals(specs.get(0).get("first"), Boolean.TRUE, "visibilityOfElementLocated semantics");
+        Assert.assertEquals(specs.get(1).get("first"), Boolean.FALSE, "any visible match across locators");
+    }
+}
@@ -0,0 +1,238 @@
+package api;
+
+import Utils.Config;
+import Utils.EncodingUtils;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import okhttp3.ResponseBody;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Suite-scoped admin JWT minted over HTTP (POST api/v2/users/sessions) instead of the sign-in UI.
+ *
+ * - Opt-in: -Dauth.apiLogin=true (AUTH_API_LOGIN).
+ * - The session is posted to the base URL the suite is testing, never to API_BASE_URL's default, so
+ *   admin credentials and the resulting token stay in one environment. When the API lives on another
+ *   host set -Dauth.apiLogin.baseUrl explicitly; a cached token is only reused for the same host.
+ * - The token comes from the "authorization" response header (same contract as TiltSignUpApi.createUser).
+ * - Expiry is read from the JWT "exp" claim and the token is re-minted before it runs out
+ *   (auth.apiLogin.refreshSkewSec, default 300s), both on access and from a background refresh.
+ * - A 4xx or a response without a token disables the API path for the rest of the suite; network
+ *   errors and 5xx only fail that call. The app rejecting the token disables it after
+ *   auth.apiLogin.maxRejects (default 2) rejections in a row.
+ */
+public final class AdminTokenProvider {
+
+    private static final Logger logger = LogManager.getLogger(AdminTokenProvider.class);
+
+    private static final Object LOCK = new Object();
+    private static volatile Token cached;
+    private static volatile String disabledReason;
+    private static final AtomicInteger REJECTS = new AtomicInteger();
+    private static ScheduledExecutorService refresher;   // guarded by LOCK
+    private static ScheduledFuture<?> scheduledRefresh;  // guarded by LOCK
+
+    private AdminTokenProvider() {}
+
+    public static boolean isEnabled() {
+        return disabledReason == null && Config.getBoolean("auth.apiLogin", "AUTH_API_LOGIN", false);
+    }
+
+    /**
+     * Returns a valid admin JWT for the app at {@code baseUrl}, minting/refreshing as needed;
+     * null when the API path is unavailable.
+     */
+    public static String getToken(String baseUrl, String email, String password) {
+        if (!isEnabled()) return null;
+        String apiBaseUrl = apiBaseUrl(baseUrl);
+
+        Token t = cached;
+        if (t != null && t.matches(apiBaseUrl, email) && !t.expiresWithin(refreshSkew())) {
+            return t.jwt;
+        }
+        synchronized (LOCK) {
+            t = cached;
+            if (t != null && t.matches(apiBaseUrl, email) && !t.expiresWithin(refreshSkew())) {
+                return t.jwt;
+            }
+            t = mint(apiBaseUrl, email, password);
+            cached = t;
+            if (t != null) scheduleRefresh(t, password);
+            return t == null ? null : t.jwt;
+        }
+    }
+
+    /** Drop the cached token (e.g. the backend answered 401 with it). */
+    public static void invalidate() {
+        cached = null;
+    }
+
+    /** The app accepted the token. */
+    public static void accepted() {
+        REJECTS.set(0);
+    }
+
+    /** The app did not accept the token: drop it, and turn the path off after repeated rejections. */
+    public static void rejected(String reason) {
+        invalidate();
+        int max = Math.max(1, Config.getInt("auth.apiLogin.maxRejects", "AUTH_API_LOGIN_MAX_REJECTS", 2));
+        int n = REJECTS.incrementAndGet();
+        if (n >= max) disable(reason + " (" + n + "x)");
+        else logger.warn("[AdminToken] Token rejected ({}/{}): {}", n, max, reason);
+    }
+
+    /** Turn the API path off for the rest of the suite. */
+    public static void disable(String reason) {
+        if (disabledReason == null) {
+            disabledReason = reason;
+            logger.warn("[AdminToken] API login disabled for this suite: {}", reason);
+        }
+        cached = null;
+    }
+
+    /** Epoch seconds from the JWT "exp" claim; 0 when the token is opaque or has no exp. */
+    public static long expiryEpochSeconds(String jwt) {
+        if (jwt == null) return 0L;
+        String[] parts = jwt.split("\\.");
+        if (parts.length < 2) return 0L;
+        String payload = EncodingUtils.decodeBase64Url(parts[1]);
+        if (payload == null) return 0L;
+        try {
+            JsonElement exp = JsonParser.parseString(payload).getAsJsonObject().get("exp");
+            return exp == null || exp.isJsonNull() ? 0L : exp.getAsLong();
+        } catch (Exception e) {
+            return 0L;
+        }
+    }
+
+    // ---------- internals ----------
+
+    /** Explicit auth.apiLogin.baseUrl, else the app under test. */
+    private static String apiBaseUrl(String appBaseUrl) {
+        String explicit = Config.get("auth.apiLogin.baseUrl", "AUTH_API_LOGIN_BASE_URL", "");
+        return explicit.isBlank() ? appBaseUrl : explicit;
+    }
+
+    private static Token mint(String apiBaseUrl, String email, String password) {
+        long t0 = System.currentTimeMillis();
+        try {
+            BackendApi api = BackendApi.create(ApiConfig.builder()
+                    .baseUrl(apiBaseUrl)
+                    .callTimeoutSeconds(15)
+                    .build());
+            Response<ResponseBody> resp = api.usersSessionsApiV2()
+                    .create(Map.of("user", Map.of("email", email, "password", password)))
+                    .execute();
+
+            String body;
+            try (ResponseBody rb = resp.isSuccessful() ? resp.body() : resp.errorBody()) {
+                body = rb == null ? "" : rb.string();
+            }
+            if (!resp.isSuccessful()) {
+                if (resp.code() >= 500 || resp.code() == 429) {
+                    logger.warn("[AdminToken] HTTP {} from users/sessions; UI login this time.", resp.code());
+                } else {
+                    disable("HTTP " + resp.code() + " from users/sessions");
+                }
+                return null;
+            }
+
+            String jwt = stripBearer(resp.headers().get("authorization"));
+            if (jwt == null) jwt = tokenFromBody(body);
+            if (jwt == null) {
+                disable("no token in authorization header or body");
+                return null;
+            }
+
+            long exp = expiryEpochSeconds(jwt);
+            logger.info("[AdminToken] Minted admin token in {}ms (exp={})",
+                    System.currentTimeMillis() - t0, exp == 0 ? "unknown" : exp);
+            return new Token(apiBaseUrl, email, jwt, exp);
+        } catch (IOException e) {
+            logger.warn("[AdminToken] users/sessions failed: {}; UI login this time.", e.toString());
+            return null;
+        } catch (Exception e) {
+            disable(e.getClass().getSimpleName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void scheduleRefresh(Token t, String password) {
+        if (t.expEpochSec == 0L) return;
+        long delaySec = t.expEpochSec - System.currentTimeMillis() / 1000L - refreshSkew().toSeconds();
+        if (delaySec <= 0) return;
+
+        if (refresher == null) {
+            refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread th = new Thread(r, "admin-token-refresh");
+                th.setDaemon(true);
+                return th;
+            });
+        }
+        if (scheduledRefresh != null) scheduledRefresh.cancel(false);
+        scheduledRefresh = refresher.schedule(() -> {
+            synchronized (LOCK) {
+                if (cached != t || !isEnabled()) return;
+                Token fresh = mint(t.apiBaseUrl, t.email, password);
+                cached = fresh;
+                if (fresh != null) scheduleRefresh(fresh, password);
+            }
+        }, delaySec, TimeUnit.SECONDS);
+    }
+
+    private static Duration refreshSkew() {
+        return Duration.ofSeconds(Config.getInt("auth.apiLogin.refreshSkewSec", "AUTH_API_LOGIN_REFRESH_SKEW_SEC", 300));
+    }
+
+    private static String stripBearer(String header) {
+        if (header == null || header.isBlank()) return null;
+        String h = header.trim();
+        if (h.regionMatches(true, 0, "Bearer ", 0, 7)) h = h.substring(7).trim();
+        return h.isEmpty() || "null".equalsIgnoreCase(h) ? null : h;
+    }
+
+    private static String tokenFromBody(String body) {
+        try {
+            JsonObject o = JsonParser.parseString(body).getAsJsonObject();
+            if (o.has("data") && o.get("data").isJsonObject()) o = o.getAsJsonObject("data");
+            for (String k : new String[]{"jwt", "token", "auth_token", "access_token"}) {
+                if (o.has(k) && o.get(k).isJsonPrimitive()) return stripBearer(o.get(k).getAsString());
+            }
+        } catch (Exception ignored) {}
+        return null;
+    }
+
+    private static final class Token {
+        final String apiBaseUrl;
+        final String email;
+        final String jwt;
+        final long expEpochSec; // 0 = unknown
+
+        Token(String apiBaseUrl, String email, String jwt, long expEpochSec) {
+            this.apiBaseUrl = apiBaseUrl;
+            this.email = email;
+            this.jwt = jwt;
+            this.expEpochSec = expEpochSec;
+        }
+
+        boolean matches(String apiBaseUrl, String email) {
+            return this.apiBaseUrl.equalsIgnoreCase(apiBaseUrl) && this.email.equalsIgnoreCase(email);
+        }
+
+        boolean expiresWithin(Duration skew) {
+            return expEpochSec != 0L && System.currentTimeMillis() / 1000L + skew.toSeconds() >= expEpochSec;
+        }
+    }
+}
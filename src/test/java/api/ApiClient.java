@@ -20,7 +20,8 @@ public final class ApiClient {
         ObjectMapper om = new ObjectMapper()
             .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
-        OkHttpClient.Builder ok = new OkHttpClient.Builder()
+        // Derived from the shared transport: same connection pool, limits and metrics for every BackendApi
+        OkHttpClient.Builder ok = HttpTransport.okHttp().newBuilder()
             .callTimeout(Duration.ofMillis(cfg.callTimeout.toMillis()));
 
         ok.addInterceptor(new Interceptor() {
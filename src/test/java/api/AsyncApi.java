@@ -0,0 +1,184 @@
+package api;
+
+import Utils.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Async façade for the Retrofit facades on {@link BackendApi}: run calls (or whole multi-call setup steps)
+ * off the test thread and fan out fixture creation with a concurrency cap.
+ *
+ *   BackendApi api = BackendApi.create(cfg);
+ *   CompletableFuture<Response<ResponseBody>> f = api.async().call(api.teamsApiV2().index(Map.of()));
+ *   List<Response<ResponseBody>> created = api.async()
+ *           .batch(emails, 5, e -> api.individualsApiV2().create(body(e)).execute()).join();
+ *
+ * Runs on virtual threads when the JVM has them (Java 21+, opt out with -Dapi.async.virtual=false), else on
+ * a bounded daemon pool (api.async.threads, default 16). Requests still go through {@link HttpTransport},
+ * so its per-host limit applies on top of the batch cap.
+ */
+public final class AsyncApi {
+
+    private static final Logger logger = LogManager.getLogger(AsyncApi.class);
+
+    private static volatile AsyncApi shared;
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+
+    /** A unit of work that may throw (e.g. {@code call.execute()}). */
+    @FunctionalInterface
+    public interface Task<T> {
+        T run() throws Exception;
+    }
+
+    /** Per-item work for {@link #batch}. */
+    @FunctionalInterface
+    public interface ItemTask<I, T> {
+        T run(I item) throws Exception;
+    }
+
+    private AsyncApi(ExecutorService executor, boolean virtual) {
+        this.executor = executor;
+        this.virtual = virtual;
+    }
+
+    public static AsyncApi shared() {
+        AsyncApi a = shared;
+        if (a != null) return a;
+        synchronized (AsyncApi.class) {
+            if (shared == null) shared = create();
+            return shared;
+        }
+    }
+
+    private static AsyncApi create() {
+        if (Config.getBoolean("api.async.virtual", "API_ASYNC_VIRTUAL", true)) {
+            try {
+                // Java 21+: Executors.newVirtualThreadPerTaskExecutor(); looked up reflectively so the suite still builds on 17
+                ExecutorService vt = (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                logger.info("[AsyncApi] using virtual threads");
+                return new AsyncApi(vt, true);
+            } catch (ReflectiveOperationException notAvailable) {
+                // pre-21 JVM
+            }
+        }
+        int threads = Math.max(1, Config.getInt("api.async.threads", "API_ASYNC_THREADS", 16));
+        AtomicInteger n = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "api-async-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        logger.info("[AsyncApi] using a bounded pool of {} threads", threads);
+        return new AsyncApi(pool, false);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    // =========================================================
+    // SINGLE CALLS
+    // =========================================================
+
+    /** Execute a Retrofit call asynchronously. Cancelling the future cancels the HTTP call. */
+    public <T> CompletableFuture<Response<T>> call(Call<T> call) {
+        Objects.requireNonNull(call, "call");
+        CompletableFuture<Response<T>> f = supply(call::execute);
+        f.whenComplete((r, t) -> {
+            if (f.isCancelled()) call.cancel();
+        });
+        return f;
+    }
+
+    /** Run any blocking step (one or several calls) asynchronously. Checked exceptions fail the future. */
+    public <T> CompletableFuture<T> supply(Task<T> task) {
+        Objects.requireNonNull(task, "task");
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.run();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    // =========================================================
+    // BATCH
+    // =========================================================
+
+    /**
+     * Run {@code task} for every item with at most {@code maxConcurrency} in flight; results keep input order.
+     * Fails fast: the first failure completes the returned future exceptionally and items not yet started
+     * are skipped (ones already in flight finish on their own).
+     */
+    public <I, T> CompletableFuture<List<T>> batch(List<I> items, int maxConcurrency, ItemTask<I, T> task) {
+        Objects.requireNonNull(items, "items");
+        Objects.requireNonNull(task, "task");
+        int n = items.size();
+        CompletableFuture<List<T>> result = new CompletableFuture<>();
+        if (n == 0) {
+            result.complete(List.of());
+            return result;
+        }
+
+        AtomicReferenceArray<T> out = new AtomicReferenceArray<>(n);
+        AtomicInteger nextIndex = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+        long t0 = System.currentTimeMillis();
+
+        Runnable[] startNext = new Runnable[1];
+        startNext[0] = () -> {
+            if (result.isDone()) return;
+            int i = nextIndex.getAndIncrement();
+            if (i >= n) return;
+            I item = items.get(i);
+            supply(() -> task.run(item)).whenComplete((value, err) -> {
+                if (err != null) {
+                    result.completeExceptionally(err instanceof CompletionException && err.getCause() != null
+                            ? err.getCause() : err);
+                    return;
+                }
+                out.set(i, value);
+                if (done.incrementAndGet() == n) {
+                    List<T> list = new ArrayList<>(n);
+                    for (int k = 0; k < n; k++) list.add(out.get(k));
+                    logger.debug("[AsyncApi] batch of {} done in {}ms", n, System.currentTimeMillis() - t0);
+                    result.complete(list);
+                } else {
+                    startNext[0].run();
+                }
+            });
+        };
+
+        for (int k = 0; k < Math.min(Math.max(1, maxConcurrency), n); k++) startNext[0].run();
+        return result;
+    }
+
+    /** {@link #batch} over Retrofit calls built per item, e.g. {@code e -> api.individualsApiV2().create(body(e))}. */
+    public <I, T> CompletableFuture<List<Response<T>>> batchCalls(List<I> items, int maxConcurrency,
+                                                                 java.util.function.Function<I, Call<T>> callFor) {
+        return batch(items, maxConcurrency, item -> callFor.apply(item).execute());
+    }
+}
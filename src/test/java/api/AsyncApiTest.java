@@ -0,0 +1,58 @@
+package api;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class AsyncApiTest {
+
+    @Test
+    public void testBatchKeepsOrderAndRespectsConcurrencyCap() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Integer> items = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+
+        long t0 = System.currentTimeMillis();
+        List<String> out = AsyncApi.shared().batch(items, 5, i -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+                return "r" + i;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }).join();
+        long took = System.currentTimeMillis() - t0;
+
+        Assert.assertEquals(out, items.stream().map(i -> "r" + i).collect(Collectors.toList()));
+        Assert.assertTrue(peak.get() <= 5, "peak concurrency " + peak.get());
+        Assert.assertTrue(took < 20 * 50, "batch should overlap work, took " + took + "ms");
+    }
+
+    @Test
+    public void testBatchFailsFastWithTheTaskException() {
+        AtomicInteger started = new AtomicInteger();
+        List<Integer> items = IntStream.range(0, 50).boxed().collect(Collectors.toList());
+
+        CompletionException e = Assert.expectThrows(CompletionException.class, () ->
+                AsyncApi.shared().batch(items, 2, i -> {
+                    started.incrementAndGet();
+                    if (i == 1) throw new IllegalStateException("boom " + i);
+                    Thread.sleep(20);
+                    return i;
+                }).join());
+
+        Assert.assertTrue(e.getCause() instanceof IllegalStateException, String.valueOf(e.getCause()));
+        Assert.assertTrue(started.get() < items.size(), "remaining items should be skipped");
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        Assert.assertEquals(AsyncApi.shared().batch(List.<Integer>of(), 4, i -> i).join(), List.of());
+    }
+}
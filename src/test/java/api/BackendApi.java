@@ -9,6 +9,9 @@ public final class BackendApi {
     public BackendApi(ApiConfig cfg) { this.client = new ApiClient(cfg); }
     public static BackendApi create(ApiConfig cfg) { return new BackendApi(cfg); }
 
+    /** Async execution / fan-out for calls built from the facades below. */
+    public AsyncApi async() { return AsyncApi.shared(); }
+
     // ── V1 facades ──────────────────────────────────────────────────────────────
     public UserAssessmentsApiV1 userAssessmentsApiV1() {
         return client.create(UserAssessmentsApiV1.class);
@@ -0,0 +1,260 @@
+package api;
+
+import Utils.Config;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One transport for all outbound test traffic (backend API, Stripe, MailSlurp, sign-up helper).
+ *
+ * Two shared clients, created once per JVM:
+ *   - {@link #okHttp()}: base OkHttpClient with one connection pool and dispatcher. Derive per-use clients
+ *     with {@code okHttp().newBuilder()...build()}; they share the pool, so keep-alive connections and
+ *     TLS sessions are reused across BackendApi instances, tests and threads. HTTP/2 is negotiated via ALPN.
+ *   - {@link #jdk()}: java.net.http client (HTTP/2 preferred) for helpers built on HttpRequest; call it
+ *     through {@link #send} / {@link #sendAsync} so limits and metrics apply.
+ *
+ * Both paths share a per-host concurrency limit (http.maxPerHost, default 16) and per-host metrics
+ * (requests, errors, latency). {@link #summary()} is logged at JVM exit when http.metrics.log=true (default).
+ */
+public final class HttpTransport {
+
+    private static final Logger logger = LogManager.getLogger(HttpTransport.class);
+
+    private static final Map<String, HostStats> STATS = new ConcurrentHashMap<>();
+    private static final Map<String, Semaphore> LIMITS = new ConcurrentHashMap<>();
+
+    private static volatile OkHttpClient okHttp;
+    private static volatile HttpClient jdk;
+
+    private HttpTransport() {}
+
+    /** Shared OkHttp base client. Derive with {@code newBuilder()} to add timeouts/interceptors. */
+    public static OkHttpClient okHttp() {
+        OkHttpClient c = okHttp;
+        if (c != null) return c;
+        synchronized (HttpTransport.class) {
+            if (okHttp == null) {
+                Dispatcher dispatcher = new Dispatcher();
+                dispatcher.setMaxRequests(Config.getInt("http.maxRequests", "HTTP_MAX_REQUESTS", 64));
+                dispatcher.setMaxRequestsPerHost(maxPerHost());
+                okHttp = new OkHttpClient.Builder()
+                        .connectionPool(new ConnectionPool(
+                                Config.getInt("http.pool.maxIdle", "HTTP_POOL_MAX_IDLE", 32), 5, TimeUnit.MINUTES))
+                        .dispatcher(dispatcher)
+                        .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .retryOnConnectionFailure(true)
+                        .addInterceptor(new LimitAndMeasure())
+                        .build();
+                registerSummaryHook();
+            }
+            return okHttp;
+        }
+    }
+
+    /** Shared JDK client. Prefer {@link #send}/{@link #sendAsync} over calling it directly. */
+    public static HttpClient jdk() {
+        HttpClient c = jdk;
+        if (c != null) return c;
+        synchronized (HttpTransport.class) {
+            if (jdk == null) {
+                ExecutorService pool = Executors.newCachedThreadPool(r -> {
+                    Thread t = new Thread(r, "http-transport");
+                    t.setDaemon(true);
+                    return t;
+                });
+                jdk = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_2)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .followRedirects(HttpClient.Redirect.NEVER)   // JDK default, as the per-helper clients had
+                        .executor(pool)
+                        .build();
+                registerSummaryHook();
+            }
+            return jdk;
+        }
+    }
+
+    /** Blocking send on the shared JDK client, within the host's concurrency limit. */
+    public static <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        String host = hostOf(request.uri());
+        Semaphore limit = limitFor(host);
+        limit.acquire();
+        HostStats s = stats(host);
+        long t0 = System.nanoTime();
+        s.inFlight.incrementAndGet();
+        boolean failed = true;
+        try {
+            HttpResponse<T> res = jdk().send(request, handler);
+            failed = res.statusCode() >= 500;
+            return res;
+        } finally {
+            s.record(System.nanoTime() - t0, failed);
+            limit.release();
+        }
+    }
+
+    /** Async send on the shared JDK client. The host limit is taken without blocking the caller. */
+    public static <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        String host = hostOf(request.uri());
+        Semaphore limit = limitFor(host);
+        HostStats s = stats(host);
+        return CompletableFuture.runAsync(limit::acquireUninterruptibly, executorOf(jdk()))
+                .thenCompose(v -> {
+                    long t0 = System.nanoTime();
+                    s.inFlight.incrementAndGet();
+                    CompletableFuture<HttpResponse<T>> sent;
+                    try {
+                        sent = jdk().sendAsync(request, handler);
+                    } catch (RuntimeException e) {
+                        // rejected before it was queued: whenComplete below would never run
+                        s.record(System.nanoTime() - t0, true);
+                        limit.release();
+                        throw e;
+                    }
+                    return sent.whenComplete((res, err) -> {
+                        s.record(System.nanoTime() - t0, err != null || res.statusCode() >= 500);
+                        limit.release();
+                    });
+                });
+    }
+
+    // =========================================================
+    // METRICS
+    // =========================================================
+
+    /** Per-host counters since JVM start. */
+    public static final class HostStats {
+        public final String host;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        HostStats(String host) { this.host = host; }
+
+        void record(long nanos, boolean failed) {
+            inFlight.decrementAndGet();
+            requests.incrementAndGet();
+            if (failed) errors.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long requests()   { return requests.get(); }
+        public long errors()     { return errors.get(); }
+        public int inFlight()    { return inFlight.get(); }
+        public long avgMillis()  { long n = requests.get(); return n == 0 ? 0 : totalNanos.get() / n / 1_000_000; }
+        public long maxMillis()  { return maxNanos.get() / 1_000_000; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d req, %d err, avg %dms, max %dms", host, requests(), errors(), avgMillis(), maxMillis());
+        }
+    }
+
+    public static List<HostStats> stats() {
+        List<HostStats> out = new ArrayList<>(STATS.values());
+        out.sort(Comparator.comparingLong(HostStats::requests).reversed());
+        return out;
+    }
+
+    public static String summary() {
+        StringBuilder sb = new StringBuilder("[HTTP] per-host summary");
+        for (HostStats s : stats()) sb.append("\n  ").append(s);
+        OkHttpClient c = okHttp;
+        if (c != null) {
+            sb.append("\n  okhttp pool: ").append(c.connectionPool().connectionCount()).append(" conn, ")
+              .append(c.connectionPool().idleConnectionCount()).append(" idle");
+        }
+        return sb.toString();
+    }
+
+    // ---------- internals ----------
+
+    /** Application interceptor on the base client, so every derived client is limited and measured. */
+    private static final class LimitAndMeasure implements Interceptor {
+        @Override
+        public okhttp3.Response intercept(Chain chain) throws IOException {
+            String host = chain.request().url().host().toLowerCase(Locale.ROOT);
+            Semaphore limit = limitFor(host);
+            try {
+                limit.acquire();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted waiting for a " + host + " slot");
+            }
+            HostStats s = stats(host);
+            long t0 = System.nanoTime();
+            s.inFlight.incrementAndGet();
+            boolean failed = true;
+            try {
+                okhttp3.Response res = chain.proceed(chain.request());
+                failed = res.code() >= 500;
+                return res;
+            } finally {
+                s.record(System.nanoTime() - t0, failed);
+                limit.release();
+            }
+        }
+    }
+
+    private static HostStats stats(String host) {
+        return STATS.computeIfAbsent(host, HostStats::new);
+    }
+
+    private static Semaphore limitFor(String host) {
+        return LIMITS.computeIfAbsent(host, h -> new Semaphore(maxPerHost(), true));
+    }
+
+    private static int maxPerHost() {
+        return Math.max(1, Config.getInt("http.maxPerHost", "HTTP_MAX_PER_HOST", 16));
+    }
+
+    private static String hostOf(URI uri) {
+        return uri.getHost() == null ? "?" : uri.getHost().toLowerCase(Locale.ROOT);
+    }
+
+    private static java.util.concurrent.Executor executorOf(HttpClient c) {
+        return c.executor().orElse(Runnable::run);
+    }
+
+    private static boolean hookRegistered;   // guarded by HttpTransport.class
+
+    private static void registerSummaryHook() {
+        if (hookRegistered || !Config.getBoolean("http.metrics.log", "HTTP_METRICS_LOG", true)) return;
+        hookRegistered = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!STATS.isEmpty()) logger.info(summary());
+        }, "http-transport-summary"));
+    }
+}
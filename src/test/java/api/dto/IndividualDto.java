@@ -0,0 +1,59 @@
+package api.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One row of GET api/v2/individuals. Accepts plain items, JSON:API items ({"id":..,"attributes":{..}})
+ * and items that nest the person under "user" or "individual".
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class IndividualDto {
+
+    public String id;
+    public String email;
+    @JsonProperty("first_name") @JsonAlias("firstName")
+    public String firstName;
+    @JsonProperty("last_name") @JsonAlias("lastName")
+    public String lastName;
+    public String name;
+    public String status;
+    @JsonProperty("created_at") @JsonAlias("createdAt")
+    public String createdAt;
+
+    @JsonProperty("attributes")
+    void setAttributes(IndividualDto a) { mergeFrom(a); }
+
+    @JsonProperty("user")
+    void setUser(IndividualDto u) { mergeFrom(u); }
+
+    @JsonProperty("individual")
+    void setIndividual(IndividualDto i) { mergeFrom(i); }
+
+    public boolean hasEmail(String other) {
+        return email != null && other != null && email.trim().equalsIgnoreCase(other.trim());
+    }
+
+    /** "First Last", falling back to name. */
+    public String displayName() {
+        String full = ((firstName == null ? "" : firstName) + " " + (lastName == null ? "" : lastName)).trim();
+        return full.isEmpty() ? (name == null ? "" : name) : full;
+    }
+
+    private void mergeFrom(IndividualDto o) {
+        if (o == null) return;
+        if (id == null) id = o.id;
+        if (email == null) email = o.email;
+        if (firstName == null) firstName = o.firstName;
+        if (lastName == null) lastName = o.lastName;
+        if (name == null) name = o.name;
+        if (status == null) status = o.status;
+        if (createdAt == null) createdAt = o.createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Individual{" + id + ", " + email + ", " + displayName() + "}";
+    }
+}
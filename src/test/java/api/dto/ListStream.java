@@ -0,0 +1,167 @@
+package api.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Streaming reads of list responses (GET api/v2/individuals, teams, user_assessments) with Jackson's
+ * token parser, so a page is never held as one String or lower-cased as a whole.
+ *
+ * Items are found in a top-level array or under data / individuals / teams / user_assessments / records /
+ * results / items (one level of nesting, e.g. {"data":{"individuals":[...]}}). Each item is bound on its
+ * own; scans stop at the first match and close the body without reading the rest. The Retrofit list
+ * endpoints feeding these are {@code @Streaming}, otherwise the whole page is buffered before we see it.
+ */
+public final class ListStream {
+
+    static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final List<String> ARRAY_KEYS =
+            List.of("data", "individuals", "teams", "user_assessments", "records", "results", "items");
+
+    private ListStream() {}
+
+    /** Outcome of a {@link #scan}: index of the first match (-1 if none) and items read. */
+    public static final class Scan<T> {
+        public final int matchIndex;
+        public final int itemsRead;
+        public final T match;
+
+        Scan(int matchIndex, int itemsRead, T match) {
+            this.matchIndex = matchIndex;
+            this.itemsRead = itemsRead;
+            this.match = match;
+        }
+
+        public boolean found() { return matchIndex >= 0; }
+    }
+
+    // =========================================================
+    // ITEM SCANS
+    // =========================================================
+
+    /** Bind items one by one until {@code stopWhen} matches; the rest of the stream is not read. */
+    public static <T> Scan<T> scan(InputStream in, Class<T> type, Predicate<? super T> stopWhen) throws IOException {
+        try (JsonParser p = MAPPER.getFactory().createParser(in)) {
+            if (!positionAtItems(p)) return new Scan<>(-1, 0, null);
+            int i = 0;
+            JsonToken t;
+            while ((t = p.nextToken()) != null && t != JsonToken.END_ARRAY) {
+                if (t != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                    i++;
+                    continue;
+                }
+                T item = MAPPER.readValue(p, type);
+                if (stopWhen.test(item)) return new Scan<>(i, i + 1, item);
+                i++;
+            }
+            return new Scan<>(-1, i, null);
+        }
+    }
+
+    public static <T> Scan<T> scan(ResponseBody body, Class<T> type, Predicate<? super T> stopWhen) throws IOException {
+        if (body == null) return new Scan<>(-1, 0, null);
+        try (ResponseBody b = body) {
+            return scan(b.byteStream(), type, stopWhen);
+        }
+    }
+
+    public static <T> Optional<T> findFirst(ResponseBody body, Class<T> type, Predicate<? super T> match) throws IOException {
+        return Optional.ofNullable(scan(body, type, match).match);
+    }
+
+    /** Every item on the page, bound to {@code type}. */
+    public static <T> List<T> readAll(ResponseBody body, Class<T> type) throws IOException {
+        List<T> out = new ArrayList<>();
+        scan(body, type, item -> {
+            out.add(item);
+            return false;
+        });
+        return out;
+    }
+
+    /** Execute {@code call} and read its items; throws on non-2xx. */
+    public static <T> List<T> execute(Call<ResponseBody> call, Class<T> type) throws IOException {
+        return readAll(successBody(call.execute()), type);
+    }
+
+    // =========================================================
+    // TOKEN MATCHERS (no binding at all)
+    // =========================================================
+
+    /**
+     * True as soon as any "email"-like field (email, user_email, ...) equals {@code email} ignoring case,
+     * anywhere in the document. Stops reading at the first hit.
+     */
+    public static boolean containsEmail(InputStream in, String email) throws IOException {
+        if (email == null || email.isBlank()) return false;
+        String needle = email.trim();
+        try (JsonParser p = MAPPER.getFactory().createParser(in)) {
+            JsonToken t;
+            while ((t = p.nextToken()) != null) {
+                if (t == JsonToken.FIELD_NAME && p.currentName().toLowerCase(Locale.ROOT).endsWith("email")) {
+                    if (p.nextToken() == JsonToken.VALUE_STRING && needle.equalsIgnoreCase(p.getText().trim())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    public static boolean containsEmail(ResponseBody body, String email) throws IOException {
+        if (body == null) return false;
+        try (ResponseBody b = body) {
+            return containsEmail(b.byteStream(), email);
+        }
+    }
+
+    // ---------- internals ----------
+
+    /** Body of a 2xx response; otherwise releases the error body and throws. */
+    public static ResponseBody successBody(Response<ResponseBody> resp) throws IOException {
+        if (!resp.isSuccessful()) {
+            ResponseBody err = resp.errorBody();
+            if (err != null) err.close();   // release the connection
+            throw new IOException("HTTP " + resp.code() + " from " + resp.raw().request().url().encodedPath());
+        }
+        return resp.body();
+    }
+
+    /** Leave the parser on the START_ARRAY of the item list; false when there is none. */
+    private static boolean positionAtItems(JsonParser p) throws IOException {
+        JsonToken t = p.nextToken();
+        if (t == JsonToken.START_ARRAY) return true;
+        return t == JsonToken.START_OBJECT && positionInObject(p, 0);
+    }
+
+    private static boolean positionInObject(JsonParser p, int depth) throws IOException {
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            JsonToken v = p.nextToken();
+            if (ARRAY_KEYS.contains(name)) {
+                if (v == JsonToken.START_ARRAY) return true;
+                if (v == JsonToken.START_OBJECT && depth == 0 && positionInObject(p, depth + 1)) return true;
+                if (v == JsonToken.START_OBJECT && depth > 0) p.skipChildren();
+            } else {
+                p.skipChildren();
+            }
+        }
+        return false;
+    }
+}
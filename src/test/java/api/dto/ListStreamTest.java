@@ -0,0 +1,114 @@
+package api.dto;
+
+import api.ApiConfig;
+import api.BackendApi;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ListStreamTest {
+
+    private static InputStream json(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testScanStopsAtFirstMatchAcrossShapes() throws IOException {
+        String jsonApi = "{\"meta\":{\"total\":3},\"data\":["
+                + "{\"id\":\"1\",\"attributes\":{\"email\":\"a@x.io\"}},"
+                + "{\"id\":\"2\",\"attributes\":{\"email\":\"B@x.io\",\"first_name\":\"Bo\"}},"
+                + "{\"id\":\"3\",\"attributes\":{\"email\":\"c@x.io\"}}]}";
+        ListStream.Scan<IndividualDto> s = ListStream.scan(json(jsonApi), IndividualDto.class, i -> i.hasEmail("b@x.io"));
+        Assert.assertTrue(s.found());
+        Assert.assertEquals(s.matchIndex, 1);
+        Assert.assertEquals(s.itemsRead, 2);
+        Assert.assertEquals(s.match.id, "2");
+        Assert.assertEquals(s.match.displayName(), "Bo");
+
+        String nested = "{\"data\":{\"individuals\":[{\"user\":{\"email\":\"n@x.io\"}}]}}";
+        Assert.assertTrue(ListStream.scan(json(nested), IndividualDto.class, i -> i.hasEmail("n@x.io")).found());
+
+        String plain = "[{\"email\":\"p@x.io\"},{\"email\":\"q@x.io\"}]";
+        ListStream.Scan<IndividualDto> miss = ListStream.scan(json(plain), IndividualDto.class, i -> i.hasEmail("z@x.io"));
+        Assert.assertFalse(miss.found());
+        Assert.assertEquals(miss.itemsRead, 2);
+    }
+
+    @Test(timeOut = 10_000)
+    public void testIndexStreamsInsteadOfBufferingThePage() throws Exception {
+        // The server sends the matching item, then holds the rest of the page back
+        CountDownLatch rest = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/api/v2/individuals", ex -> {
+            ex.getResponseHeaders().set("Content-Type", "application/json");
+            ex.sendResponseHeaders(200, 0);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write("{\"data\":[{\"email\":\"first@x.io\"},".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                rest.await(8, TimeUnit.SECONDS);
+                out.write("{\"email\":\"last@x.io\"}]}".getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException | IOException ignored) {
+                // client closed early: expected
+            }
+        });
+        server.start();
+        // BODY-level HTTP logging would read the whole page itself
+        String logLevel = System.getProperty("API_HTTP_LOG");
+        System.setProperty("API_HTTP_LOG", "NONE");
+        try {
+            BackendApi api = BackendApi.create(ApiConfig.builder()
+                    .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                    .callTimeoutSeconds(15)
+                    .build());
+            long t0 = System.nanoTime();
+            Optional<IndividualDto> hit = api.individualsApiV2().findByEmail(Map.of(), "first@x.io");
+            long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+
+            Assert.assertTrue(hit.isPresent());
+            Assert.assertTrue(ms < 5_000, "match should not wait for the rest of the page (" + ms + "ms)");
+        } finally {
+            if (logLevel == null) System.clearProperty("API_HTTP_LOG");
+            else System.setProperty("API_HTTP_LOG", logLevel);
+            rest.countDown();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testContainsEmailMatchesWholeValuesOnly() throws IOException {
+        String body = "{\"results\":[{\"user_email\":\"Someone@Example.com\"},{\"note\":\"other@example.com\"}]}";
+        Assert.assertTrue(ListStream.containsEmail(json(body), "someone@example.com"));
+        Assert.assertFalse(ListStream.containsEmail(json(body), "other@example.com"), "non-email fields are ignored");
+        Assert.assertFalse(ListStream.containsEmail(json(body), "one@example.com"), "no substring matches");
+    }
+
+    @Test
+    public void testTeamsAndAssessmentsBind() throws IOException {
+        String teams = "{\"teams\":[{\"id\":7,\"name\":\"Core\",\"users_count\":4}]}";
+        ListStream.Scan<TeamDto> t = ListStream.scan(json(teams), TeamDto.class, x -> x.hasName("core"));
+        Assert.assertEquals(t.match.membersCount, Integer.valueOf(4));
+
+        String uas = "{\"user_assessments\":[{\"status\":\"completed\",\"user\":{\"email\":\"u@x.io\"},"
+                + "\"assessment\":{\"id\":\"9\",\"title\":\"DISC\"}}]}";
+        List<UserAssessmentDto> found = new ArrayList<>();
+        ListStream.scan(json(uas), UserAssessmentDto.class, ua -> found.add(ua) && false);
+        Assert.assertEquals(found.size(), 1);
+        Assert.assertTrue(found.get(0).hasEmail("U@x.io"));
+        Assert.assertTrue(found.get(0).isCompleted());
+        Assert.assertEquals(found.get(0).assessmentName, "DISC");
+    }
+}
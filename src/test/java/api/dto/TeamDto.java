@@ -0,0 +1,38 @@
+package api.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/** One row of GET api/v2/teams (plain or JSON:API "attributes" items). */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TeamDto {
+
+    public String id;
+    public String name;
+    @JsonProperty("organization_id") @JsonAlias("organizationId")
+    public String organizationId;
+    @JsonProperty("members_count") @JsonAlias({"membersCount", "users_count", "usersCount"})
+    public Integer membersCount;
+    @JsonProperty("created_at") @JsonAlias("createdAt")
+    public String createdAt;
+
+    @JsonProperty("attributes")
+    void setAttributes(TeamDto a) {
+        if (a == null) return;
+        if (id == null) id = a.id;
+        if (name == null) name = a.name;
+        if (organizationId == null) organizationId = a.organizationId;
+        if (membersCount == null) membersCount = a.membersCount;
+        if (createdAt == null) createdAt = a.createdAt;
+    }
+
+    public boolean hasName(String other) {
+        return name != null && other != null && name.trim().equalsIgnoreCase(other.trim());
+    }
+
+    @Override
+    public String toString() {
+        return "Team{" + id + ", " + name + "}";
+    }
+}
@@ -0,0 +1,66 @@
+package api.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One row of GET api/v2/user_assessments. The assessee's email may sit on the item, under "user"
+ * or in JSON:API "attributes"; the assessment title under "assessment".
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserAssessmentDto {
+
+    public String id;
+    public String status;
+    public String email;
+    @JsonProperty("assessment_id") @JsonAlias("assessmentId")
+    public String assessmentId;
+    @JsonProperty("assessment_name") @JsonAlias({"assessmentName", "title"})
+    public String assessmentName;
+    @JsonProperty("completed_at") @JsonAlias("completedAt")
+    public String completedAt;
+
+    @JsonProperty("attributes")
+    void setAttributes(UserAssessmentDto a) {
+        if (a == null) return;
+        if (id == null) id = a.id;
+        if (status == null) status = a.status;
+        if (email == null) email = a.email;
+        if (assessmentId == null) assessmentId = a.assessmentId;
+        if (assessmentName == null) assessmentName = a.assessmentName;
+        if (completedAt == null) completedAt = a.completedAt;
+    }
+
+    @JsonProperty("user")
+    void setUser(IndividualDto u) {
+        if (u != null && email == null) email = u.email;
+    }
+
+    @JsonProperty("assessment")
+    void setAssessment(Ref a) {
+        if (a == null) return;
+        if (assessmentId == null) assessmentId = a.id;
+        if (assessmentName == null) assessmentName = a.name != null ? a.name : a.title;
+    }
+
+    public boolean hasEmail(String other) {
+        return email != null && other != null && email.trim().equalsIgnoreCase(other.trim());
+    }
+
+    public boolean isCompleted() {
+        return completedAt != null || "completed".equalsIgnoreCase(status);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static final class Ref {
+        public String id;
+        public String name;
+        public String title;
+    }
+
+    @Override
+    public String toString() {
+        return "UserAssessment{" + id + ", " + email + ", " + assessmentName + ", " + status + "}";
+    }
+}
@@ -1,15 +1,27 @@
 package api.v2;
 
+import api.dto.IndividualDto;
+import api.dto.ListStream;
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.*;
 
 public interface IndividualsApiV2 {
 
+    /** Streamed: the body is read off the socket, not buffered; the typed reads below close it. */
+    @Streaming
     @GET("api/v2/individuals")
     Call<ResponseBody> index(@QueryMap Map<String, String> query);
 
+    /** {@link #index} with a prebuilt query string, for repeated keys (status[]=a&status[]=b) a @QueryMap cannot carry. */
+    @Streaming
+    @GET
+    Call<ResponseBody> indexWithQuery(@Url String pathAndQuery);
+
     @GET("api/v2/individuals/{id}")
     Call<ResponseBody> show(@Path("id") String id, @QueryMap Map<String, String> query);
 
@@ -30,4 +42,19 @@ public interface IndividualsApiV2 {
     @Headers("Content-Type: application/json")
     @PUT("api/v2/individuals/update_order_subscriptions")
     Call<ResponseBody> updateOrderSubscriptions(@Body Object body);
+
+    // ── Typed reads (streamed, see ListStream) ─────────────────────────────────
+
+    default List<IndividualDto> list(Map<String, String> query) throws IOException {
+        return ListStream.execute(index(query), IndividualDto.class);
+    }
+
+    /** First individual on the page with this email; stops reading the response there. */
+    default Optional<IndividualDto> findByEmail(Map<String, String> query, String email) throws IOException {
+        return ListStream.findFirst(ListStream.successBody(index(query).execute()), IndividualDto.class, i -> i.hasEmail(email));
+    }
+
+    default boolean pageContainsEmail(Map<String, String> query, String email) throws IOException {
+        return ListStream.containsEmail(ListStream.successBody(index(query).execute()), email);
+    }
 }
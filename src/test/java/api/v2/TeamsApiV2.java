@@ -1,12 +1,19 @@
 package api.v2;
 
+import api.dto.ListStream;
+import api.dto.TeamDto;
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.*;
 
 
 public interface TeamsApiV2 {
+    /** Streamed: the body is read off the socket, not buffered; the typed reads below close it. */
+    @Streaming
     @GET("api/v2/teams")
     Call<ResponseBody> index(@QueryMap Map<String, Object> query);
 
@@ -25,4 +32,15 @@ public interface TeamsApiV2 {
     @GET("api/v2/teams" + "/apply_filters")
     Call<ResponseBody> apply_filters(@QueryMap Map<String, Object> query);
 
+    // ── Typed reads (streamed, see ListStream) ─────────────────────────────────
+
+    default List<TeamDto> list(Map<String, Object> query) throws IOException {
+        return ListStream.execute(index(query), TeamDto.class);
+    }
+
+    /** First team on the page with this name (case-insensitive); stops reading the response there. */
+    default Optional<TeamDto> findByName(Map<String, Object> query, String name) throws IOException {
+        return ListStream.findFirst(ListStream.successBody(index(query).execute()), TeamDto.class, t -> t.hasName(name));
+    }
+
 }
\ No newline at end of file
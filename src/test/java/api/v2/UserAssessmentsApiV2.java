@@ -1,12 +1,20 @@
 package api.v2;
 
+import api.dto.ListStream;
+import api.dto.UserAssessmentDto;
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.*;
 
 
 public interface UserAssessmentsApiV2 {
+    /** Streamed: the body is read off the socket, not buffered; the typed reads below close it. */
+    @Streaming
     @GET("api/v2/user_assessments")
     Call<ResponseBody> index(@QueryMap Map<String, Object> query);
 
@@ -37,4 +45,15 @@ public interface UserAssessmentsApiV2 {
     @GET("api/v2/user_assessments" + "/user_assessment")
     Call<ResponseBody> user_assessment(@QueryMap Map<String, Object> query);
 
+    // ── Typed reads (streamed, see ListStream) ─────────────────────────────────
+
+    default List<UserAssessmentDto> list(Map<String, Object> query) throws IOException {
+        return ListStream.execute(index(query), UserAssessmentDto.class);
+    }
+
+    /** First user assessment on the page matching {@code match}; stops reading the response there. */
+    default Optional<UserAssessmentDto> findFirst(Map<String, Object> query, Predicate<UserAssessmentDto> match) throws IOException {
+        return ListStream.findFirst(ListStream.successBody(index(query).execute()), UserAssessmentDto.class, match);
+    }
+
 }
\ No newline at end of file
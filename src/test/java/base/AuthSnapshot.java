@@ -0,0 +1,212 @@
+package base;
+
+import Utils.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import pages.menuPages.DashboardPage;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Login-once-per-suite support for {@link BaseTest#startFreshSession(WebDriver)}.
+ *
+ * After the first successful UI login we capture the admin session (cookies + localStorage +
+ * sessionStorage) and keep it in memory for this JVM only; the admin's JWT is never written to disk.
+ * Fresh drivers are then rehydrated on the app origin and sent straight to /dashboard, but only when
+ * the snapshot was taken for the same base URL origin and admin user.
+ * If the app rejects the snapshot (we land on sign-in / dashboard never loads) it is discarded
+ * and the caller falls back to the UI login, which captures a new one.
+ *
+ * Knobs: -Dauth.snapshot=false to disable, -Dauth.snapshot.maxAgeMin (default 30).
+ */
+public final class AuthSnapshot {
+
+    private static final Logger logger = LogManager.getLogger(AuthSnapshot.class);
+
+    private static final Object GATE = new Object();
+    private static Snapshot cached;      // guarded by GATE
+    private static Thread capturer;      // guarded by GATE; the thread doing the first UI login
+
+    private AuthSnapshot() {}
+
+    public static boolean isEnabled() {
+        return Config.getBoolean("auth.snapshot", "AUTH_SNAPSHOT", true);
+    }
+
+    // =========================================================
+    // RESTORE
+    // =========================================================
+
+    /**
+     * Try to land on the dashboard using the suite snapshot.
+     * Returns null when there is no usable snapshot or the app rejected it — callers then log in via UI.
+     * If another thread is already doing the first UI login, waits (bounded) for its snapshot instead of
+     * logging in in parallel.
+     */
+    public static DashboardPage restore(WebDriver driver, String baseUrl, String adminEmail, Duration timeout) {
+        Snapshot snap = currentOrAwait(adminEmail, baseUrl, timeout.multipliedBy(3));
+        if (snap == null) return null;
+
+        long t0 = System.currentTimeMillis();
+        try {
+            // Storage is origin-scoped: touch a cheap same-origin URL first.
+            driver.navigate().to(landingUrl(baseUrl));
+            for (Cookie c : snap.cookies) {
+                try { driver.manage().addCookie(c); }
+                catch (Exception e) { logger.debug("[AuthSnapshot] cookie {} rejected: {}", c.getName(), e.toString()); }
+            }
+            ((JavascriptExecutor) driver).executeScript(
+                    "var l=arguments[0], s=arguments[1];" +
+                    "try{for(var k in l){localStorage.setItem(k,l[k]);}}catch(e){}" +
+                    "try{for(var k in s){sessionStorage.setItem(k,s[k]);}}catch(e){}",
+                    snap.local, snap.session);
+
+            driver.navigate().to(Config.joinUrl(baseUrl, "/dashboard"));
+
+            DashboardPage dashboard = new DashboardPage(driver);
+            String url = String.valueOf(driver.getCurrentUrl());
+            if (!url.contains("/auth/sign-in") && dashboard.isLoaded()) {
+                logger.info("[AuthSnapshot] Session restored in {}ms (captured {}s ago)",
+                        System.currentTimeMillis() - t0, (System.currentTimeMillis() - snap.capturedAt) / 1000);
+                return dashboard;
+            }
+            logger.warn("[AuthSnapshot] Snapshot rejected (url={}); falling back to UI login.", url);
+        } catch (Exception e) {
+            logger.warn("[AuthSnapshot] Restore failed: {}; falling back to UI login.", e.toString());
+        }
+        invalidate(snap);
+        return null;
+    }
+
+    // =========================================================
+    // CAPTURE
+    // =========================================================
+
+    /** Capture the current (logged-in) browser state as the suite snapshot for {@code baseUrl}. Never throws. */
+    @SuppressWarnings("unchecked")
+    public static void capture(WebDriver driver, String baseUrl, String adminEmail) {
+        Snapshot snap = null;
+        try {
+            Object local = ((JavascriptExecutor) driver).executeScript(
+                    "var o={};try{for(var i=0;i<localStorage.length;i++){var k=localStorage.key(i);o[k]=localStorage.getItem(k);}}catch(e){} return o;");
+            Object session = ((JavascriptExecutor) driver).executeScript(
+                    "var o={};try{for(var i=0;i<sessionStorage.length;i++){var k=sessionStorage.key(i);o[k]=sessionStorage.getItem(k);}}catch(e){} return o;");
+
+            snap = new Snapshot(
+                    adminEmail,
+                    originOf(baseUrl),
+                    System.currentTimeMillis(),
+                    new ArrayList<>(driver.manage().getCookies()),
+                    local instanceof Map ? new LinkedHashMap<>((Map<String, Object>) local) : Map.of(),
+                    session instanceof Map ? new LinkedHashMap<>((Map<String, Object>) session) : Map.of());
+            logger.info("[AuthSnapshot] Captured admin session: {} cookies, {} localStorage, {} sessionStorage keys",
+                    snap.cookies.size(), snap.local.size(), snap.session.size());
+        } catch (Exception e) {
+            logger.warn("[AuthSnapshot] Capture failed: {}", e.toString());
+        } finally {
+            synchronized (GATE) {
+                if (snap != null) cached = snap;
+                capturer = null;
+                GATE.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Release threads waiting on this thread's first login when it will not produce a snapshot.
+     * No-op if the calling thread is not the one capturing (or the capture already finished).
+     */
+    public static void abandonCapture() {
+        synchronized (GATE) {
+            if (capturer != Thread.currentThread()) return;
+            capturer = null;
+            GATE.notifyAll();
+        }
+    }
+
+    // =========================================================
+    // INTERNALS
+    // =========================================================
+
+    private static Snapshot currentOrAwait(String adminEmail, String baseUrl, Duration maxWait) {
+        String origin = originOf(baseUrl);
+        synchronized (GATE) {
+            if (cached != null && !isUsable(cached, adminEmail, origin)) {
+                cached = null;
+            }
+            if (cached != null) return cached;
+
+            if (capturer == null || !capturer.isAlive()) {
+                // This thread does the first UI login; others wait for its snapshot.
+                capturer = Thread.currentThread();
+                return null;
+            }
+
+            long end = System.currentTimeMillis() + maxWait.toMillis();
+            try {
+                while (capturer != null && cached == null) {
+                    long left = end - System.currentTimeMillis();
+                    if (left <= 0) break;
+                    GATE.wait(left);
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            return (cached != null && isUsable(cached, adminEmail, origin)) ? cached : null;
+        }
+    }
+
+    private static boolean isUsable(Snapshot s, String adminEmail, String origin) {
+        long maxAgeMs = Duration.ofMinutes(Config.getInt("auth.snapshot.maxAgeMin", "AUTH_SNAPSHOT_MAX_AGE_MIN", 30)).toMillis();
+        return s.adminEmail.equalsIgnoreCase(String.valueOf(adminEmail))
+                && s.origin.equalsIgnoreCase(String.valueOf(origin))
+                && System.currentTimeMillis() - s.capturedAt < maxAgeMs;
+    }
+
+    private static void invalidate(Snapshot rejected) {
+        synchronized (GATE) {
+            if (cached == rejected) cached = null;
+        }
+    }
+
+    /** Cheap same-origin URL used to get a storage context before seeding auth state. */
+    static String landingUrl(String baseUrl) {
+        return Config.joinUrl(baseUrl, Config.get("auth.snapshot.landing", "AUTH_SNAPSHOT_LANDING", "/favicon.ico"));
+    }
+
+    private static String originOf(String url) {
+        try {
+            URI u = URI.create(url);
+            return u.getScheme() + "://" + u.getHost() + (u.getPort() > 0 ? ":" + u.getPort() : "");
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private static final class Snapshot {
+        final String adminEmail;
+        final String origin;
+        final long capturedAt;
+        final List<Cookie> cookies;
+        final Map<String, Object> local;
+        final Map<String, Object> session;
+
+        Snapshot(String adminEmail, String origin, long capturedAt, List<Cookie> cookies,
+                 Map<String, Object> local, Map<String, Object> session) {
+            this.adminEmail = adminEmail;
+            this.origin = origin;
+            this.capturedAt = capturedAt;
+            this.cookies = cookies;
+            this.local = local;
+            this.session = session;
+        }
+    }
+}
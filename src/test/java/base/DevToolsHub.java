@@ -0,0 +1,214 @@
+package base;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.v142.network.Network;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * One CDP session per driver, shared by every probe (NetworkCapture, NetworkIdleTracker, NetSniffer, ...).
+ *
+ * Each CDP event is registered with DevTools once; the hub fans it out to its current subscribers,
+ * held in a copy-on-write array swapped by CAS, so dispatch never locks and subscribe/unsubscribe is
+ * one array copy. Domains are enabled once per session (see {@link #enableNetwork()}), so probes
+ * no longer re-send Network.enable or stack listeners on repeated captures.
+ *
+ * {@link DriverManager} closes the hub when the driver is quit or handed back to the pool.
+ */
+public final class DevToolsHub implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(DevToolsHub.class);
+
+    /** Drivers are compared by identity; entries disappear with the driver. */
+    private static final Map<WebDriver, DevToolsHub> HUBS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** Handle returned by {@link #subscribe}; closing it detaches the handler. */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final DevTools dt;
+    private final Map<String, Listeners<?>> listeners = new ConcurrentHashMap<>();
+    private final AtomicBoolean networkEnabled = new AtomicBoolean();
+    private volatile boolean open = true;
+
+    private DevToolsHub(DevTools dt) {
+        this.dt = dt;
+    }
+
+    // =========================================================
+    // ATTACH / LOOKUP
+    // =========================================================
+
+    /**
+     * Hub for this driver, opening the CDP session on first use. Empty when the driver has no DevTools
+     * (remote grid, non-Chromium) or the session cannot be opened.
+     */
+    public static Optional<DevToolsHub> forDriver(WebDriver driver) {
+        if (!(driver instanceof HasDevTools)) return Optional.empty();
+        synchronized (HUBS) {
+            DevToolsHub h = HUBS.get(driver);
+            if (h != null && h.open) return Optional.of(h);
+            try {
+                DevTools dt = ((HasDevTools) driver).getDevTools();
+                dt.createSessionIfThereIsNotOne();
+                h = new DevToolsHub(dt);
+                HUBS.put(driver, h);
+                logger.debug("[DevTools] session opened");
+                return Optional.of(h);
+            } catch (Exception e) {
+                logger.debug("[DevTools] session unavailable: {}", e.toString());
+                return Optional.empty();
+            }
+        }
+    }
+
+    /** Already-open hub for this driver, without opening one. */
+    public static Optional<DevToolsHub> peek(WebDriver driver) {
+        if (driver == null) return Optional.empty();
+        DevToolsHub h = HUBS.get(driver);
+        return h != null && h.open ? Optional.of(h) : Optional.empty();
+    }
+
+    /** Close this driver's hub, if any. Called by {@link DriverManager} before quit/release. */
+    public static void closeFor(WebDriver driver) {
+        if (driver == null) return;
+        DevToolsHub h = HUBS.remove(driver);
+        if (h != null) h.close();
+    }
+
+    // =========================================================
+    // COMMANDS / DOMAINS
+    // =========================================================
+
+    public <X> X send(Command<X> command) {
+        return dt.send(command);
+    }
+
+    /** Network.enable once per session; later calls are free. */
+    public void enableNetwork() {
+        if (!networkEnabled.compareAndSet(false, true)) return;
+        try {
+            dt.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()));
+        } catch (RuntimeException e) {
+            networkEnabled.set(false);
+            throw e;
+        }
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    // =========================================================
+    // EVENTS
+    // =========================================================
+
+    /**
+     * Deliver {@code event} to {@code handler} until the returned subscription is closed. Handlers run on
+     * the CDP event thread: keep them short and never send DevTools commands from them.
+     */
+    @SuppressWarnings("unchecked")
+    public <X> Subscription subscribe(Event<X> event, Consumer<? super X> handler) {
+        if (!open) throw new IllegalStateException("DevTools hub is closed");
+        Listeners<X> l = (Listeners<X>) listeners.computeIfAbsent(event.getMethod(), m -> {
+            Listeners<X> created = new Listeners<>();
+            dt.addListener(event, created::dispatch);
+            return created;
+        });
+        Consumer<X> h = handler::accept;   // fresh identity, so the same handler can subscribe twice
+        l.add(h);
+        return () -> l.remove(h);
+    }
+
+    /** Subscribers currently attached across all events (diagnostics). */
+    public int subscriberCount() {
+        int n = 0;
+        for (Listeners<?> l : listeners.values()) n += l.size();
+        return n;
+    }
+
+    @Override
+    public void close() {
+        if (!open) return;
+        open = false;
+        listeners.clear();
+        try {
+            dt.clearListeners();
+            if (networkEnabled.get()) dt.send(Network.disable());
+        } catch (Exception ignore) {
+        }
+        try {
+            dt.disconnectSession();
+        } catch (Exception ignore) {
+        }
+        logger.debug("[DevTools] session closed");
+    }
+
+    // ---------- internals ----------
+
+    /** Copy-on-write subscriber array; dispatch reads one volatile reference. */
+    static final class Listeners<X> {
+        private static final Consumer<?>[] EMPTY = new Consumer<?>[0];
+        private final AtomicReference<Consumer<?>[]> ref = new AtomicReference<>(EMPTY);
+
+        void add(Consumer<X> c) {
+            Consumer<?>[] cur, next;
+            do {
+                cur = ref.get();
+                next = Arrays.copyOf(cur, cur.length + 1);
+                next[cur.length] = c;
+            } while (!ref.compareAndSet(cur, next));
+        }
+
+        void remove(Consumer<X> c) {
+            Consumer<?>[] cur, next;
+            do {
+                cur = ref.get();
+                int i = indexOf(cur, c);
+                if (i < 0) return;
+                next = new Consumer<?>[cur.length - 1];
+                System.arraycopy(cur, 0, next, 0, i);
+                System.arraycopy(cur, i + 1, next, i, cur.length - i - 1);
+            } while (!ref.compareAndSet(cur, next));
+        }
+
+        int size() {
+            return ref.get().length;
+        }
+
+        @SuppressWarnings("unchecked")
+        void dispatch(X event) {
+            for (Consumer<?> c : ref.get()) {
+                try {
+                    ((Consumer<X>) c).accept(event);
+                } catch (Throwable t) {
+                    // one bad subscriber must not starve the others
+                    logger.debug("[DevTools] subscriber failed: {}", t.toString());
+                }
+            }
+        }
+
+        private static int indexOf(Consumer<?>[] arr, Consumer<?> c) {
+            for (int i = 0; i < arr.length; i++) {
+                if (arr[i] == c) return i;
+            }
+            return -1;
+        }
+    }
+}
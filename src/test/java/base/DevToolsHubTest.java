@@ -0,0 +1,49 @@
+package base;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class DevToolsHubTest {
+
+    @Test
+    public void testListenersFanOutAndDetach() {
+        DevToolsHub.Listeners<String> l = new DevToolsHub.Listeners<>();
+        List<String> a = new ArrayList<>();
+        List<String> b = new ArrayList<>();
+        Consumer<String> ca = a::add;
+        Consumer<String> cb = b::add;
+        l.add(ca);
+        l.add(cb);
+
+        l.dispatch("one");
+        l.remove(ca);
+        l.dispatch("two");
+        l.remove(ca);   // already gone: no-op
+
+        Assert.assertEquals(a, List.of("one"));
+        Assert.assertEquals(b, List.of("one", "two"));
+        Assert.assertEquals(l.size(), 1);
+    }
+
+    @Test
+    public void testFailingSubscriberDoesNotStarveOthers() {
+        DevToolsHub.Listeners<String> l = new DevToolsHub.Listeners<>();
+        List<String> seen = new ArrayList<>();
+        l.add(e -> { throw new IllegalStateException("boom"); });
+        l.add(seen::add);
+
+        l.dispatch("evt");
+
+        Assert.assertEquals(seen, List.of("evt"));
+    }
+
+    @Test
+    public void testNoHubForDriversWithoutDevTools() {
+        Assert.assertTrue(DevToolsHub.forDriver(null).isEmpty());
+        Assert.assertTrue(DevToolsHub.peek(null).isEmpty());
+    }
+}
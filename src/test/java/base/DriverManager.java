@@ -1,16 +1,21 @@
 package base;
 
 import org.openqa.selenium.WebDriver;
+import probes.HarRecorder;
+import probes.NetworkIdleTracker;
+
+import java.util.Optional;
 
 public class DriverManager {
 
     private static final ThreadLocal<WebDriver> TL = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> EVICT_ON_RELEASE = new ThreadLocal<>();
 
     private DriverManager() {}
 
     public static void init() {
         if (TL.get() == null) {
-            TL.set(DriverFactory.createDriver());
+            TL.set(acquire());
         }
     }
 
@@ -22,14 +27,55 @@ public class DriverManager {
         return d;
     }
 
+    /** Hard stop: the browser is quit even when it was leased from the {@link DriverPool}. */
     public static void quit() {
+        EVICT_ON_RELEASE.remove();
+        WebDriver d = TL.get();
+        if (d != null) {
+            try {
+                RequestBlocker.finish(d);
+                HarRecorder.finish(d, false);   // no-op when the failure listener already kept it
+                NetworkIdleTracker.detach(d);
+                DevToolsHub.closeFor(d);
+                if (DriverPool.owns(d)) DriverPool.evict(d);
+                else d.quit();
+            }
+            finally { TL.remove(); }
+        }
+    }
+
+    /**
+     * End-of-test hand-back: returns the session to the {@link DriverPool} when pooling is on,
+     * otherwise behaves exactly like {@link #quit()}.
+     */
+    public static void release() {
+        if (Boolean.TRUE.equals(EVICT_ON_RELEASE.get())) {
+            EVICT_ON_RELEASE.remove();
+            quit();
+            return;
+        }
         WebDriver d = TL.get();
         if (d != null) {
-            try { d.quit(); }
+            try {
+                RequestBlocker.finish(d);
+                HarRecorder.finish(d, false);
+                NetworkIdleTracker.detach(d);
+                DevToolsHub.closeFor(d);   // pooled sessions get a fresh CDP session on next use
+                if (DriverPool.owns(d)) DriverPool.release(d);
+                else d.quit();
+            }
             finally { TL.remove(); }
         }
     }
 
+    /**
+     * Make the next {@link #release()} on this thread quit the session instead of parking it, e.g. when a retry
+     * was triggered by a broken browser: the retry then leases a warm session instead of the bad one.
+     */
+    public static void markForEviction() {
+        EVICT_ON_RELEASE.set(Boolean.TRUE);
+    }
+
     public static void reinit() {
         quit();
         init();
@@ -39,13 +85,28 @@ public class DriverManager {
 
     public static WebDriver peek() { return TL.get(); } // may be null
     public static boolean isInitialized() { return TL.get() != null; }
+
+    /** Shared CDP session for this thread's driver; empty when it has no DevTools. */
+    public static Optional<DevToolsHub> devTools() { return DevToolsHub.forDriver(TL.get()); }
     public static WebDriver getOrInit() {
         WebDriver d = TL.get();
         if (d == null) {
-            d = DriverFactory.createDriver();
+            d = acquire();
             TL.set(d);
         }
         return d;
     }
 
+    private static WebDriver acquire() {
+        WebDriver d;
+        if (DriverPool.isEnabled()) d = DriverPool.lease();
+        else if (DriverPrespawner.isEnabled()) d = DriverPrespawner.take();
+        else d = DriverFactory.createDriver();
+        // Per lease: the blocklist and the idle tracker live on the CDP session, which is closed on release.
+        // The tracker attaches now so requests started before the first idle wait are counted.
+        RequestBlocker.apply(d);
+        NetworkIdleTracker.forDriver(d);
+        return d;
+    }
+
 }
@@ -0,0 +1,330 @@
+package base;
+
+import Utils.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumDriver;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of warm Chrome sessions leased to test threads by {@link DriverManager}.
+ *
+ * Opt-in via -Ddriver.pool=true (or DRIVER_POOL=true). Size defaults to the suite thread-count
+ * (see {@link #configure(int)}) and can be pinned with -Ddriver.pool.size=N.
+ *
+ * Lifecycle:
+ *  - lease():   hand out an idle session (hit) or boot a new one (miss); at capacity, wait for a
+ *               session to come back (-Ddriver.pool.leaseWaitMs, default 120000) instead of booting past it
+ *  - release(): reset the session (cookies/storage, extra tabs, window) and park it; evict if unhealthy
+ *  - evict():   hard quit, used when a caller explicitly wants a brand-new browser
+ */
+public final class DriverPool {
+
+    private static final Logger logger = LogManager.getLogger(DriverPool.class);
+
+    private static final LinkedBlockingDeque<WebDriver> IDLE = new LinkedBlockingDeque<>();
+    private static final Set<WebDriver> LEASED = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger LIVE = new AtomicInteger();
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+
+    private static volatile int capacity = Math.max(1, Config.getInt("driver.pool.size", "DRIVER_POOL_SIZE", 1));
+    private static volatile ExecutorService warmer;
+    /** Set by {@link #shutdown()}: boots still in flight then quit their session instead of parking it. */
+    private static volatile boolean closed;
+
+    private DriverPool() {}
+
+    // =========================================================
+    // CONFIG
+    // =========================================================
+
+    public static boolean isEnabled() {
+        return Config.getBoolean("driver.pool", "DRIVER_POOL", false);
+    }
+
+    /**
+     * Size the pool from the suite thread-count (explicit driver.pool.size wins) and pre-warm
+     * sessions in the background. Safe to call more than once; later calls only grow the pool.
+     */
+    public static synchronized void configure(int suiteThreadCount) {
+        if (!isEnabled()) return;
+
+        int pinned = Config.getInt("driver.pool.size", "DRIVER_POOL_SIZE", 0);
+        int size = pinned > 0 ? pinned : Math.max(1, suiteThreadCount);
+        capacity = Math.max(capacity, size);
+        closed = false;
+
+        int warm = Math.min(capacity, Config.getInt("driver.pool.warm", "DRIVER_POOL_WARM", capacity));
+        int toBoot = warm - LIVE.get();
+        logger.info("[DriverPool] capacity={} | warm={} | booting={}", capacity, warm, Math.max(0, toBoot));
+        if (toBoot <= 0) return;
+
+        if (warmer == null) {
+            warmer = Executors.newFixedThreadPool(Math.min(toBoot, 3), r -> {
+                Thread t = new Thread(r, "driver-pool-warmer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        for (int i = 0; i < toBoot; i++) {
+            LIVE.incrementAndGet();
+            warmer.submit(() -> {
+                try {
+                    park(DriverFactory.createDriver());
+                } catch (Throwable t) {
+                    LIVE.decrementAndGet();
+                    logger.warn("[DriverPool] Pre-warm boot failed: {}", t.toString());
+                }
+            });
+        }
+    }
+
+    // =========================================================
+    // LEASE / RETURN
+    // =========================================================
+
+    public static WebDriver lease() {
+        long deadline = System.nanoTime()
+                + Duration.ofMillis(Config.getInt("driver.pool.leaseWaitMs", "DRIVER_POOL_LEASE_WAIT_MS", 120_000)).toNanos();
+        boolean waited = false;
+        while (true) {
+            WebDriver d;
+            while ((d = IDLE.pollFirst()) != null) {
+                if (isHealthy(d)) return hit(d);
+                discard(d, "failed health probe on lease");
+            }
+
+            // Reserve a slot before booting so concurrent misses cannot push LIVE past capacity
+            int live = LIVE.get();
+            if (live < capacity) {
+                if (LIVE.compareAndSet(live, live + 1)) return boot();
+                continue;
+            }
+
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                throw new IllegalStateException("[DriverPool] No session freed up within the lease wait | " + stats());
+            }
+            if (!waited) {
+                logger.info("[DriverPool] At capacity, waiting for a session | {}", stats());
+                waited = true;
+            }
+            try {
+                // Short slices: a discard elsewhere frees a slot without anything landing in IDLE
+                d = IDLE.pollFirst(Math.min(left, TimeUnit.MILLISECONDS.toNanos(250)), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("[DriverPool] Interrupted while waiting for a session", ie);
+            }
+            if (d != null) {
+                if (isHealthy(d)) return hit(d);
+                discard(d, "failed health probe on lease");
+            }
+        }
+    }
+
+    /** Return a leased session. Unhealthy or surplus sessions are evicted instead of parked. */
+    public static void release(WebDriver d) {
+        if (d == null) return;
+        if (!LEASED.remove(d)) {
+            // Not ours (e.g. created before the pool was enabled) — keep the old semantics.
+            try { d.quit(); } catch (Throwable ignored) {}
+            return;
+        }
+        if (LIVE.get() > capacity) {
+            discard(d, "pool above capacity");
+            return;
+        }
+        if (!reset(d) || !isHealthy(d)) {
+            discard(d, "failed reset/health probe on return");
+            return;
+        }
+        park(d);
+    }
+
+    /** Quit a leased session outright (caller wants a brand-new browser). */
+    public static void evict(WebDriver d) {
+        if (d == null) return;
+        if (LEASED.remove(d)) {
+            discard(d, "explicit evict");
+        } else {
+            try { d.quit(); } catch (Throwable ignored) {}
+        }
+    }
+
+    public static boolean owns(WebDriver d) {
+        return d != null && LEASED.contains(d);
+    }
+
+    /**
+     * Quit everything that is parked; leased sessions are quit by their JVM shutdown hooks.
+     * Pre-warm boots still in flight see {@link #closed} and quit their session when they land.
+     */
+    public static synchronized void shutdown() {
+        closed = true;
+        if (warmer != null) {
+            warmer.shutdownNow();
+            warmer = null;
+        }
+        WebDriver d;
+        while ((d = IDLE.pollFirst()) != null) {
+            try { d.quit(); } catch (Throwable ignored) {}
+            LIVE.decrementAndGet();
+        }
+        logger.info("[DriverPool] shutdown | {}", stats());
+    }
+
+    // =========================================================
+    // COUNTERS
+    // =========================================================
+
+    public static long hits()      { return HITS.get(); }
+    public static long misses()    { return MISSES.get(); }
+    public static long evictions() { return EVICTIONS.get(); }
+
+    public static String stats() {
+        return String.format("hits=%d misses=%d evictions=%d live=%d idle=%d leased=%d capacity=%d",
+                HITS.get(), MISSES.get(), EVICTIONS.get(), LIVE.get(), IDLE.size(), LEASED.size(), capacity);
+    }
+
+    // =========================================================
+    // INTERNALS
+    // =========================================================
+
+    private static WebDriver hit(WebDriver d) {
+        HITS.incrementAndGet();
+        LEASED.add(d);
+        return d;
+    }
+
+    /** Boot a session into a slot the caller has already counted in {@link #LIVE}. */
+    private static WebDriver boot() {
+        MISSES.incrementAndGet();
+        WebDriver d;
+        try {
+            d = DriverFactory.createDriver();
+        } catch (RuntimeException e) {
+            LIVE.decrementAndGet();
+            throw e;
+        }
+        LEASED.add(d);
+        return d;
+    }
+
+    /**
+     * Park an idle session, or quit it once the pool is shut down. The re-check after the offer closes
+     * the race with a concurrent {@link #shutdown()} draining IDLE: whichever side removes it quits it.
+     */
+    private static void park(WebDriver d) {
+        if (!closed) {
+            IDLE.offerLast(d);
+            if (!closed || !IDLE.remove(d)) return;
+        }
+        LIVE.decrementAndGet();
+        logger.info("[DriverPool] Quitting session that landed after shutdown");
+        try { d.quit(); } catch (Throwable ignored) {}
+    }
+
+    private static void discard(WebDriver d, String reason) {
+        EVICTIONS.incrementAndGet();
+        LIVE.decrementAndGet();
+        logger.info("[DriverPool] Evicting session ({})", reason);
+        try { d.quit(); } catch (Throwable ignored) {}
+    }
+
+    /** Cheap liveness probe: one window-handle call and one script round-trip. */
+    static boolean isHealthy(WebDriver d) {
+        try {
+            d.getWindowHandle();
+            Object one = ((JavascriptExecutor) d).executeScript("return 1");
+            return one instanceof Number && ((Number) one).intValue() == 1;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /** Bring a returned session back to a just-booted state. */
+    private static boolean reset(WebDriver d) {
+        try {
+            // 1) Close every tab/window except the first
+            List<String> handles = new ArrayList<>(d.getWindowHandles());
+            if (handles.isEmpty()) return false;
+            String keep = handles.get(0);
+            for (String h : handles.subList(1, handles.size())) {
+                try { d.switchTo().window(h); d.close(); } catch (Throwable ignored) {}
+            }
+            d.switchTo().window(keep);
+            d.switchTo().defaultContent();
+
+            // 2) Storage for the current origin, then cookies for every domain
+            try {
+                ((JavascriptExecutor) d).executeScript(
+                        "try{localStorage.clear()}catch(e){}; try{sessionStorage.clear()}catch(e){};");
+            } catch (Throwable ignored) {}
+            clearBrowserData(d);
+
+            // 3) Park on a blank page with normalized window + timeouts
+            d.navigate().to("about:blank");
+            d.manage().timeouts().implicitlyWait(Duration.ZERO);
+            normalizeWindow(d);
+            return true;
+        } catch (Throwable t) {
+            logger.debug("[DriverPool] reset failed: {}", t.toString());
+            return false;
+        }
+    }
+
+    private static void clearBrowserData(WebDriver d) {
+        if (d instanceof ChromiumDriver) {
+            ChromiumDriver cd = (ChromiumDriver) d;
+            try {
+                cd.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+                String origin = baseOrigin();
+                if (origin != null) {
+                    cd.executeCdpCommand("Storage.clearDataForOrigin",
+                            Map.of("origin", origin, "storageTypes", "local_storage,session_storage,indexeddb,cache_storage,service_workers"));
+                }
+                return;
+            } catch (Throwable ignored) {
+                // fall back to WebDriver cookie API below
+            }
+        }
+        try { d.manage().deleteAllCookies(); } catch (Throwable ignored) {}
+    }
+
+    private static String baseOrigin() {
+        try {
+            URI u = URI.create(Config.getBaseUrl());
+            if (u.getScheme() == null || u.getHost() == null) return null;
+            return u.getScheme() + "://" + u.getHost() + (u.getPort() > 0 ? ":" + u.getPort() : "");
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private static void normalizeWindow(WebDriver d) {
+        try {
+            String[] wh = Config.getWindowSize().toLowerCase().split("x");
+            d.manage().window().setSize(new Dimension(Integer.parseInt(wh[0].trim()), Integer.parseInt(wh[1].trim())));
+        } catch (Throwable ignored) {}
+    }
+}
@@ -0,0 +1,128 @@
+package base;
+
+import Utils.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots each worker thread's NEXT ChromeDriver in the background while its current test runs,
+ * so {@link DriverManager#init()} becomes a handoff instead of a cold start.
+ *
+ * Opt-in via -Ddriver.prespawn=true (or DRIVER_PRESPAWN=true).
+ * Concurrent boots are capped by -Ddriver.prespawn.maxBooting (default 2) so CI agents
+ * are not memory-starved by a burst of Chrome launches.
+ *
+ * When the suite announces its test count ({@link #expectTests}) no boot is started once every remaining
+ * test already has a driver booting, so workers do not finish the suite holding an unused Chrome; nothing
+ * is scheduled after {@link #shutdown} either. Retries and data-provider rows beyond the count boot inline.
+ */
+public final class DriverPrespawner {
+
+    private static final Logger logger = LogManager.getLogger(DriverPrespawner.class);
+
+    private static final ThreadLocal<CompletableFuture<WebDriver>> NEXT = new ThreadLocal<>();
+    private static final Set<CompletableFuture<WebDriver>> PENDING = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicLong READY = new AtomicLong();   // handed off already booted
+    private static final AtomicLong WAITED = new AtomicLong();  // handed off, but still booting
+    private static final AtomicLong COLD = new AtomicLong();    // nothing pre-spawned, booted inline
+
+    private static final AtomicInteger REMAINING = new AtomicInteger(-1);   // tests still to take a driver; -1 = unknown
+
+    private static volatile ExecutorService booter;
+    private static volatile boolean closing;
+
+    private DriverPrespawner() {}
+
+    public static boolean isEnabled() {
+        return Config.getBoolean("driver.prespawn", "DRIVER_PRESPAWN", false);
+    }
+
+    /** Number of tests the suite will run; caps pre-spawning to what is still needed. Reopens after a shutdown. */
+    public static void expectTests(int count) {
+        REMAINING.set(count);
+        closing = false;
+    }
+
+    /** Take this thread's pre-spawned driver (or boot one inline) and start booting the next if one is still needed. */
+    public static WebDriver take() {
+        CompletableFuture<WebDriver> next = NEXT.get();
+        NEXT.remove();
+
+        WebDriver d = null;
+        if (next != null) {
+            PENDING.remove(next);
+            (next.isDone() ? READY : WAITED).incrementAndGet();
+            try {
+                d = next.get();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ee) {
+                logger.warn("[Prespawn] Background boot failed, booting inline: {}", String.valueOf(ee.getCause()));
+            }
+            if (d != null && !DriverPool.isHealthy(d)) {
+                try { d.quit(); } catch (Throwable ignored) {}
+                d = null;
+            }
+        }
+        if (d == null) {
+            COLD.incrementAndGet();
+            d = DriverFactory.createDriver();
+        }
+
+        int left = REMAINING.updateAndGet(n -> n > 0 ? n - 1 : n);
+        if (!closing && (left < 0 || left > PENDING.size())) scheduleNext();
+        return d;
+    }
+
+    /** Quit every pre-spawned driver nobody claimed and stop the boot executor. */
+    public static synchronized void shutdown() {
+        closing = true;
+        for (CompletableFuture<WebDriver> f : PENDING) {
+            f.thenAccept(d -> { try { d.quit(); } catch (Throwable ignored) {} });
+        }
+        PENDING.clear();
+        if (booter != null) {
+            booter.shutdown();
+            booter = null;
+        }
+        logger.info("[Prespawn] shutdown | {}", stats());
+    }
+
+    public static String stats() {
+        return String.format("ready=%d waited=%d cold=%d pending=%d", READY.get(), WAITED.get(), COLD.get(), PENDING.size());
+    }
+
+    // ---------- internals ----------
+
+    private static void scheduleNext() {
+        ExecutorService pool = booter();
+        if (pool == null) return;   // shut down meanwhile
+        CompletableFuture<WebDriver> f = CompletableFuture.supplyAsync(DriverFactory::createDriver, pool);
+        PENDING.add(f);
+        NEXT.set(f);
+    }
+
+    private static synchronized ExecutorService booter() {
+        if (booter == null) {
+            if (closing) return null;
+            int maxBooting = Math.max(1, Config.getInt("driver.prespawn.maxBooting", "DRIVER_PRESPAWN_MAX_BOOTING", 2));
+            booter = Executors.newFixedThreadPool(maxBooting, r -> {
+                Thread t = new Thread(r, "driver-prespawn");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return booter;
+    }
+}
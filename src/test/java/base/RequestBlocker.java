@@ -0,0 +1,215 @@
+package base;
+
+import Utils.Config;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.v142.network.Network;
+import org.openqa.selenium.devtools.v142.network.model.BlockedReason;
+import org.openqa.selenium.devtools.v142.network.model.ResourceType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drops third-party traffic the tests never assert on (analytics, chat widgets, web fonts, optionally images)
+ * with CDP Network.setBlockedURLs on the driver's {@link DevToolsHub}.
+ *
+ * Opt-in: -Dnet.block=tilt (or NET_BLOCK=tilt). Knobs:
+ *  - net.block.extra   comma-separated CDP URL patterns ('*' wildcard) to block as well
+ *  - net.block.allow   comma-separated substrings; any profile pattern containing one is dropped
+ *  - net.block.images  also block raster images (default false; chrome.disableImages still works)
+ *
+ * {@link DriverManager} applies the list to every leased driver and calls {@link #finish} before the driver is
+ * released, which logs what the test avoided. Blocked requests are counted from Network.loadingFailed
+ * (blockedReason=inspector); their size is never downloaded, so bytes saved are estimated per resource type.
+ */
+public final class RequestBlocker {
+
+    private static final Logger logger = LogManager.getLogger(RequestBlocker.class);
+
+    /** Analytics, chat widgets and fonts loaded by the Tilt dashboard. Stripe is deliberately absent. */
+    static final List<String> TILT_PROFILE = List.of(
+            "*google-analytics.com*", "*googletagmanager.com*", "*doubleclick.net*", "*googleadservices.com*",
+            "*hotjar.com*", "*hotjar.io*", "*cdn.segment.com*", "*api.segment.io*", "*fullstory.com*",
+            "*clarity.ms*", "*mixpanel.com*", "*amplitude.com*", "*heapanalytics.com*",
+            "*connect.facebook.net*", "*facebook.com/tr*", "*snap.licdn.com*", "*px.ads.linkedin.com*",
+            "*js.hs-scripts.com*", "*js.hs-analytics.net*", "*js.hsforms.net*",
+            "*widget.intercom.io*", "*js.intercomcdn.com*", "*api-iam.intercom.io*", "*nexus-websocket-a.intercom.io*",
+            "*ingest.sentry.io*",
+            "*fonts.googleapis.com*", "*fonts.gstatic.com*", "*use.typekit.net*");
+
+    static final List<String> IMAGE_PATTERNS = List.of("*.png*", "*.jpg*", "*.jpeg*", "*.gif*", "*.webp*");
+
+    /** Rough transfer sizes for requests that never happened (bytes). */
+    private static final Map<ResourceType, Integer> EST_BYTES = new EnumMap<>(ResourceType.class);
+    static {
+        EST_BYTES.put(ResourceType.SCRIPT, 80_000);
+        EST_BYTES.put(ResourceType.STYLESHEET, 25_000);
+        EST_BYTES.put(ResourceType.FONT, 40_000);
+        EST_BYTES.put(ResourceType.IMAGE, 35_000);
+        EST_BYTES.put(ResourceType.MEDIA, 200_000);
+        EST_BYTES.put(ResourceType.DOCUMENT, 40_000);
+        EST_BYTES.put(ResourceType.XHR, 2_000);
+        EST_BYTES.put(ResourceType.FETCH, 2_000);
+        EST_BYTES.put(ResourceType.PING, 500);
+    }
+    private static final int EST_DEFAULT = 5_000;
+
+    private static final Map<WebDriver, RequestBlocker> ACTIVE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final AtomicLong TOTAL_BLOCKED = new AtomicLong();
+    private static final AtomicLong TOTAL_SAVED_BYTES = new AtomicLong();
+    private static final AtomicLong TOTAL_LOADED = new AtomicLong();
+    private static final AtomicLong TOTAL_LOADED_BYTES = new AtomicLong();
+    private static final AtomicLong SESSIONS = new AtomicLong();
+
+    private final List<String> patterns;
+    private final List<DevToolsHub.Subscription> subscriptions = new ArrayList<>();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicLong loadedBytes = new AtomicLong();
+
+    private RequestBlocker(List<String> patterns) {
+        this.patterns = patterns;
+    }
+
+    // =========================================================
+    // CONFIG
+    // =========================================================
+
+    public static boolean isEnabled() {
+        String p = profileName();
+        return !p.isEmpty() && !"off".equals(p) && !"false".equals(p) && !"none".equals(p);
+    }
+
+    private static String profileName() {
+        return Config.get("net.block", "NET_BLOCK", "off").trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** The configured blocklist: profile + extra − allow (+ images). */
+    static List<String> configuredPatterns() {
+        String profile = profileName();
+        List<String> base = "tilt".equals(profile) || "true".equals(profile) ? TILT_PROFILE : List.of();
+        return resolvePatterns(base,
+                csv(Config.get("net.block.extra", "NET_BLOCK_EXTRA", "")),
+                csv(Config.get("net.block.allow", "NET_BLOCK_ALLOW", "")),
+                Config.getBoolean("net.block.images", "NET_BLOCK_IMAGES", false));
+    }
+
+    static List<String> resolvePatterns(List<String> profile, List<String> extra, List<String> allow, boolean images) {
+        Set<String> out = new LinkedHashSet<>(profile);
+        if (images) out.addAll(IMAGE_PATTERNS);
+        out.addAll(extra);
+        out.removeIf(p -> allow.stream().anyMatch(a -> p.toLowerCase(Locale.ROOT).contains(a.toLowerCase(Locale.ROOT))));
+        return List.copyOf(out);
+    }
+
+    // =========================================================
+    // LIFECYCLE (driven by DriverManager)
+    // =========================================================
+
+    /** Apply the configured blocklist to this driver. No-op when disabled or without DevTools. */
+    static void apply(WebDriver driver) {
+        if (driver == null || !isEnabled()) return;
+        List<String> patterns = configuredPatterns();
+        if (patterns.isEmpty()) return;
+        DevToolsHub hub = DevToolsHub.forDriver(driver).orElse(null);
+        if (hub == null) {
+            logger.debug("[NetBlock] DevTools unavailable, not blocking");
+            return;
+        }
+        try {
+            hub.enableNetwork();
+            RequestBlocker b = new RequestBlocker(patterns);
+            b.subscriptions.add(hub.subscribe(Network.loadingFailed(), e -> {
+                if (e.getBlockedReason().map(r -> r == BlockedReason.INSPECTOR).orElse(false)) {
+                    b.blocked.incrementAndGet();
+                    b.savedBytes.addAndGet(EST_BYTES.getOrDefault(e.getType(), EST_DEFAULT));
+                }
+            }));
+            b.subscriptions.add(hub.subscribe(Network.loadingFinished(), e -> {
+                b.loaded.incrementAndGet();
+                b.loadedBytes.addAndGet(e.getEncodedDataLength().longValue());
+            }));
+            hub.send(Network.setBlockedURLs(patterns));
+            RequestBlocker prev = ACTIVE.put(driver, b);
+            if (prev != null) prev.detach();
+            logger.debug("[NetBlock] {} pattern(s) active", patterns.size());
+        } catch (Exception e) {
+            logger.debug("[NetBlock] could not apply blocklist: {}", e.toString());
+        }
+    }
+
+    /** Log and accumulate this driver's savings, then stop counting. Called before quit/release. */
+    static void finish(WebDriver driver) {
+        if (driver == null) return;
+        RequestBlocker b = ACTIVE.remove(driver);
+        if (b == null) return;
+        b.detach();
+        SESSIONS.incrementAndGet();
+        TOTAL_BLOCKED.addAndGet(b.blocked.get());
+        TOTAL_SAVED_BYTES.addAndGet(b.savedBytes.get());
+        TOTAL_LOADED.addAndGet(b.loaded.get());
+        TOTAL_LOADED_BYTES.addAndGet(b.loadedBytes.get());
+        logger.info("[NetBlock] blocked={} (~{} est.) | loaded={} ({})",
+                b.blocked.get(), kb(b.savedBytes.get()), b.loaded.get(), kb(b.loadedBytes.get()));
+    }
+
+    /**
+     * Block {@code extra} on top of the active list until the handle is closed, e.g. to force an endpoint
+     * to fail. setBlockedURLs replaces the whole list, so tests should use this instead of sending it directly.
+     */
+    public static AutoCloseable blockAlso(WebDriver driver, List<String> extra) {
+        DevToolsHub hub = DevToolsHub.forDriver(driver)
+                .orElseThrow(() -> new IllegalStateException("DevTools not available for this driver"));
+        hub.enableNetwork();
+        RequestBlocker b = ACTIVE.get(driver);
+        List<String> base = b != null ? b.patterns : List.of();
+        List<String> combined = new ArrayList<>(base);
+        combined.addAll(extra);
+        hub.send(Network.setBlockedURLs(combined));
+        return () -> {
+            if (hub.isOpen()) hub.send(Network.setBlockedURLs(base));
+        };
+    }
+
+    /** Suite totals, for the end-of-run log. */
+    public static String summary() {
+        return String.format(Locale.ROOT, "sessions=%d | blocked=%d (~%s est.) | loaded=%d (%s)",
+                SESSIONS.get(), TOTAL_BLOCKED.get(), kb(TOTAL_SAVED_BYTES.get()),
+                TOTAL_LOADED.get(), kb(TOTAL_LOADED_BYTES.get()));
+    }
+
+    // ---------- internals ----------
+
+    private void detach() {
+        subscriptions.forEach(DevToolsHub.Subscription::close);
+        subscriptions.clear();
+    }
+
+    private static List<String> csv(String s) {
+        if (s == null || s.isBlank()) return List.of();
+        List<String> out = new ArrayList<>();
+        for (String p : Arrays.asList(s.split(","))) {
+            if (!p.isBlank()) out.add(p.trim());
+        }
+        return out;
+    }
+
+    private static String kb(long bytes) {
+        return bytes >= 1_048_576
+                ? String.format(Locale.ROOT, "%.1f MB", bytes / 1_048_576.0)
+                : (bytes / 1024) + " KB";
+    }
+}
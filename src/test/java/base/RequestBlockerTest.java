@@ -0,0 +1,36 @@
+package base;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class RequestBlockerTest {
+
+    @Test
+    public void testAllowDropsMatchingProfilePatterns() {
+        List<String> out = RequestBlocker.resolvePatterns(
+                RequestBlocker.TILT_PROFILE, List.of("*cdn.example.com/ads*"), List.of("Fonts.g"), false);
+
+        Assert.assertFalse(out.contains("*fonts.googleapis.com*"));
+        Assert.assertFalse(out.contains("*fonts.gstatic.com*"));
+        Assert.assertTrue(out.contains("*use.typekit.net*"));
+        Assert.assertTrue(out.contains("*cdn.example.com/ads*"));
+        Assert.assertFalse(out.containsAll(RequestBlocker.IMAGE_PATTERNS));
+    }
+
+    @Test
+    public void testImagesAndNoDuplicates() {
+        List<String> out = RequestBlocker.resolvePatterns(
+                List.of("*a*"), List.of("*a*", "*.png*"), List.of(), true);
+
+        Assert.assertTrue(out.containsAll(RequestBlocker.IMAGE_PATTERNS));
+        Assert.assertEquals(out.stream().filter("*a*"::equals).count(), 1);
+        Assert.assertEquals(out.stream().filter("*.png*"::equals).count(), 1);
+    }
+
+    @Test
+    public void testTiltProfileNeverBlocksStripe() {
+        Assert.assertTrue(RequestBlocker.TILT_PROFILE.stream().noneMatch(p -> p.contains("stripe")));
+    }
+}
@@ -0,0 +1,12 @@
+package base;
+
+/**
+ * {@link BaseTest#startFreshSession} could not reach the dashboard after all its attempts.
+ * An environment problem, not a test verdict: the retry analyzer treats it as transient.
+ */
+public class SessionStartException extends RuntimeException {
+
+    public SessionStartException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,249 @@
+package listeners;
+
+import Utils.Config;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+import org.testng.ITestResult;
+import probes.CdpCapture;
+import probes.HarRecorder;
+import probes.HarWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Failure artifacts in two halves:
+ *  - capture(): on the test thread, read each artifact from the browser exactly once (URL, one screenshot,
+ *    page source or DOM snapshot, console, HAR or performance log; see {@link CdpCapture} for the CDP mode) and reserve its Allure attachment slot there, because
+ *    Allure tracks the running test per thread;
+ *  - a bounded background executor then does the slow part: gzip, disk writes and filling the attachments.
+ *
+ * The test thread is free to release/quit the driver as soon as capture() returns. When the queue is full the
+ * work runs on the caller (back-pressure instead of dropping evidence). {@link #flush} waits for pending
+ * writes and is called at suite end.
+ *
+ * Knobs: -Dartifacts.threads (default 2), -Dartifacts.queue (default 64).
+ */
+public final class FailureArtifacts {
+
+    private static final AtomicInteger PENDING = new AtomicInteger();
+    private static final AtomicLong WRITTEN = new AtomicLong();
+    private static final AtomicLong FAILED = new AtomicLong();
+
+    private static final ThreadPoolExecutor POOL;
+    static {
+        int threads = Math.max(1, Config.getInt("artifacts.threads", "ARTIFACTS_THREADS", 2));
+        int queue = Math.max(1, Config.getInt("artifacts.queue", "ARTIFACTS_QUEUE", 64));
+        AtomicInteger n = new AtomicInteger();
+        POOL = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queue),
+                r -> {
+                    Thread t = new Thread(r, "failure-artifacts-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        POOL.allowCoreThreadTimeOut(true);
+    }
+
+    @FunctionalInterface
+    private interface Content {
+        InputStream open() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Job {
+        void run() throws Exception;
+    }
+
+    private FailureArtifacts() {}
+
+    // =========================================================
+    // CAPTURE (test thread)
+    // =========================================================
+
+    /** Read everything from the browser now; queue the writes. Never throws. */
+    public static void capture(WebDriver driver, ITestResult result) {
+        if (driver == null) return;
+        final String method = result.getMethod().getMethodName();
+
+        String url = "(no url available)";
+        try { url = driver.getCurrentUrl(); } catch (Throwable ignored) {}
+
+        // CDP mode: compressed/clipped screenshot and a DOM snapshot; WebDriver PNG / page source otherwise
+        final boolean cdp = CdpCapture.isEnabled();
+        CdpCapture.Image image = cdp ? CdpCapture.screenshot(driver).orElse(null) : null;
+        if (image == null) {
+            try {
+                image = new CdpCapture.Image(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES), "image/png", ".png");
+            } catch (Throwable ignored) {}
+        }
+
+        Map<String, Object> dom = cdp && CdpCapture.useDomSnapshot() ? CdpCapture.domSnapshot(driver).orElse(null) : null;
+        String source = null;
+        if (dom == null) {
+            try { source = driver.getPageSource(); } catch (Throwable ignored) {}
+        }
+
+        List<LogEntry> console = null;
+        try { console = driver.manage().logs().get(LogType.BROWSER).getAll(); } catch (Throwable ignored) {}
+
+        // Streamed HAR when recording; the raw performance log otherwise
+        HarWriter har = HarRecorder.stop(driver).orElse(null);
+        List<LogEntry> perf = null;
+        if (har == null) {
+            try {
+                if (driver.manage().logs().getAvailableLogTypes().contains(LogType.PERFORMANCE)) {
+                    perf = driver.manage().logs().get(LogType.PERFORMANCE).getAll();
+                }
+            } catch (Throwable ignored) {}
+        }
+
+        // ---- hand off ----
+        final String urlText = url;
+        attachLater("Current URL", "text/plain", ".txt", () -> text(urlText));
+
+        if (image != null) {
+            final CdpCapture.Image shot = image;
+            submit(() -> saveScreenshot(method, shot.bytes, shot.extension));
+            attachLater("Screenshot", shot.mimeType, shot.extension, () -> new ByteArrayInputStream(shot.bytes));
+        }
+
+        if (dom != null) {
+            final Map<String, Object> snapshot = dom;
+            attachLater("DOM Snapshot", "application/gzip", ".domsnapshot.json.gz",
+                    () -> new ByteArrayInputStream(gzip(CdpCapture.toJson(snapshot).getBytes(StandardCharsets.UTF_8))));
+        } else {
+            final String html = source;
+            attachLater("Page Source", "text/html", ".html",
+                    () -> text(html != null ? html : "<no page source>"));
+        }
+
+        final List<LogEntry> consoleEntries = console;
+        attachLater("Browser Console", "text/plain", ".txt", () -> consoleEntries == null
+                ? text("Browser logs not available")
+                : new ByteArrayInputStream(lines(consoleEntries, false)));
+
+        if (har != null) {
+            final HarWriter w = har;
+            attachLater("HAR: " + method, "application/gzip", ".har.gz", () -> {
+                Path gz = HarRecorder.close(w).orElseThrow(() -> new IOException("HAR not available"));
+                return Files.newInputStream(gz);
+            });
+        } else if (perf != null) {
+            final List<LogEntry> perfEntries = perf;
+            attachLater("Performance (CDP) JSONL", "application/gzip", ".jsonl.gz",
+                    () -> new ByteArrayInputStream(gzip(lines(perfEntries, true))));
+        }
+    }
+
+    // =========================================================
+    // SUITE END
+    // =========================================================
+
+    /** Wait until every queued write has finished, up to {@code timeout}. Returns false on timeout. */
+    public static boolean flush(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (PENDING.get() > 0) {
+            if (System.nanoTime() > deadline) return false;
+            try {
+                Thread.sleep(25);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static String stats() {
+        return "written=" + WRITTEN.get() + " | failed=" + FAILED.get() + " | pending=" + PENDING.get();
+    }
+
+    // ---------- internals ----------
+
+    /** Reserve the attachment on this (test) thread; fill it in the background. */
+    private static void attachLater(String name, String type, String ext, Content content) {
+        final AllureLifecycle lifecycle = Allure.getLifecycle();
+        final String slot;
+        try {
+            slot = lifecycle.prepareAttachment(name, type, ext);
+        } catch (Throwable e) {
+            return;
+        }
+        submit(() -> {
+            try (InputStream in = content.open()) {
+                lifecycle.writeAttachment(slot, in);
+            }
+        });
+    }
+
+    private static void submit(Job job) {
+        PENDING.incrementAndGet();
+        POOL.execute(() -> {
+            try {
+                job.run();
+                WRITTEN.incrementAndGet();
+            } catch (Throwable e) {
+                FAILED.incrementAndGet();
+                System.out.println("[Artifacts] write failed: " + e);
+            } finally {
+                PENDING.decrementAndGet();
+            }
+        });
+    }
+
+    private static void saveScreenshot(String method, byte[] image, String ext) throws IOException {
+        Path dir = Path.of(System.getProperty("user.dir"), "target", "screenshots");
+        Files.createDirectories(dir);
+        String safe = method.replaceAll("[^a-zA-Z0-9_.-]", "_");
+        String ts = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        Path out = dir.resolve(safe + "_" + ts + ext);
+        Files.write(out, image);
+        System.out.println("[Screenshot] Saved to " + out.toAbsolutePath());
+    }
+
+    private static byte[] lines(List<LogEntry> entries, boolean messageOnly) {
+        StringBuilder sb = new StringBuilder();
+        for (LogEntry e : entries) {
+            if (messageOnly) sb.append(e.getMessage());
+            else sb.append('[').append(e.getLevel()).append("] ").append(e.getMessage());
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(1024, raw.length / 4));
+        try (OutputStream gz = new GZIPOutputStream(bos)) {
+            gz.write(raw);
+        }
+        return bos.toByteArray();
+    }
+
+    private static InputStream text(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
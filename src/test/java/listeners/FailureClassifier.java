@@ -0,0 +1,126 @@
+package listeners;
+
+import Utils.Config;
+import base.SessionStartException;
+import com.mailslurp.clients.ApiException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriverException;
+import org.testng.SkipException;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Sorts a test failure into "worth retrying" or not, by walking the throwable's cause chain.
+ * The whole chain is checked for DRIVER causes before any INFRA match, so a wrapper's message
+ * (e.g. robustGet's) cannot hide a dead session underneath it.
+ *
+ * Transient (retried):
+ *  - browser/session trouble: SessionNotCreatedException, NoSuchSessionException, NoSuchWindowException,
+ *    "chrome not reachable", "disconnected", "target window already closed"
+ *    (DRIVER: the session is thrown away before the retry)
+ *  - robustGet's transient navigation failures, startFreshSession giving up ({@link SessionStartException}),
+ *    MailSlurp 429, Stripe CLI time-outs, socket connect/read time-outs (INFRA)
+ *  - anything matching -Dretry.transientPattern (regex over the messages)
+ *
+ * Assertion errors and skips are never retried. Anything else is UNKNOWN and only retried with -Dretry.unknown=true.
+ */
+public final class FailureClassifier {
+
+    public enum Kind { DRIVER, INFRA, ASSERTION, SKIP, UNKNOWN }
+
+    /** Classification plus a short human reason for the log. */
+    public static final class Verdict {
+        public final Kind kind;
+        public final String reason;
+
+        Verdict(Kind kind, String reason) {
+            this.kind = kind;
+            this.reason = reason;
+        }
+
+        public boolean isTransient() {
+            return kind == Kind.DRIVER || kind == Kind.INFRA;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " (" + reason + ")";
+        }
+    }
+
+    private static final Pattern DRIVER_MESSAGES = Pattern.compile(
+            "chrome not reachable|disconnected: not connected to devtools|session deleted because of page crash"
+                    + "|target window already closed|unable to receive message from renderer|tab crashed",
+            Pattern.CASE_INSENSITIVE);
+
+    private FailureClassifier() {}
+
+    public static Verdict classify(Throwable failure) {
+        if (failure == null) return new Verdict(Kind.UNKNOWN, "no throwable");
+
+        // The outermost type decides for assertions/skips: a test's own verdict is deterministic
+        if (failure instanceof AssertionError) return new Verdict(Kind.ASSERTION, shortName(failure));
+        if (failure instanceof SkipException) return new Verdict(Kind.SKIP, shortName(failure));
+
+        List<Throwable> chain = new ArrayList<>();
+        Map<Throwable, Boolean> seen = new IdentityHashMap<>();
+        for (Throwable t = failure; t != null && seen.put(t, Boolean.TRUE) == null; t = t.getCause()) chain.add(t);
+
+        // 1) a dead browser anywhere in the chain wins: the retry must get a new session
+        for (Throwable t : chain) {
+            String msg = t.getMessage() == null ? "" : t.getMessage();
+            if (t instanceof SessionNotCreatedException) return new Verdict(Kind.DRIVER, "session not created");
+            if (t instanceof NoSuchSessionException) return new Verdict(Kind.DRIVER, "session lost");
+            if (t instanceof NoSuchWindowException) return new Verdict(Kind.DRIVER, "window gone");
+            if (t instanceof WebDriverException && DRIVER_MESSAGES.matcher(msg).find()) {
+                return new Verdict(Kind.DRIVER, firstLine(msg));
+            }
+        }
+
+        // 2) infrastructure hiccups with a healthy browser
+        Pattern extra = transientPattern();
+        for (Throwable t : chain) {
+            String msg = t.getMessage() == null ? "" : t.getMessage();
+            if (msg.startsWith("[robustGet] Transient")) return new Verdict(Kind.INFRA, "navigation gave up (robustGet)");
+            if (t instanceof SessionStartException) return new Verdict(Kind.INFRA, "could not start a session");
+            if (t instanceof ApiException && isRateLimited((ApiException) t)) return new Verdict(Kind.INFRA, "MailSlurp 429");
+            if (msg.startsWith("Stripe CLI timed out")) return new Verdict(Kind.INFRA, "Stripe CLI timeout");
+            if (t instanceof SocketTimeoutException || t instanceof ConnectException) {
+                return new Verdict(Kind.INFRA, shortName(t));
+            }
+            if (extra != null && extra.matcher(msg).find()) return new Verdict(Kind.INFRA, "retry.transientPattern");
+        }
+        return new Verdict(Kind.UNKNOWN, shortName(failure));
+    }
+
+    // ---------- internals ----------
+
+    private static boolean isRateLimited(ApiException e) {
+        if (e.getCode() == 429) return true;
+        String m = e.getMessage() == null ? "" : e.getMessage().toLowerCase(Locale.ROOT);
+        return m.contains("429") || m.contains("too many requests");
+    }
+
+    private static Pattern transientPattern() {
+        String p = Config.get("retry.transientPattern", "RETRY_TRANSIENT_PATTERN", "");
+        return p.isBlank() ? null : Pattern.compile(p);
+    }
+
+    private static String shortName(Throwable t) {
+        return t.getClass().getSimpleName();
+    }
+
+    private static String firstLine(String msg) {
+        int nl = msg.indexOf('\n');
+        return nl < 0 ? msg : msg.substring(0, nl);
+    }
+}
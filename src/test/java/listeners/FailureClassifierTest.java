@@ -0,0 +1,71 @@
+package listeners;
+
+import base.SessionStartException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.net.SocketTimeoutException;
+
+public class FailureClassifierTest {
+
+    private static FailureClassifier.Kind kind(Throwable t) {
+        return FailureClassifier.classify(t).kind;
+    }
+
+    @Test
+    public void testAssertionsAndSkipsAreNeverTransient() {
+        Assert.assertEquals(kind(new AssertionError("expected [a] but found [b]")), FailureClassifier.Kind.ASSERTION);
+        Assert.assertEquals(kind(new SkipException("guard")), FailureClassifier.Kind.SKIP);
+        Assert.assertFalse(FailureClassifier.classify(new AssertionError("x")).isTransient());
+    }
+
+    @Test
+    public void testDriverFailuresAreFoundInTheCauseChain() {
+        Assert.assertEquals(kind(new RuntimeException("boot", new SessionNotCreatedException("version mismatch"))),
+                FailureClassifier.Kind.DRIVER);
+        Assert.assertEquals(kind(new WebDriverException("unknown error: chrome not reachable\nBuild info: ...")),
+                FailureClassifier.Kind.DRIVER);
+    }
+
+    @Test
+    public void testFreshSessionGivingUpIsRetried() {
+        Assert.assertEquals(kind(new SessionStartException("Unable to start fresh session after 3 attempts",
+                new TimeoutException("dashboard"))), FailureClassifier.Kind.INFRA);
+        Assert.assertEquals(kind(new SessionStartException("Unable to start fresh session after 3 attempts",
+                new SessionNotCreatedException("chrome crashed"))), FailureClassifier.Kind.DRIVER);
+    }
+
+    @Test
+    public void testRobustGetNonRecoverableIsDriverNotInfra() {
+        // robustGet wraps dead sessions/windows in a "[robustGet] Non-recoverable" RuntimeException
+        Assert.assertEquals(kind(new RuntimeException("[robustGet] Non-recoverable WebDriverException on attempt 1/3",
+                new NoSuchSessionException("invalid session id"))), FailureClassifier.Kind.DRIVER);
+        Assert.assertEquals(kind(new RuntimeException("[robustGet] Non-recoverable WebDriverException on attempt 1/3",
+                new NoSuchWindowException("no such window"))), FailureClassifier.Kind.DRIVER);
+        // a "[robustGet]" message that is neither transient nor wraps a driver failure is not INFRA
+        Assert.assertEquals(kind(new RuntimeException("[robustGet] Failed without capturing any exception for URL: x")),
+                FailureClassifier.Kind.UNKNOWN);
+    }
+
+    @Test
+    public void testInfraFailures() {
+        Assert.assertEquals(kind(new RuntimeException("[robustGet] Transient WebDriverException on attempt 2/2",
+                new TimeoutException("page load"))), FailureClassifier.Kind.INFRA);
+        Assert.assertEquals(kind(new RuntimeException("Stripe CLI timed out after 60s.")), FailureClassifier.Kind.INFRA);
+        Assert.assertEquals(kind(new IllegalStateException("backend", new SocketTimeoutException("read timed out"))),
+                FailureClassifier.Kind.INFRA);
+    }
+
+    @Test
+    public void testPlainUiTimeoutIsUnknown() {
+        // A WebDriverWait timing out is usually the app, not the infrastructure
+        Assert.assertEquals(kind(new TimeoutException("Expected condition failed")), FailureClassifier.Kind.UNKNOWN);
+        Assert.assertEquals(kind(null), FailureClassifier.Kind.UNKNOWN);
+    }
+}
@@ -1,10 +1,35 @@
 package listeners;
 
+import Utils.Config;
+import base.DriverManager;
 import org.testng.IRetryAnalyzer;
 import org.testng.ITestResult;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retries only failures {@link FailureClassifier} considers transient; assertion errors fail on the first run.
+ *
+ * Usage: -Dretry=1 (default 1, 0 disables). -Dretry.unknown=true also retries unclassified failures.
+ *
+ * For DRIVER failures the session is flagged so the teardown release quits it instead of parking it in the pool;
+ * the retry then leases a warm session (DriverPool / DriverPrespawner) rather than reusing the broken one.
+ * For INFRA failures (MailSlurp, Stripe CLI, navigation) the healthy session is kept and reused.
+ *
+ * Time spent on attempts that were retried is summed and reported at suite end ({@link #summary()}).
+ */
 public class RetryAnalyzer implements IRetryAnalyzer {
 
+    private static final AtomicLong RETRIES = new AtomicLong();
+    private static final AtomicLong RETRY_COST_MS = new AtomicLong();
+    private static final AtomicLong FAIL_FAST = new AtomicLong();
+    private static final Map<FailureClassifier.Kind, AtomicLong> BY_KIND = new EnumMap<>(FailureClassifier.Kind.class);
+    static {
+        for (FailureClassifier.Kind k : FailureClassifier.Kind.values()) BY_KIND.put(k, new AtomicLong());
+    }
+
     private int count = 0;
     private final int max;
 
@@ -15,9 +40,38 @@ public class RetryAnalyzer implements IRetryAnalyzer {
 
     @Override
     public boolean retry(ITestResult result) {
-        return count++ < max;
-    }
+        FailureClassifier.Verdict v = FailureClassifier.classify(result.getThrowable());
+        BY_KIND.get(v.kind).incrementAndGet();
+        String name = result.getMethod().getQualifiedName();
 
+        boolean retryable = v.isTransient()
+                || (v.kind == FailureClassifier.Kind.UNKNOWN && Config.getBoolean("retry.unknown", "RETRY_UNKNOWN", false));
+        if (!retryable || count >= max) {
+            if (v.kind != FailureClassifier.Kind.SKIP) {
+                FAIL_FAST.incrementAndGet();
+                System.out.println("[Retry] no retry for " + name + " — " + v
+                        + (retryable ? " (attempts used " + count + "/" + max + ")" : ""));
+            }
+            return false;
+        }
 
+        count++;
+        long costMs = Math.max(0, result.getEndMillis() - result.getStartMillis());
+        RETRIES.incrementAndGet();
+        RETRY_COST_MS.addAndGet(costMs);
+        if (v.kind == FailureClassifier.Kind.DRIVER) DriverManager.markForEviction();
+        System.out.printf("[Retry] retrying %s (%d/%d) — %s | discarded attempt %.1fs%n",
+                name, count, max, v, costMs / 1000.0);
+        return true;
+    }
 
+    public static String summary() {
+        StringBuilder kinds = new StringBuilder();
+        BY_KIND.forEach((k, n) -> {
+            if (n.get() > 0) kinds.append(kinds.length() == 0 ? "" : ", ").append(k).append('=').append(n.get());
+        });
+        return String.format("retried=%d (cost %.1fs) | not retried=%d | classified: %s",
+                RETRIES.get(), RETRY_COST_MS.get() / 1000.0, FAIL_FAST.get(),
+                kinds.length() == 0 ? "-" : kinds);
+    }
 }
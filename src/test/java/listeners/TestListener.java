@@ -1,28 +1,24 @@
 package listeners;
 
+import Utils.Config;
 import base.DriverManager;
-import io.qameta.allure.Attachment;
-import org.openqa.selenium.JavascriptExecutor;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
+import base.DriverPool;
+import base.DriverPrespawner;
+import base.RequestBlocker;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.logging.LogEntry;
-import org.openqa.selenium.logging.LogType;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Duration;
 import java.util.Properties;
-import java.util.Set;
-import java.util.stream.Collectors;
 
-public class TestListener implements ITestListener {
+public class TestListener implements ITestListener, ISuiteListener {
 
     // ---------- Core hooks ----------
 
@@ -31,12 +27,8 @@ public class TestListener implements ITestListener {
         WebDriver driver = currentDriver();
         if (driver == null) return;
 
-        saveScreenshotToFile(driver, result);
-        attachUrl(driver);
-        attachScreenshot(driver);
-        attachPageSource(driver);
-        attachBrowserConsole(driver);
-        attachPerformanceLogIfAvailable(driver);
+        // Browser reads happen here, once; disk writes and Allure attachments run in the background
+        FailureArtifacts.capture(driver, result);
     }
 
     @Override
@@ -50,61 +42,6 @@ public class TestListener implements ITestListener {
         onTestFailure(result);
     }
 
-    // ---------- Attachments ----------
-
-    @Attachment(value = "Current URL", type = "text/plain")
-    private byte[] attachUrl(WebDriver driver) {
-        String url = "(no url available)";
-        try { url = driver.getCurrentUrl(); } catch (Throwable ignored) {}
-        return url.getBytes(StandardCharsets.UTF_8);
-    }
-
-    @Attachment(value = "Screenshot", type = "image/png")
-    private byte[] attachScreenshot(WebDriver driver) {
-        try { return ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES); }
-        catch (Throwable e) { return new byte[0]; }
-    }
-
-    @Attachment(value = "Page Source", type = "text/html")
-    private byte[] attachPageSource(WebDriver driver) {
-        try { return driver.getPageSource().getBytes(StandardCharsets.UTF_8); }
-        catch (Throwable e) { return "<no page source>".getBytes(StandardCharsets.UTF_8); }
-    }
-
-    @Attachment(value = "Browser Console", type = "text/plain")
-    private byte[] attachBrowserConsole(WebDriver driver) {
-        try {
-            String all = driver.manage().logs().get(LogType.BROWSER).getAll()
-                    .stream()
-                    .map(this::fmt)
-                    .collect(Collectors.joining(System.lineSeparator()));
-            return all.getBytes(StandardCharsets.UTF_8);
-        } catch (Throwable e) {
-            return "Browser logs not available".getBytes(StandardCharsets.UTF_8);
-        }
-    }
-
-    @Attachment(value = "Performance (CDP) JSONL", type = "application/json")
-    private byte[] attachPerformanceLogIfAvailable(WebDriver driver) {
-        try {
-            Set<String> available = driver.manage().logs().getAvailableLogTypes();
-            if (!available.contains(LogType.PERFORMANCE)) {
-                return "performance log type not available".getBytes(StandardCharsets.UTF_8);
-            }
-            String perf = driver.manage().logs().get(LogType.PERFORMANCE).getAll()
-                    .stream()
-                    .map(LogEntry::getMessage)
-                    .collect(Collectors.joining(System.lineSeparator()));
-            return perf.getBytes(StandardCharsets.UTF_8);
-        } catch (Throwable e) {
-            return "failed to read performance logs".getBytes(StandardCharsets.UTF_8);
-        }
-    }
-
-    private String fmt(LogEntry e) {
-        return String.format("[%s] %s", e.getLevel(), e.getMessage());
-    }
-
     // ---------- Utilities ----------
 
     /** Get the thread's driver without throwing; returns null if not initialized or already quit. */
@@ -142,6 +79,41 @@ public class TestListener implements ITestListener {
         }
     }
 
+    // ---------- Suite hooks (driver pool) ----------
+
+    @Override
+    public void onStart(ISuite suite) {
+        int threads = 1;
+        try {
+            if (suite.getXmlSuite().getParallel().isParallel()) {
+                threads = Math.max(1, suite.getXmlSuite().getThreadCount());
+            }
+        } catch (Throwable ignored) {}
+        DriverPool.configure(threads);
+        if (DriverPrespawner.isEnabled()) {
+            DriverPrespawner.expectTests(suite.getAllMethods().stream()
+                    .mapToInt(m -> Math.max(1, m.getInvocationCount())).sum());
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        boolean flushed = FailureArtifacts.flush(Duration.ofSeconds(Config.getInt("artifacts.flushSec", "ARTIFACTS_FLUSH_SEC", 60)));
+        System.out.println("[Artifacts] " + FailureArtifacts.stats() + (flushed ? "" : " (flush timed out)"));
+        if (DriverPool.isEnabled()) {
+            System.out.println("[DriverPool] " + DriverPool.stats());
+            DriverPool.shutdown();
+        }
+        if (DriverPrespawner.isEnabled()) {
+            System.out.println("[Prespawn] " + DriverPrespawner.stats());
+            DriverPrespawner.shutdown();
+        }
+        System.out.println("[Retry] " + RetryAnalyzer.summary());
+        if (RequestBlocker.isEnabled()) {
+            System.out.println("[NetBlock] " + RequestBlocker.summary());
+        }
+    }
+
     // ---------- Unused ITestListener methods (no-ops) ----------
 
     @Override public void onTestStart(ITestResult r) {}
@@ -149,26 +121,4 @@ public class TestListener implements ITestListener {
     @Override public void onTestFailedButWithinSuccessPercentage(ITestResult r) {}
     @Override public void onFinish(ITestContext c) {}
 
-
-
-
-
-    private void saveScreenshotToFile(WebDriver driver, ITestResult result) {
-        try {
-            Path dir = Path.of(System.getProperty("user.dir"), "target", "screenshots");
-            Files.createDirectories(dir);
-
-            String method = result.getMethod().getMethodName().replaceAll("[^a-zA-Z0-9_.-]", "_");
-            String ts = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-            Path out = dir.resolve(method + "_" + ts + ".png");
-
-            byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
-            Files.write(out, png);
-
-            System.out.println("[Screenshot] Saved to " + out.toAbsolutePath());
-        } catch (Throwable e) {
-            System.out.println("[Screenshot] Failed to save: " + e.getMessage());
-        }
-    }
-
 }
@@ -32,13 +32,6 @@ public abstract class BasePage {
     protected final WebDriver driver;
     protected final WaitUtils  wait;
 
-    // Generic overlay/backdrop patterns used across Ant/MUI/ARIA apps (opt-in by pages)
-    protected static final By POSSIBLE_LOADER = By.cssSelector(
-            "[data-testid='loading'],[data-test='loading'],[role='progressbar']," +
-                    ".MuiBackdrop-root,.MuiCircularProgress-root,.ant-spin,.ant-spin-spinning," +
-                    ".overlay,.spinner,.backdrop,[aria-busy='true']"
-    );
-
     // ---------- ctor ----------
 // ---------- ctor ----------
     public BasePage(WebDriver driver) {
@@ -286,7 +279,7 @@ public abstract class BasePage {
             );
         } catch (Throwable ignored) {}
         try {
-            w.until(ExpectedConditions.invisibilityOfElementLocated(POSSIBLE_LOADER));
+            w.until(WaitUtils.loadersGone(WaitUtils.LOADER_UNION_CSS));
         } catch (Throwable ignored) {}
     }
 
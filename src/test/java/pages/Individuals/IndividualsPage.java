@@ -4,8 +4,11 @@ import Utils.Config;
 import Utils.WaitUtils;
 import api.ApiConfig;
 import api.BackendApi;
+import api.dto.ListStream;
 import io.qameta.allure.Step;
 import okhttp3.ResponseBody;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.*;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.interactions.Actions;
@@ -27,6 +30,8 @@ import static java.lang.Thread.sleep;
 
 public class IndividualsPage extends BasePage {
 
+    private static final Logger logger = LogManager.getLogger(IndividualsPage.class);
+
     // Selenium wait (renamed to avoid shadowing BasePage.wait)
     private final WebDriverWait wdw;
 
@@ -52,6 +57,9 @@ public class IndividualsPage extends BasePage {
     private final By nextPageBtn = By.cssSelector(".ant-table-pagination .ant-pagination-next button");
     private final By pageItems   = By.cssSelector(".ant-table-pagination .ant-pagination-item");
     private final By totalText   = By.cssSelector(".ant-table-pagination .ant-pagination-total-text");
+    private final By jumpNextLi  = By.cssSelector(".ant-table-pagination .ant-pagination-jump-next");
+    private final By jumpPrevLi  = By.cssSelector(".ant-table-pagination .ant-pagination-jump-prev");
+    private final By quickJumper = By.cssSelector(".ant-table-pagination .ant-pagination-options-quick-jumper input");
 
 
 
@@ -187,15 +195,10 @@ public class IndividualsPage extends BasePage {
 
     /** A stable per-row signature (Name || Email) for order comparisons on the current page. */
     public java.util.List<String> getRowOrderSignature() {
-        By nameCand = By.cssSelector("td:nth-of-type(1), td [data-col='name'], td .name, td h4:first-child");
-        java.util.List<WebElement> rows = driver.findElements(tableRows);
-        java.util.List<String> sigs = new java.util.ArrayList<>(rows.size());
-        for (WebElement row : rows) {
-            String name = "";
-            try { name = row.findElement(nameCand).getText().trim(); } catch (Throwable ignored) {}
-            String email = "";
-            try { email = emailCellInRow(row).getText().trim(); } catch (Throwable ignored) {}
-            sigs.add((name == null ? "" : name) + " || " + (email == null ? "" : email));
+        TableSnapshot snap = snapshot();
+        java.util.List<String> sigs = new java.util.ArrayList<>(snap.size());
+        for (TableSnapshot.Row row : snap.rows()) {
+            sigs.add(row.name + " || " + row.email);
         }
         return sigs;
     }
@@ -413,11 +416,7 @@ public class IndividualsPage extends BasePage {
     }
 
     public boolean isUserListedByEmailOnCurrentPage(String email) {
-        for (WebElement row : driver.findElements(tableRows)) {
-            String emailTxt = safeText(() -> emailCellInRow(row).getText());
-            if (email.equalsIgnoreCase(emailTxt)) return true;
-        }
-        return false;
+        return snapshot().containsEmail(email);
     }
 
     @Step("Check if user is listed by email (any page): {email}")
@@ -427,7 +426,8 @@ public class IndividualsPage extends BasePage {
             search(email); // name or fragment
             return isUserListedByEmailOnCurrentPage(email);
         }
-        // email path: skip search, scan/paginate
+        // email path: jump straight to the page the backend puts it on, else scan/paginate
+        if (jumpToRowViaApi(email).isPresent()) return true;
         goToFirstPageIfPossible();
         do {
             if (isUserListedByEmailOnCurrentPage(email)) return true;
@@ -451,11 +451,17 @@ public class IndividualsPage extends BasePage {
     // ======= Row-level utilities =======
 
     public Optional<WebElement> findRowByEmailOnCurrentPage(String email) {
-        for (WebElement row : driver.findElements(tableRows)) {
-            String emailTxt = safeText(() -> emailCellInRow(row).getText());
-            if (email.equalsIgnoreCase(emailTxt)) return Optional.of(row);
+        return snapshot().findByEmail(email).map(TableSnapshot.Row::element);
+    }
+
+    /** Whole current table page in one round-trip (see {@link TableSnapshot}). */
+    public TableSnapshot snapshot() {
+        try {
+            return TableSnapshot.capture(driver);
+        } catch (JavascriptException | StaleElementReferenceException e) {
+            // Table re-rendered mid-read: one retry against the new DOM
+            return TableSnapshot.capture(driver);
         }
-        return Optional.empty();
     }
 
     public Optional<WebElement> findRowByEmail(String email) {
@@ -463,7 +469,9 @@ public class IndividualsPage extends BasePage {
             search(email); // name fragment
             return findRowByEmailOnCurrentPage(email);
         }
-        // email path: skip search, scan/paginate
+        // email path: jump straight to the page the backend puts it on, else scan/paginate
+        Optional<WebElement> fast = jumpToRowViaApi(email);
+        if (fast.isPresent()) return fast;
         goToFirstPageIfPossible();
         do {
             Optional<WebElement> row = findRowByEmailOnCurrentPage(email);
@@ -472,6 +480,105 @@ public class IndividualsPage extends BasePage {
         return Optional.empty();
     }
 
+    /**
+     * Ask the backend which page the email is on ({@link IndividualsPageResolver}), go there and
+     * verify in the UI. Also checks the neighbouring pages in case rows shifted in between.
+     * Far pages are reached through {@link #jumpToPage}, not only when their link is rendered.
+     * Empty when the backend does not list it or the page cannot be reached — callers then fall
+     * back to the page-by-page scan.
+     */
+    private Optional<WebElement> jumpToRowViaApi(String email) {
+        if (!IndividualsPageResolver.isEnabled() || !isPresent(pagination)) return Optional.empty();
+        Optional<IndividualsPageResolver.Location> loc =
+                IndividualsPageResolver.locate(driver, email, currentPageSizeHint());
+        if (loc.isEmpty()) return Optional.empty();
+
+        int target = loc.get().page;
+        for (int page : new int[]{target, target - 1, target + 1}) {
+            if (page < 1) continue;
+            try {
+                if (!jumpToPage(page)) continue;
+            } catch (AssertionError | TimeoutException e) {
+                continue;
+            }
+            Optional<WebElement> row = findRowByEmailOnCurrentPage(email);
+            if (row.isPresent()) return row;
+        }
+        logger.info("[Pagination] API said {} is on {} but the UI disagrees; scanning pages.", email, loc.get());
+        return Optional.empty();
+    }
+
+    /**
+     * Open {@code pageNumber} even when AntD renders only a window of page links around the current one:
+     * types it into the quick-jumper when the table has one, else steps with the "•••" jump-next/prev
+     * items (5 pages each) until its link shows. False when the page cannot be reached.
+     */
+    private boolean jumpToPage(int pageNumber) {
+        final String target = String.valueOf(pageNumber);
+        if (pageNumber == 1) {
+            goToFirstPageIfPossible();
+            return isActivePage(target);
+        }
+        WebDriverWait flip = new WebDriverWait(driver, Duration.ofSeconds(5));
+        if (!isPageLinkVisible(pageNumber) && isPresent(quickJumper)) {
+            try {
+                WebElement input = driver.findElement(quickJumper);
+                input.clear();
+                input.sendKeys(target, Keys.ENTER);
+                flip.until(d -> isActivePage(target));
+                waitForTableSettled();
+                return true;
+            } catch (TimeoutException | StaleElementReferenceException e) {
+                // fall back to stepping
+            }
+        }
+        for (int budget = pageNumber / 5 + 3; !isPageLinkVisible(pageNumber) && budget > 0; budget--) {
+            int current = activePageNumber();
+            By jump = pageNumber > current ? jumpNextLi : jumpPrevLi;
+            if (current < 1 || !isPresent(jump)) return false;
+            final String from = String.valueOf(current);
+            safeClick(jump);
+            try {
+                flip.until(d -> !isActivePage(from));
+            } catch (TimeoutException e) {
+                return false;
+            }
+        }
+        if (!isPageLinkVisible(pageNumber)) return false;
+        goToPage(pageNumber);
+        return true;
+    }
+
+    /** Number on the active pagination item, or -1. */
+    private int activePageNumber() {
+        for (WebElement li : driver.findElements(pageItems)) {
+            String cls = String.valueOf(li.getAttribute("class"));
+            String txt = safeText(li::getText).trim();
+            if (cls.contains("ant-pagination-item-active") && txt.matches("\\d+")) return Integer.parseInt(txt);
+        }
+        return -1;
+    }
+
+    /** Rows per page from the AntD size changer ("10 / page"), else the current row count, else 10. */
+    private int currentPageSizeHint() {
+        try {
+            String txt = driver.findElement(By.cssSelector(
+                    ".ant-table-pagination .ant-pagination-options .ant-select-selection-item")).getText();
+            String digits = txt.replaceAll("\\D+", "");
+            if (!digits.isEmpty()) return Integer.parseInt(digits);
+        } catch (Exception ignored) { }
+        int rows = driver.findElements(tableRows).size();
+        return rows > 0 ? rows : 10;
+    }
+
+    private boolean isPageLinkVisible(int pageNumber) {
+        String target = String.valueOf(pageNumber);
+        for (WebElement li : driver.findElements(pageItems)) {
+            if (target.equals(safeText(li::getText).trim())) return true;
+        }
+        return false;
+    }
+
 
     // Resolve the 1-based column index by header text ("Report")
     private int getColumnIndexByHeader(String headerText) {
@@ -1031,14 +1138,20 @@ public class IndividualsPage extends BasePage {
         if (capOpt.isPresent()) {
             // Ensure capture closes even if the UI assertion fails
             try (probes.NetworkCapture cap = capOpt.get()) {
-                // 2) UI flow with stale-buster
-                this.assertAppearsWithReload(baseUrl, emailLc);
-
-                // 2b) Assert network body includes the email
-                final boolean seen = cap.waitForAny(cdpWait) && cap.anyBodyContainsIgnoreCase(emailLc);
-                if (!seen) {
-                    throw new AssertionError("❌ /api/v2/individuals responses did not include "
-                            + email + " (webhook race or filtering?)");
+                try {
+                    // 2) UI flow with stale-buster
+                    this.assertAppearsWithReload(baseUrl, emailLc);
+
+                    // 2b) Assert network body includes the email (bodies are fetched lazily here)
+                    final boolean seen = cap.waitForAny(cdpWait) && cap.anyBodyContainsIgnoreCase(emailLc);
+                    if (!seen) {
+                        throw new AssertionError("❌ /api/v2/individuals responses did not include "
+                                + email + " (webhook race or filtering?)");
+                    }
+                } catch (AssertionError | RuntimeException e) {
+                    // Evidence only on failure: the passing path attaches nothing
+                    cap.attachEvidence("/api/v2/individuals", 5);
+                    throw e;
                 }
             }
         } else {
@@ -1057,11 +1170,9 @@ public class IndividualsPage extends BasePage {
                 if (!resp.isSuccessful()) {
                     throw new AssertionError("❌ /api/v2/individuals HTTP " + resp.code());
                 }
-                try (ResponseBody body = resp.body()) {
-                    final String json = (body != null) ? body.string() : "";
-                    if (!json.toLowerCase(Locale.ROOT).contains(emailLc)) {
-                        throw new AssertionError("❌ Backend payload did not include " + email);
-                    }
+                // Streaming token match: stops at the first email field equal to ours
+                if (!ListStream.containsEmail(resp.body(), emailLc)) {
+                    throw new AssertionError("❌ Backend payload did not include " + email);
                 }
             } catch (IOException e) {
                 throw new RuntimeException(
@@ -1191,27 +1302,12 @@ public class IndividualsPage extends BasePage {
 
     // Returns the visible emails from the current table page (trimmed, non-empty).
     public List<String> getEmailsOnCurrentPage() {
-        return driver.findElements(tableRows)
-                .stream()
-                .map(row -> {
-                    try { return emailCellInRow(row).getText().trim(); }
-                    catch (Throwable t) { return ""; }
-                })
-                .filter(s -> !s.isBlank())
-                .collect(Collectors.toList());
+        return snapshot().emails();
     }
 
 
     public List<String> getNamesOnCurrentPage() {
-        By nameCand = By.cssSelector("td:nth-of-type(1), td [data-col='name'], td .name, td h4:first-child");
-        return driver.findElements(tableRows)
-                .stream()
-                .map(row -> {
-                    try { return row.findElement(nameCand).getText().trim(); }
-                    catch (Throwable t) { return ""; }
-                })
-                .filter(s -> !s.isBlank())
-                .collect(Collectors.toList());
+        return snapshot().names();
     }
 
 
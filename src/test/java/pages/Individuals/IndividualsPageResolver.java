@@ -0,0 +1,193 @@
+package pages.Individuals;
+
+import Utils.Config;
+import api.ApiConfig;
+import api.BackendApi;
+import api.dto.IndividualDto;
+import api.dto.ListStream;
+import okhttp3.ResponseBody;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import retrofit2.Response;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Works out which Individuals page an email is on by asking the backend (GET api/v2/individuals)
+ * instead of clicking through every page of the table.
+ *
+ * The UI's own last list request (from the browser's resource timing entries) is replayed with the
+ * same filters and sort (repeated keys such as status[]=a&status[]=b included), so the backend order
+ * matches the table order; only the page (and, when the UI sends one, the page size) is changed. Auth is the app's JWT from localStorage.
+ * The result is a hint: callers still verify the row on that page in the UI.
+ *
+ * Disable with -Dindividuals.apiResolve=false.
+ */
+public final class IndividualsPageResolver {
+
+    private static final Logger logger = LogManager.getLogger(IndividualsPageResolver.class);
+
+    private static final String LIST_PATH = "/api/v2/individuals";
+    private static final List<String> PAGE_KEYS = List.of("page", "page[number]");
+    private static final List<String> SIZE_KEYS = List.of("per_page", "per", "page_size", "limit", "page[size]");
+
+    private static final String LAST_LIST_REQUEST_JS =
+            "var out={url:null,jwt:null};" +
+            "try{var es=performance.getEntriesByType('resource');" +
+            "  for(var i=es.length-1;i>=0;i--){var u=es[i].name;" +
+            "    if(/\\/api\\/v2\\/individuals(\\?|$)/.test(u)){out.url=u;break;}}}catch(e){}" +
+            "try{out.jwt=localStorage.getItem('jwt');}catch(e){}" +
+            "return out;";
+
+    private IndividualsPageResolver() {}
+
+    public static boolean isEnabled() {
+        return Config.getBoolean("individuals.apiResolve", "INDIVIDUALS_API_RESOLVE", true);
+    }
+
+    /** Where a row sits in the table: 1-based UI page, 0-based index on that page and overall. */
+    public static final class Location {
+        public final int page;
+        public final int indexOnPage;
+        public final int position;
+
+        Location(int page, int indexOnPage, int position) {
+            this.page = page;
+            this.indexOnPage = indexOnPage;
+            this.position = position;
+        }
+
+        @Override
+        public String toString() {
+            return "page " + page + " (row " + (indexOnPage + 1) + ", #" + (position + 1) + " overall)";
+        }
+    }
+
+    /**
+     * Locate {@code email} in the table's current filter/sort order.
+     *
+     * @param uiPageSizeHint rows per UI page when the UI request does not carry a page-size param
+     * @return empty when the backend does not list the email or the lookup is not possible
+     */
+    @SuppressWarnings("unchecked")
+    public static Optional<Location> locate(WebDriver driver, String email, int uiPageSizeHint) {
+        if (!isEnabled() || email == null || email.isBlank()) return Optional.empty();
+        try {
+            Object raw = ((JavascriptExecutor) driver).executeScript(LAST_LIST_REQUEST_JS);
+            Map<String, Object> info = raw instanceof Map ? (Map<String, Object>) raw : Map.of();
+            String url = (String) info.get("url");
+            String jwt = (String) info.get("jwt");
+            if (url == null) {
+                logger.debug("[IndividualsResolver] No list request seen in this page; skipping.");
+                return Optional.empty();
+            }
+
+            URI uri = URI.create(url);
+            Map<String, List<String>> query = parseQuery(uri.getRawQuery());
+            String pageKey = firstPresent(query, PAGE_KEYS, "page");
+            String sizeKey = firstPresent(query, SIZE_KEYS, null);
+
+            int uiPageSize = sizeKey != null ? parseInt(query.get(sizeKey).get(0), uiPageSizeHint) : uiPageSizeHint;
+            if (uiPageSize <= 0) return Optional.empty();
+
+            // With a known size param, fetch big pages (one or two calls); otherwise walk the UI-sized pages.
+            int apiPageSize = sizeKey != null
+                    ? Math.max(uiPageSize, Config.getInt("individuals.apiResolve.pageSize", "INDIVIDUALS_API_RESOLVE_PAGE_SIZE", 200))
+                    : uiPageSize;
+            if (sizeKey != null) query.put(sizeKey, List.of(String.valueOf(apiPageSize)));
+
+            BackendApi api = BackendApi.create(ApiConfig.builder()
+                    .baseUrl(uri.getScheme() + "://" + uri.getRawAuthority())
+                    .bearerToken(jwt != null && !jwt.isBlank() ? jwt.replace("\"", "") : ApiConfig.fromEnv().bearerToken)
+                    .callTimeoutSeconds(15)
+                    .build());
+
+            String needle = email.trim();
+            int maxPages = Config.getInt("individuals.apiResolve.maxPages", "INDIVIDUALS_API_RESOLVE_MAX_PAGES", 50);
+            long t0 = System.currentTimeMillis();
+            // The backend may cap the size we ask for, so positions count the rows it actually served.
+            int servedPageSize = -1;
+            int offset = 0;
+
+            for (int apiPage = 1; apiPage <= maxPages; apiPage++) {
+                query.put(pageKey, List.of(String.valueOf(apiPage)));
+                Response<ResponseBody> resp = api.individualsApiV2()
+                        .indexWithQuery(LIST_PATH.substring(1) + "?" + formatQuery(query)).execute();
+                if (!resp.isSuccessful()) {
+                    ResponseBody err = resp.errorBody();
+                    if (err != null) err.close();   // release the connection
+                    logger.info("[IndividualsResolver] HTTP {} from {}; falling back to UI scan.", resp.code(), LIST_PATH);
+                    return Optional.empty();
+                }
+
+                // Streams the page item by item and stops at the match
+                ListStream.Scan<IndividualDto> scan = ListStream.scan(resp.body(), IndividualDto.class, i -> i.hasEmail(needle));
+                if (scan.found()) {
+                    int position = offset + scan.matchIndex;
+                    Location loc = new Location(position / uiPageSize + 1, position % uiPageSize, position);
+                    logger.info("[IndividualsResolver] {} is on {} ({} API call(s), {}ms)",
+                            email, loc, apiPage, System.currentTimeMillis() - t0);
+                    return Optional.of(loc);
+                }
+                if (scan.itemsRead == 0) break;
+                if (servedPageSize < 0) servedPageSize = scan.itemsRead;   // page 1 is full unless it is the last
+                else if (scan.itemsRead < servedPageSize) break;
+                offset += scan.itemsRead;
+            }
+            logger.info("[IndividualsResolver] {} not listed by the backend", email);
+        } catch (Exception e) {
+            logger.info("[IndividualsResolver] Lookup failed: {}; falling back to UI scan.", e.toString());
+        }
+        return Optional.empty();
+    }
+
+    // ---------- internals ----------
+
+    /** Decoded query as key → values, in order; repeated keys keep every value. */
+    static Map<String, List<String>> parseQuery(String raw) {
+        Map<String, List<String>> out = new LinkedHashMap<>();
+        if (raw == null || raw.isEmpty()) return out;
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String k = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String v = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            out.computeIfAbsent(k, x -> new ArrayList<>()).add(v);
+        }
+        return out;
+    }
+
+    static String formatQuery(Map<String, List<String>> query) {
+        StringBuilder sb = new StringBuilder();
+        query.forEach((k, values) -> {
+            for (String v : values) {
+                if (sb.length() > 0) sb.append('&');
+                sb.append(encode(k)).append('=').append(encode(v));
+            }
+        });
+        return sb.toString();
+    }
+
+    private static String encode(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static String firstPresent(Map<String, List<String>> query, List<String> keys, String dflt) {
+        for (String k : keys) if (query.containsKey(k)) return k;
+        return dflt;
+    }
+
+    private static int parseInt(String s, int dflt) {
+        try { return Integer.parseInt(s.trim()); } catch (Exception e) { return dflt; }
+    }
+}
@@ -0,0 +1,192 @@
+package pages.Individuals;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable copy of the AntD table currently rendered on the page, read with ONE executeScript:
+ * header labels, per-row cell text, links (text + href), the row key, the email cell
+ * (td:nth-of-type(2) h4) and the name cell, plus the row element itself for follow-up clicks.
+ *
+ * Replaces per-row findElement + getText loops (rows × cells round-trips). Lookups by email go
+ * through a lower-cased index. A snapshot is a point-in-time view: take a new one after the table
+ * re-renders (paging, sorting, search).
+ */
+public final class TableSnapshot {
+
+    private static final String SCRIPT =
+            "var root=arguments[0]?document.querySelector(arguments[0]):document;" +
+            "if(!root)return {headers:[],rows:[]};" +
+            "function t(el){return el?(el.innerText||el.textContent||'').replace(/\\s+/g,' ').trim():'';}" +
+            "var headers=Array.prototype.map.call(root.querySelectorAll('.ant-table-thead > tr > th'),t);" +
+            "var trs=root.querySelectorAll('.ant-table-tbody > tr.ant-table-row'),rows=[];" +
+            "for(var i=0;i<trs.length;i++){var tr=trs[i];" +
+            "  var tds=tr.querySelectorAll(':scope > td'),cells=[];" +
+            "  for(var j=0;j<tds.length;j++)cells.push(t(tds[j]));" +
+            "  var links=[],as=tr.querySelectorAll('a');" +
+            "  for(var k=0;k<as.length;k++)links.push({text:t(as[k]),href:as[k].getAttribute('href')||''});" +
+            "  rows.push({key:tr.getAttribute('data-row-key')||'',cells:cells,links:links," +
+            "    email:t(tr.querySelector('td:nth-of-type(2) h4'))," +
+            "    name:t(tr.querySelector(\"td:nth-of-type(1), td [data-col='name'], td .name, td h4:first-child\"))," +
+            "    el:tr});" +
+            "}" +
+            "return {headers:headers,rows:rows};";
+
+    private final List<String> headers;
+    private final List<Row> rows;
+    private final Map<String, Row> byEmail;
+
+    private TableSnapshot(List<String> headers, List<Row> rows) {
+        this.headers = Collections.unmodifiableList(headers);
+        this.rows = Collections.unmodifiableList(rows);
+        Map<String, Row> idx = new LinkedHashMap<>();
+        for (Row r : rows) {
+            if (!r.email.isEmpty()) idx.putIfAbsent(r.email.toLowerCase(Locale.ROOT), r);
+        }
+        this.byEmail = Collections.unmodifiableMap(idx);
+    }
+
+    /** Snapshot of the first AntD table on the page. */
+    public static TableSnapshot capture(WebDriver driver) {
+        return capture(driver, ".ant-table");
+    }
+
+    /** Snapshot of the table under {@code rootCss} (null = whole document). */
+    @SuppressWarnings("unchecked")
+    public static TableSnapshot capture(WebDriver driver, String rootCss) {
+        Object raw = ((JavascriptExecutor) driver).executeScript(SCRIPT, rootCss);
+        if (!(raw instanceof Map)) return new TableSnapshot(new ArrayList<>(), new ArrayList<>());
+        Map<String, Object> m = (Map<String, Object>) raw;
+
+        List<String> headers = new ArrayList<>();
+        for (Object h : list(m.get("headers"))) headers.add(String.valueOf(h));
+
+        List<Row> rows = new ArrayList<>();
+        int i = 0;
+        for (Object o : list(m.get("rows"))) {
+            Map<String, Object> r = (Map<String, Object>) o;
+            List<String> cells = new ArrayList<>();
+            for (Object c : list(r.get("cells"))) cells.add(String.valueOf(c));
+            List<Link> links = new ArrayList<>();
+            for (Object l : list(r.get("links"))) {
+                Map<String, Object> lm = (Map<String, Object>) l;
+                links.add(new Link(str(lm.get("text")), str(lm.get("href"))));
+            }
+            Object el = r.get("el");
+            rows.add(new Row(i++, str(r.get("key")), str(r.get("email")), str(r.get("name")),
+                    cells, links, el instanceof WebElement ? (WebElement) el : null));
+        }
+        return new TableSnapshot(headers, rows);
+    }
+
+    // =========================================================
+    // QUERIES
+    // =========================================================
+
+    public List<String> headers() { return headers; }
+    public List<Row> rows()       { return rows; }
+    public int size()             { return rows.size(); }
+    public boolean isEmpty()      { return rows.isEmpty(); }
+
+    /** Row whose email cell equals {@code email} (case-insensitive). */
+    public Optional<Row> findByEmail(String email) {
+        if (email == null) return Optional.empty();
+        return Optional.ofNullable(byEmail.get(email.trim().toLowerCase(Locale.ROOT)));
+    }
+
+    public boolean containsEmail(String email) {
+        return findByEmail(email).isPresent();
+    }
+
+    /** Non-blank email cells in row order. */
+    public List<String> emails() {
+        List<String> out = new ArrayList<>();
+        for (Row r : rows) if (!r.email.isEmpty()) out.add(r.email);
+        return out;
+    }
+
+    /** Non-blank name cells in row order. */
+    public List<String> names() {
+        List<String> out = new ArrayList<>();
+        for (Row r : rows) if (!r.name.isEmpty()) out.add(r.name);
+        return out;
+    }
+
+    /** 0-based column index for a header label (case-insensitive, trimmed), or -1. */
+    public int columnIndex(String headerText) {
+        for (int i = 0; i < headers.size(); i++) {
+            if (headers.get(i).equalsIgnoreCase(headerText.trim())) return i;
+        }
+        return -1;
+    }
+
+    // ---------- internals ----------
+
+    private static List<?> list(Object o) {
+        return o instanceof List ? (List<?>) o : List.of();
+    }
+
+    private static String str(Object o) {
+        return o == null ? "" : String.valueOf(o).trim();
+    }
+
+    // =========================================================
+    // VALUE TYPES
+    // =========================================================
+
+    public static final class Row {
+        public final int index;           // 0-based position on the page
+        public final String key;          // AntD data-row-key ("" when absent)
+        public final String email;
+        public final String name;
+        public final List<String> cells;
+        public final List<Link> links;
+        private final WebElement element;
+
+        Row(int index, String key, String email, String name, List<String> cells, List<Link> links, WebElement element) {
+            this.index = index;
+            this.key = key;
+            this.email = email;
+            this.name = name;
+            this.cells = Collections.unmodifiableList(cells);
+            this.links = Collections.unmodifiableList(links);
+            this.element = element;
+        }
+
+        /** The live &lt;tr&gt; as of capture time; may go stale if the table re-renders. */
+        public WebElement element() { return element; }
+
+        public String cell(int col) {
+            return col >= 0 && col < cells.size() ? cells.get(col) : "";
+        }
+
+        @Override
+        public String toString() {
+            return "Row{" + index + ", key=" + key + ", email=" + email + ", name=" + name + "}";
+        }
+    }
+
+    public static final class Link {
+        public final String text;
+        public final String href;
+
+        Link(String text, String href) {
+            this.text = text;
+            this.href = href;
+        }
+
+        @Override
+        public String toString() {
+            return text + " -> " + href;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package pages.Shop;
 
+import Utils.WaitUtils;
 import io.qameta.allure.Step;
 import org.openqa.selenium.*;
 import org.openqa.selenium.NoSuchElementException;
@@ -318,12 +319,6 @@ public class AssessmentEntryPage extends BasePage {
     private By lastNameInputs()  { return By.cssSelector("input[aria-label='Last name'],  input[name='lastName'],  input[placeholder*='Last'  i]"); }
     private By emailInputs()     { return EMAIL_INPUTS; }
 
-    /** Loaders/backdrop (Ant/MUI/ARIA). */
-    private static final By POSSIBLE_LOADER = By.cssSelector(
-            "[data-testid='loading'],[data-test='loading'],[role='progressbar']," +
-                    ".MuiBackdrop-root,.MuiCircularProgress-root,.ant-spin,.ant-spin-spinning," +
-                    ".overlay,.spinner,.backdrop,[aria-busy='true']"
-    );
 
 
 
@@ -628,7 +623,7 @@ public class AssessmentEntryPage extends BasePage {
     private void waitForOverlayGone(Duration timeout) {
         try {
             new WebDriverWait(driver, timeout)
-                    .until(ExpectedConditions.invisibilityOfElementLocated(POSSIBLE_LOADER));
+                    .until(WaitUtils.loadersGone(WaitUtils.LOADER_UNION_CSS));
         } catch (Throwable ignore) {}
     }
 
@@ -1,5 +1,6 @@
 package pages.Shop;
 
+import Utils.WaitUtils;
 import io.qameta.allure.Step;
 import org.openqa.selenium.*;
 import org.openqa.selenium.NoSuchElementException;
@@ -101,12 +102,6 @@ public class OrderPreviewPage extends BasePage {
 
 
 
-    /** Generic loaders/backdrops */
-    private static final By POSSIBLE_LOADER = By.cssSelector(
-            "[data-testid='loading'],[data-test='loading'],[role='progressbar']," +
-                    ".MuiBackdrop-root,.MuiCircularProgress-root,.ant-spin,.ant-spin-spinning," +
-                    ".overlay,.spinner,.backdrop,[aria-busy='true']"
-    );
 
 
 
@@ -263,7 +258,7 @@ public class OrderPreviewPage extends BasePage {
             new WebDriverWait(driver, Duration.ofSeconds(2))
                     .until(ExpectedConditions.or(
                             ExpectedConditions.presenceOfElementLocated(COUPON_BADGE),
-                            ExpectedConditions.invisibilityOfElementLocated(POSSIBLE_LOADER)
+                            WaitUtils.loadersGone(WaitUtils.LOADER_UNION_CSS)
                     ));
         } catch (TimeoutException ignored) {}
         return this;
@@ -366,7 +361,7 @@ public class OrderPreviewPage extends BasePage {
     private void waitForOverlayGone(Duration timeout) {
         try {
             new WebDriverWait(driver, timeout)
-                    .until(ExpectedConditions.invisibilityOfElementLocated(POSSIBLE_LOADER));
+                    .until(WaitUtils.loadersGone(WaitUtils.LOADER_UNION_CSS));
         } catch (Throwable ignore) {}
     }
 
@@ -1052,10 +1047,7 @@ public class OrderPreviewPage extends BasePage {
                     By.xpath(".//*[contains(@class,'spinner') or contains(@class,'loading') or @role='status']")
             ).isEmpty();
 
-            boolean loaderVisible = driver.findElements(POSSIBLE_LOADER).stream()
-                    .anyMatch(el -> {
-                        try { return el.isDisplayed(); } catch (Exception e) { return false; }
-                    });
+            boolean loaderVisible = !WaitUtils.noVisibleLoaders(driver, WaitUtils.LOADER_UNION_CSS);
 
             boolean looksDisabled =
                     (disabled != null) ||
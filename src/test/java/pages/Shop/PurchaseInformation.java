@@ -1,5 +1,6 @@
 package pages.Shop;
 
+import Utils.WaitUtils;
 import io.qameta.allure.Step;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.ExpectedConditions;
@@ -54,12 +55,6 @@ public class PurchaseInformation extends BasePage {
 
     private static final By BTN_CANCEL = By.xpath("//button[normalize-space()='Cancel']");
 
-    /** Broad overlay/backdrop guard */
-    private static final By POSSIBLE_LOADER = By.cssSelector(
-            "[data-testid='loading'],[data-test='loading'],[role='progressbar']," +
-                    ".MuiBackdrop-root,.MuiCircularProgress-root,.ant-spin,.ant-spin-spinning," +
-                    ".overlay,.spinner,.backdrop,[aria-busy='true']"
-    );
 
     // ========= Identity & load state =========
 
@@ -224,7 +219,7 @@ public class PurchaseInformation extends BasePage {
     private void waitForOverlayGone(Duration timeout) {
         try {
             new WebDriverWait(driver, timeout)
-                    .until(ExpectedConditions.invisibilityOfElementLocated(POSSIBLE_LOADER));
+                    .until(WaitUtils.loadersGone(WaitUtils.LOADER_UNION_CSS));
         } catch (Throwable ignore) { /* best-effort */ }
     }
 }
@@ -5,6 +5,7 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Runs a Playwright test that completes Stripe Hosted Checkout using a fresh CHECKOUT_URL.
@@ -12,6 +13,10 @@ import java.util.*;
  * Usage:
  *   String url = preview.proceedToStripeAndGetCheckoutUrl();
  *   PlaywrightStripeBridge.pay(url, "qa+stripe@example.com");
+ *
+ * With -Dpw.worker=true the checkout goes to a suite-wide {@link PlaywrightStripeWorker} (warm browser,
+ * JSON jobs over stdin) instead of spawning a Playwright run per payment, provided the Playwright repo ships
+ * the worker's checkout flow module; {@link #payAsync(Options)} lets purchase tests pipeline payments through it.
  */
 public final class PlaywrightStripeBridge {
 
@@ -39,7 +44,72 @@ public final class PlaywrightStripeBridge {
     /** Same as {@link #pay(Options)} but returns success + the final success URL if captured. */
     public static Result payReturning(Options options) {
         Objects.requireNonNull(options.checkoutUrl, "checkoutUrl is required");
+        if (PlaywrightStripeWorker.isEnabled()) {
+            PlaywrightStripeWorker worker = workerOrNull(options);
+            if (worker != null) {
+                try {
+                    return submitToWorker(worker, options).join();
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        throw new RuntimeException("Playwright checkout timed out after " + options.timeout, cause);
+                    }
+                    throw new RuntimeException("Playwright worker checkout failed: " + cause.getMessage(), cause);
+                }
+            }
+        }
+        return payViaProcess(options);
+    }
+
+    /**
+     * Non-blocking form of {@link #payReturning(Options)}. With the worker enabled several payments run
+     * concurrently on its browser; otherwise each call spawns its own Playwright run on a background thread.
+     */
+    public static CompletableFuture<Result> payAsync(Options options) {
+        Objects.requireNonNull(options.checkoutUrl, "checkoutUrl is required");
+        if (PlaywrightStripeWorker.isEnabled()) {
+            PlaywrightStripeWorker worker = workerOrNull(options);
+            if (worker != null) return submitToWorker(worker, options);
+        }
+        return CompletableFuture.supplyAsync(() -> payViaProcess(options), SPAWNER);
+    }
+
+    private static final ExecutorService SPAWNER = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "pw-bridge");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static CompletableFuture<Result> submitToWorker(PlaywrightStripeWorker worker, Options options) {
+        // Never allow fake success in CI; allow locally only if explicitly asked
+        boolean fake = Boolean.TRUE.equals(options.fakeSuccess) && !isCi();
+        CompletableFuture<Result> job = worker.submit(options.checkoutUrl, options.checkoutEmail, options.timeout, fake);
+        CompletableFuture<Result> decided = job.thenApply(r -> decide(r.isSuccess(), r.isCaptchaDetected(),
+                r.isNoPaymentElement(), r.getSuccessUrl(), r.getError()));
+        // thenApply does not propagate cancel upstream; forward it so the worker drops the job
+        decided.whenComplete((r, t) -> {
+            if (t instanceof CancellationException) job.cancel(false);
+        });
+        return decided;
+    }
+
+    /** Shared worker started from the Playwright repo dir, or null (caller falls back to a process per run). */
+    private static PlaywrightStripeWorker workerOrNull(Options options) {
+        File wd = effectiveWorkingDirectory(options);
+        try {
+            PlaywrightStripeWorker w = PlaywrightStripeWorker.shared(wd, playwrightEnv(options, wd));
+            long startMs = Optional.ofNullable(System.getenv("PW_WORKER_START_TIMEOUT_MS"))
+                    .map(Long::parseLong).orElse(60_000L);
+            w.awaitReady(Duration.ofMillis(startMs));
+            return w;
+        } catch (Exception e) {
+            System.err.println("[PW] worker unavailable (" + e.getMessage() + "); spawning a Playwright run instead.");
+            return null;
+        }
+    }
 
+    /** One {@code run-pw.sh test} process for this checkout. */
+    private static Result payViaProcess(Options options) {
         final boolean ci = isCi();
         final File wd = effectiveWorkingDirectory(options);
 
@@ -54,8 +124,7 @@ public final class PlaywrightStripeBridge {
         }
 
         // ---- Environment for Playwright process ----
-        Map<String, String> env = new HashMap<>(System.getenv());
-        env.put("PW_BRIDGE_WD", wd.getAbsolutePath());
+        Map<String, String> env = playwrightEnv(options, wd);
         env.put("CHECKOUT_URL", options.checkoutUrl);
         if (options.checkoutEmail != null) env.put("CHECKOUT_EMAIL", options.checkoutEmail);
 
@@ -66,26 +135,6 @@ public final class PlaywrightStripeBridge {
             env.remove("PW_STRIPE_FAKE_SUCCESS");
         }
 
-        // Headed vs headless: prefer headed unless explicitly disabled
-        if (Boolean.TRUE.equals(options.headed)) {
-            env.put("PW_HEADLESS", "0");
-        } else if (Boolean.FALSE.equals(options.headed)) {
-            env.put("PW_HEADLESS", "1");
-        }
-
-        // Timeouts down to PW (ms)
-        if (options.timeout != null && !options.timeout.isZero() && !options.timeout.isNegative()) {
-            env.put("PW_TIMEOUT_MS", String.valueOf(options.timeout.toMillis()));
-        }
-        env.putIfAbsent("PW_EXPECT_TIMEOUT_MS", "5000");
-        env.putIfAbsent("PW_NAV_TIMEOUT_MS", "15000");
-        env.putIfAbsent("PW_ACTION_TIMEOUT_MS", "10000");
-
-        // Coherent browser profile hints (matched by your run script / config)
-        env.putIfAbsent("PW_LOCALE", "en-US");
-        env.putIfAbsent("PW_TZ", "America/New_York");
-        env.putIfAbsent("PW_ACCEPT_LANGUAGE", "en-US,en;q=0.9");
-
         final String SUCCESS_MARK = "PW_BRIDGE::SUCCESS_URL ";
         final var successUrlRef = new java.util.concurrent.atomic.AtomicReference<String>(null);
 
@@ -158,32 +207,65 @@ public final class PlaywrightStripeBridge {
             );
         }
 
-        // ---- Decide success/failure robustly ----
-        boolean ok = (exit == 0);
+        return decide(exit == 0, sawCaptcha.get(), sawNoPaymentElement.get(), successUrlRef.get(),
+                exit == 0 ? null : "exit code " + exit);
+    }
+
+    // ---------------- internal helpers ----------------
+
+    /** Decide success/failure robustly, the same way for the per-run process and the worker. */
+    private static Result decide(boolean ranOk, boolean sawCaptcha, boolean sawNoPaymentElement,
+                                 String successUrl, String error) {
+        boolean ok = ranOk;
 
         // In CI, any captcha or non-render -> **hard fail**, regardless of exit code
-        if (ci && (sawCaptcha.get() || sawNoPaymentElement.get())) {
+        if (isCi() && (sawCaptcha || sawNoPaymentElement)) {
             ok = false;
             System.err.println("[PW] CI strict mode: rejecting run due to hCaptcha / Payment Element not rendered.");
         }
 
-        String successUrl = successUrlRef.get();
-
         // Validate success URL (must be trustworthy)
         if (ok) {
             if (successUrl == null || successUrl.isBlank()) {
                 ok = false;
+                error = "no success URL";
                 System.err.println("[PW] No success URL emitted by Playwright.");
             } else if (!isTrustworthySuccessUrl(successUrl)) {
                 ok = false;
+                error = "untrusted success URL";
                 System.err.println("[PW] Untrusted success URL: " + successUrl);
             }
         }
 
-        return new Result(ok, ok ? successUrl : null);
+        return new Result(ok, ok ? successUrl : null, sawCaptcha, sawNoPaymentElement, ok ? null : error);
     }
 
-    // ---------------- internal helpers ----------------
+    /** Environment shared by the per-run process and the worker (no per-checkout values). */
+    private static Map<String, String> playwrightEnv(Options options, File wd) {
+        Map<String, String> env = new HashMap<>(System.getenv());
+        env.put("PW_BRIDGE_WD", wd.getAbsolutePath());
+
+        // Headed vs headless: prefer headed unless explicitly disabled
+        if (Boolean.TRUE.equals(options.headed)) {
+            env.put("PW_HEADLESS", "0");
+        } else if (Boolean.FALSE.equals(options.headed)) {
+            env.put("PW_HEADLESS", "1");
+        }
+
+        // Timeouts down to PW (ms)
+        if (options.timeout != null && !options.timeout.isZero() && !options.timeout.isNegative()) {
+            env.put("PW_TIMEOUT_MS", String.valueOf(options.timeout.toMillis()));
+        }
+        env.putIfAbsent("PW_EXPECT_TIMEOUT_MS", "5000");
+        env.putIfAbsent("PW_NAV_TIMEOUT_MS", "15000");
+        env.putIfAbsent("PW_ACTION_TIMEOUT_MS", "10000");
+
+        // Coherent browser profile hints (matched by your run script / config)
+        env.putIfAbsent("PW_LOCALE", "en-US");
+        env.putIfAbsent("PW_TZ", "America/New_York");
+        env.putIfAbsent("PW_ACCEPT_LANGUAGE", "en-US,en;q=0.9");
+        return env;
+    }
 
     private static boolean isTrustworthySuccessUrl(String url) {
         try {
@@ -319,9 +401,22 @@ public final class PlaywrightStripeBridge {
     public static final class Result {
         private final boolean success;
         private final String successUrl; // may be null if not found
-        public Result(boolean success, String successUrl) { this.success = success; this.successUrl = successUrl; }
+        private final boolean captchaDetected;
+        private final boolean noPaymentElement;
+        private final String error;      // null on success
+        public Result(boolean success, String successUrl) { this(success, successUrl, false, false, null); }
+        public Result(boolean success, String successUrl, boolean captchaDetected, boolean noPaymentElement, String error) {
+            this.success = success;
+            this.successUrl = successUrl;
+            this.captchaDetected = captchaDetected;
+            this.noPaymentElement = noPaymentElement;
+            this.error = error;
+        }
         public boolean isSuccess() { return success; }
         public String getSuccessUrl() { return successUrl; }
+        public boolean isCaptchaDetected() { return captchaDetected; }
+        public boolean isNoPaymentElement() { return noPaymentElement; }
+        public String getError() { return error; }
     }
 
     public static final class Options {
@@ -0,0 +1,258 @@
+package pages.Shop.Stripe;
+
+import Utils.Config;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived Node/Playwright process that completes Stripe Hosted Checkout jobs on a warm browser.
+ *
+ * {@link PlaywrightStripeBridge} used to spawn {@code run-pw.sh test ...} per payment (Node boot, browser
+ * launch, spec compile, stdout scraping). The worker is started once per suite from the Playwright repo
+ * directory, receives one JSON job per line on stdin and answers with one JSON result per line
+ * (see src/test/resources/playwright/stripe-checkout-worker.cjs). Each job gets a fresh browser context,
+ * so jobs stay isolated while the browser stays up, and several jobs can run at once
+ * (PW_WORKER_CONCURRENCY, default 2).
+ *
+ * The checkout steps come from a flow module in the Playwright repo (-Dpw.worker.flow / PW_WORKER_FLOW,
+ * default tests/stripe-checkout.flow.js, exporting {@code async (page, job, signals) => successUrl}); it should
+ * share its steps with the proven stripe-checkout.spec.ts. There is no built-in flow: without the module the
+ * worker is not started and the bridge keeps using run-pw.sh.
+ *
+ * The worker is started with the env of the first caller (headed mode, timeouts); a later call with a
+ * different env retires it once its jobs are done and starts a new one.
+ *
+ * Opt in with -Dpw.worker=true / PW_WORKER=true. The bridge falls back to the per-run process when the
+ * worker cannot start.
+ */
+public final class PlaywrightStripeWorker implements AutoCloseable {
+
+    private static final String MARK = "PW_WORKER::";
+    private static final String SCRIPT_RESOURCE = "/playwright/stripe-checkout-worker.cjs";
+    private static final Gson GSON = new Gson();
+
+    private static PlaywrightStripeWorker shared;   // guarded by PlaywrightStripeWorker.class
+
+    private final Process process;
+    private final Map<String, String> env;
+    private final BufferedWriter stdin;
+    private final Map<String, CompletableFuture<PlaywrightStripeBridge.Result>> pending = new ConcurrentHashMap<>();
+    private final CompletableFuture<String> ready = new CompletableFuture<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    public static boolean isEnabled() {
+        return Config.getBoolean("pw.worker", "PW_WORKER", false);
+    }
+
+    /** Flow module the worker runs, or null when the Playwright repo does not provide one. */
+    static File flowModule(File workingDir) {
+        String rel = Config.get("pw.worker.flow", "PW_WORKER_FLOW", "tests/stripe-checkout.flow.js");
+        File f = new File(rel);
+        if (!f.isAbsolute()) f = new File(workingDir, rel);
+        return f.isFile() ? f.getAbsoluteFile() : null;
+    }
+
+    /** The suite-wide worker, started on first use (or restarted if it died or {@code env} changed). */
+    static synchronized PlaywrightStripeWorker shared(File workingDir, Map<String, String> env) throws IOException {
+        if (shared != null && shared.process.isAlive() && !shared.env.equals(env)) {
+            System.out.println("[PW] worker env changed (headed mode / timeouts); restarting it");
+            shared.retire();
+            shared = null;
+        }
+        if (shared == null || !shared.process.isAlive()) {
+            shared = start(workingDir, env);
+            PlaywrightStripeWorker w = shared;
+            Runtime.getRuntime().addShutdownHook(new Thread(w::close, "pw-worker-shutdown"));
+        }
+        return shared;
+    }
+
+    static PlaywrightStripeWorker start(File workingDir, Map<String, String> env) throws IOException {
+        File flow = flowModule(workingDir);
+        if (flow == null) {
+            throw new FileNotFoundException("no checkout flow module in " + workingDir.getAbsolutePath()
+                    + " (set PW_WORKER_FLOW)");
+        }
+        Path script = Files.createTempFile("stripe-checkout-worker", ".cjs");
+        try (InputStream in = PlaywrightStripeWorker.class.getResourceAsStream(SCRIPT_RESOURCE)) {
+            if (in == null) throw new FileNotFoundException("classpath:" + SCRIPT_RESOURCE);
+            Files.copy(in, script, StandardCopyOption.REPLACE_EXISTING);
+        }
+        script.toFile().deleteOnExit();
+
+        // Login shell so node comes from the same PATH (nvm etc.) as run-pw.sh
+        ProcessBuilder pb = new ProcessBuilder("bash", "-lc", "exec node '" + script.toAbsolutePath() + "'");
+        pb.directory(workingDir);
+        pb.redirectErrorStream(false);
+        pb.environment().putAll(env);
+        pb.environment().put("PW_WORKER_FLOW", flow.getPath());
+        System.out.println("[PW] starting worker in " + workingDir.getAbsolutePath() + " with flow " + flow);
+        return new PlaywrightStripeWorker(pb.start(), env);
+    }
+
+    private PlaywrightStripeWorker(Process process, Map<String, String> env) {
+        this.process = process;
+        this.env = Map.copyOf(env);
+        this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+
+        Thread tOut = new Thread(this::readResults, "pw-worker-out");
+        tOut.setDaemon(true);
+        tOut.start();
+
+        Thread tErr = new Thread(() -> {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) System.err.println("[PW-ERR] " + line);
+            } catch (IOException ignored) {}
+        }, "pw-worker-err");
+        tErr.setDaemon(true);
+        tErr.start();
+    }
+
+    /** Blocks until the worker reports its browser is up. */
+    void awaitReady(Duration timeout) throws Exception {
+        try {
+            String info = ready.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            System.out.println("[PW] worker ready: " + info);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Playwright worker failed to start: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Queue one checkout. The future completes with the worker's raw result (not yet checked against the
+     * CI / success-URL rules) or exceptionally if the worker dies or {@code timeout} passes.
+     * A timeout or {@code cancel} on the future also cancels the job in the worker, which closes its browser
+     * context and frees its concurrency slot.
+     */
+    CompletableFuture<PlaywrightStripeBridge.Result> submit(String checkoutUrl, String email, Duration timeout,
+                                                            boolean fakeSuccess) {
+        String id = String.valueOf(ids.incrementAndGet());
+        CompletableFuture<PlaywrightStripeBridge.Result> f = new CompletableFuture<>();
+        pending.put(id, f);
+        f.whenComplete((r, t) -> {
+            pending.remove(id);
+            if (t instanceof TimeoutException || t instanceof CancellationException) cancel(id);
+        });
+
+        Map<String, Object> job = new LinkedHashMap<>();
+        job.put("id", id);
+        job.put("checkoutUrl", checkoutUrl);
+        if (email != null) job.put("email", email);
+        if (timeout != null) job.put("timeoutMs", timeout.toMillis());
+        job.put("fakeSuccess", fakeSuccess);
+        try {
+            send(GSON.toJson(job));
+        } catch (IOException e) {
+            f.completeExceptionally(e);
+            return f;
+        }
+        if (timeout != null && !timeout.isZero() && !timeout.isNegative()) {
+            f.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return f;
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    @Override
+    public void close() {
+        if (!process.isAlive()) return;
+        try {
+            send("{\"op\":\"shutdown\"}");
+            stdin.close();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) process.destroyForcibly();
+        } catch (Exception e) {
+            process.destroyForcibly();
+        }
+    }
+
+    // ---------------- internal helpers ----------------
+
+    /** Drop a job the Java side gave up on: dequeued if it has not started, its context closed if it has. */
+    private void cancel(String id) {
+        if (!process.isAlive()) return;
+        try {
+            send(GSON.toJson(Map.of("op", "cancel", "id", id)));
+        } catch (IOException e) {
+            System.err.println("[PW] could not cancel job " + id + ": " + e);
+        }
+    }
+
+    /** Ask the worker to exit once its running and queued jobs are done; does not wait. */
+    private void retire() {
+        try {
+            send("{\"op\":\"shutdown\"}");
+            stdin.close();
+        } catch (IOException ignored) {}
+    }
+
+    private synchronized void send(String line) throws IOException {
+        stdin.write(line);
+        stdin.write('\n');
+        stdin.flush();
+    }
+
+    private void readResults() {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                int idx = line.indexOf(MARK);
+                if (idx < 0) {
+                    System.out.println("[PW] " + line);
+                    continue;
+                }
+                handle(JsonParser.parseString(line.substring(idx + MARK.length())).getAsJsonObject());
+            }
+        } catch (Exception e) {
+            System.err.println("[PW] worker output reader stopped: " + e);
+        } finally {
+            IllegalStateException dead = new IllegalStateException("Playwright worker exited");
+            ready.completeExceptionally(dead);
+            for (CompletableFuture<PlaywrightStripeBridge.Result> f : new ArrayList<>(pending.values())) {
+                f.completeExceptionally(dead);
+            }
+        }
+    }
+
+    private void handle(JsonObject msg) {
+        String event = str(msg.get("event"));
+        if ("ready".equals(event)) {
+            ready.complete(msg.toString());
+            return;
+        }
+        if ("fatal".equals(event)) {
+            ready.completeExceptionally(new IllegalStateException(str(msg.get("error"))));
+            return;
+        }
+        CompletableFuture<PlaywrightStripeBridge.Result> f = pending.get(str(msg.get("id")));
+        if (f == null) return;   // timed out on our side already
+
+        boolean ok = msg.has("ok") && msg.get("ok").getAsBoolean();
+        String error = str(msg.get("error"));
+        System.out.println("[PW] job " + str(msg.get("id")) + " -> ok=" + ok
+                + (error != null ? " error=" + error : "") + " (" + str(msg.get("ms")) + "ms)");
+        f.complete(new PlaywrightStripeBridge.Result(ok, str(msg.get("successUrl")),
+                msg.has("captcha") && msg.get("captcha").getAsBoolean(),
+                msg.has("noPaymentElement") && msg.get("noPaymentElement").getAsBoolean(),
+                error));
+    }
+
+    private static String str(JsonElement e) {
+        return e == null || e.isJsonNull() ? null : e.getAsString();
+    }
+}
@@ -1,6 +1,7 @@
 package pages.Shop.Stripe;
 
 
+import Utils.StripeStub;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
@@ -16,6 +17,7 @@ public class StripeApiHelper {
 
     public StripeApiHelper(String apiKey) {
         Stripe.apiKey = apiKey; // Set your Stripe test secret key
+        StripeStub.configureSdk(); // -Dstripe.stub / STRIPE_API_BASE
     }
 
 
@@ -29,6 +31,10 @@ public class StripeApiHelper {
      */
     public String getLatestPaymentIntentIdForEmail(String email) {
         try {
+            if (StripeStub.isEnabled()) {
+                // Indexed by email in the stub; no need to scan the list
+                return StripeStub.shared().latestPaymentIntentFor(email).orElse(null);
+            }
             PaymentIntentListParams params = PaymentIntentListParams.builder()
                     .setLimit(5L)
                     .build();
@@ -1,7 +1,8 @@
 package pages.SignUp;
 
+import api.HttpTransport;
+
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
@@ -25,10 +26,6 @@ import java.util.Optional;
  */
 public class TiltSignUpApi {
 
-    private static final HttpClient CLIENT = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
-
     public static class ApiUserResult {
         public final int statusCode;
         public final String email;
@@ -106,7 +103,7 @@ public class TiltSignUpApi {
                     .build();
 
             HttpResponse<String> response =
-                    CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+                    HttpTransport.send(request, HttpResponse.BodyHandlers.ofString());
 
             int status = response.statusCode();
             String body = response.body();
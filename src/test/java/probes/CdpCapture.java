@@ -0,0 +1,178 @@
+package probes;
+
+import Utils.Config;
+import base.DevToolsHub;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.v142.domsnapshot.DOMSnapshot;
+import org.openqa.selenium.devtools.v142.page.Page;
+import org.openqa.selenium.devtools.v142.page.model.Viewport;
+import org.openqa.selenium.json.Json;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Artifact capture straight from CDP on the driver's {@link DevToolsHub}:
+ *  - Page.captureScreenshot as JPEG/WebP with a quality setting, an optional clip and scale
+ *    (much smaller than WebDriver's full-viewport base64 PNG, and cheaper to encode);
+ *  - DOMSnapshot.captureSnapshot, a flattened DOM with a shared string table, instead of getPageSource().
+ *
+ * Opt-in: -Dartifacts.capture=cdp (ARTIFACTS_CAPTURE). Knobs:
+ *  - artifacts.screenshot.format   jpeg | webp | png (default jpeg)
+ *  - artifacts.screenshot.quality  0-100 for jpeg/webp (default 70)
+ *  - artifacts.screenshot.clip     "x,y,width,height" in CSS px (default: whole viewport)
+ *  - artifacts.screenshot.scale    e.g. 0.5 to halve each dimension (default 1)
+ *  - artifacts.dom                 snapshot | source (default snapshot)
+ *  - artifacts.dom.styles          computed styles to include (default display,visibility,opacity)
+ */
+public final class CdpCapture {
+
+    /** An encoded screenshot with its mime type and file extension. */
+    public static final class Image {
+        public final byte[] bytes;
+        public final String mimeType;
+        public final String extension;
+
+        public Image(byte[] bytes, String mimeType, String extension) {
+            this.bytes = bytes;
+            this.mimeType = mimeType;
+            this.extension = extension;
+        }
+    }
+
+    private CdpCapture() {}
+
+    public static boolean isEnabled() {
+        return "cdp".equalsIgnoreCase(Config.get("artifacts.capture", "ARTIFACTS_CAPTURE", "webdriver").trim());
+    }
+
+    public static boolean useDomSnapshot() {
+        return !"source".equalsIgnoreCase(Config.get("artifacts.dom", "ARTIFACTS_DOM", "snapshot").trim());
+    }
+
+    // =========================================================
+    // SCREENSHOT
+    // =========================================================
+
+    /** Configured screenshot, or empty when the driver has no DevTools or the capture fails. */
+    public static Optional<Image> screenshot(WebDriver driver) {
+        String format = Config.get("artifacts.screenshot.format", "ARTIFACTS_SCREENSHOT_FORMAT", "jpeg");
+        int quality = Config.getInt("artifacts.screenshot.quality", "ARTIFACTS_SCREENSHOT_QUALITY", 70);
+        double scale = Config.getDouble("artifacts.screenshot.scale", "ARTIFACTS_SCREENSHOT_SCALE", 1.0);
+        String clip = Config.get("artifacts.screenshot.clip", "ARTIFACTS_SCREENSHOT_CLIP", "");
+        Viewport v;
+        try {
+            v = parseClip(clip, scale);
+        } catch (IllegalArgumentException e) {
+            System.out.println("[Artifacts] " + e.getMessage() + " — capturing the whole viewport");
+            v = null;
+        }
+        return screenshot(driver, format, quality, v);
+    }
+
+    public static Optional<Image> screenshot(WebDriver driver, String format, int quality, Viewport clip) {
+        DevToolsHub hub = DevToolsHub.forDriver(driver).orElse(null);
+        if (hub == null) return Optional.empty();
+
+        String f = format == null ? "jpeg" : format.trim().toLowerCase(Locale.ROOT);
+        Page.CaptureScreenshotFormat fmt;
+        String mime;
+        String ext;
+        switch (f) {
+            case "png":
+                fmt = Page.CaptureScreenshotFormat.PNG;
+                mime = "image/png";
+                ext = ".png";
+                break;
+            case "webp":
+                fmt = Page.CaptureScreenshotFormat.WEBP;
+                mime = "image/webp";
+                ext = ".webp";
+                break;
+            default:
+                fmt = Page.CaptureScreenshotFormat.JPEG;
+                mime = "image/jpeg";
+                ext = ".jpg";
+        }
+        Optional<Integer> q = fmt == Page.CaptureScreenshotFormat.PNG
+                ? Optional.empty()
+                : Optional.of(Math.max(0, Math.min(100, quality)));
+        try {
+            String b64 = hub.send(Page.captureScreenshot(
+                    Optional.of(fmt), q, Optional.ofNullable(clip),
+                    Optional.of(true),     // fromSurface
+                    Optional.of(false),    // captureBeyondViewport
+                    Optional.of(true)));   // optimizeForSpeed
+            return Optional.of(new Image(Base64.getDecoder().decode(b64), mime, ext));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    // =========================================================
+    // DOM SNAPSHOT
+    // =========================================================
+
+    /**
+     * DOMSnapshot.captureSnapshot as raw JSON (documents + shared string table). Empty when unavailable.
+     * Serialization is left to the caller so it can run off the test thread: see {@link #toJson}.
+     */
+    public static Optional<Map<String, Object>> domSnapshot(WebDriver driver) {
+        DevToolsHub hub = DevToolsHub.forDriver(driver).orElse(null);
+        if (hub == null) return Optional.empty();
+
+        List<String> styles = Arrays.stream(Config.get("artifacts.dom.styles", "ARTIFACTS_DOM_STYLES",
+                        "display,visibility,opacity").split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("computedStyles", styles);
+        params.put("includeDOMRects", true);
+        try {
+            hub.send(DOMSnapshot.enable());
+            Map<String, Object> snap = hub.send(new Command<>("DOMSnapshot.captureSnapshot", params, Json.MAP_TYPE));
+            return Optional.ofNullable(snap);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    public static String toJson(Map<String, Object> snapshot) {
+        return new Json().toJson(snapshot);
+    }
+
+    // ---------- internals ----------
+
+    /** "x,y,width,height" → clip viewport; null (whole viewport) when blank. Scale applies either way. */
+    static Viewport parseClip(String clip, double scale) {
+        double s = scale > 0 ? scale : 1.0;
+        if (clip == null || clip.isBlank()) {
+            return s == 1.0 ? null : fullViewportAt(s);
+        }
+        String[] p = clip.split(",");
+        if (p.length != 4) throw new IllegalArgumentException("artifacts.screenshot.clip must be x,y,width,height: " + clip);
+        return new Viewport(Double.parseDouble(p[0].trim()), Double.parseDouble(p[1].trim()),
+                Double.parseDouble(p[2].trim()), Double.parseDouble(p[3].trim()), s);
+    }
+
+    /** Clip covering the default window size, so scale can be applied without a layout round-trip. */
+    private static Viewport fullViewportAt(double scale) {
+        String[] wh = Config.getWindowSize().toLowerCase(Locale.ROOT).split("[x,]");
+        double w = 1920;
+        double h = 1080;
+        try {
+            w = Double.parseDouble(wh[0].trim());
+            h = Double.parseDouble(wh[1].trim());
+        } catch (Exception ignore) {
+        }
+        return new Viewport(0, 0, w, h, scale);
+    }
+}
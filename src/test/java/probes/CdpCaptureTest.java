@@ -0,0 +1,31 @@
+package probes;
+
+import org.openqa.selenium.devtools.v142.page.model.Viewport;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CdpCaptureTest {
+
+    @Test
+    public void testClipParsing() {
+        Viewport v = CdpCapture.parseClip(" 10, 20 ,300,400", 0.5);
+        Assert.assertEquals(v.getX().doubleValue(), 10.0);
+        Assert.assertEquals(v.getY().doubleValue(), 20.0);
+        Assert.assertEquals(v.getWidth().doubleValue(), 300.0);
+        Assert.assertEquals(v.getHeight().doubleValue(), 400.0);
+        Assert.assertEquals(v.getScale().doubleValue(), 0.5);
+    }
+
+    @Test
+    public void testNoClipAtFullScaleMeansWholeViewport() {
+        Assert.assertNull(CdpCapture.parseClip("", 1.0));
+        Viewport scaled = CdpCapture.parseClip(null, 0.5);
+        Assert.assertEquals(scaled.getScale().doubleValue(), 0.5);
+        Assert.assertTrue(scaled.getWidth().doubleValue() > 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMalformedClipIsRejected() {
+        CdpCapture.parseClip("1,2,3", 1.0);
+    }
+}
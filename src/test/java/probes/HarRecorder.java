@@ -0,0 +1,309 @@
+package probes;
+
+import Utils.Config;
+import base.DevToolsHub;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.v142.network.Network;
+import org.openqa.selenium.devtools.v142.network.model.Headers;
+import org.openqa.selenium.devtools.v142.network.model.PostDataEntry;
+import org.openqa.selenium.devtools.v142.network.model.Request;
+import org.openqa.selenium.devtools.v142.network.model.RequestId;
+import org.openqa.selenium.devtools.v142.network.model.ResourceTiming;
+import org.openqa.selenium.devtools.v142.network.model.Response;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-test HAR recording fed by the driver's CDP Network events (see {@link DevToolsHub}).
+ *
+ * Each request is kept only while in flight; when it finishes or fails it is queued on its {@link HarWriter},
+ * whose writer thread turns it into a HAR entry and appends it to target/har/&lt;test&gt;_&lt;ts&gt;.har. The CDP
+ * event handlers only update the in-flight map and queue. Response bodies are never fetched. On failure
+ * the file is gzipped and handed back for attaching; passing tests delete it.
+ *
+ * Opt-in: -Dhar.record=true (HAR_RECORD). Knobs: har.maxEntryBytes (default 65536), har.maxEntries (10000),
+ * har.keepPassed (false).
+ */
+public final class HarRecorder {
+
+    private static final Logger logger = LogManager.getLogger(HarRecorder.class);
+
+    private static final int MAX_VALUE_CHARS = 4096;
+    private static final int MAX_POST_CHARS = 8192;
+
+    private static final Map<WebDriver, HarRecorder> ACTIVE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** What we know about a request until loadingFinished / loadingFailed. */
+    private static final class Pending {
+        double wallTimeSec;
+        double startMono;
+        Request request;
+        Response response;
+    }
+
+    private final HarWriter writer;
+    private final Map<RequestId, Pending> inFlight = new ConcurrentHashMap<>();
+    private final List<DevToolsHub.Subscription> subscriptions = new ArrayList<>();
+
+    private HarRecorder(HarWriter writer) {
+        this.writer = writer;
+    }
+
+    public static boolean isEnabled() {
+        return Config.getBoolean("har.record", "HAR_RECORD", false);
+    }
+
+    // =========================================================
+    // LIFECYCLE
+    // =========================================================
+
+    /** Start recording this driver's traffic for {@code testName}. No-op when disabled or without DevTools. */
+    public static void start(WebDriver driver, String testName) {
+        if (driver == null || !isEnabled()) return;
+        DevToolsHub hub = DevToolsHub.forDriver(driver).orElse(null);
+        if (hub == null) return;
+
+        finish(driver, false);   // leftover from a test that never reached teardown
+        try {
+            String safe = testName.replaceAll("[^a-zA-Z0-9_.-]", "_");
+            Path file = Path.of(System.getProperty("user.dir"), "target", "har",
+                    safe + "_" + System.currentTimeMillis() + ".har");
+            HarRecorder r = new HarRecorder(new HarWriter(file, "tilt-ui-tests",
+                    Config.getInt("har.maxEntryBytes", "HAR_MAX_ENTRY_BYTES", 64 * 1024),
+                    Config.getInt("har.maxEntries", "HAR_MAX_ENTRIES", 10_000)));
+
+            hub.enableNetwork();
+            r.subscriptions.add(hub.subscribe(Network.requestWillBeSent(), e -> {
+                Pending prev = r.inFlight.get(e.getRequestId());
+                if (prev != null && e.getRedirectResponse().isPresent()) {
+                    // Same requestId continues after a redirect: close the hop we had
+                    prev.response = e.getRedirectResponse().get();
+                    double end = e.getTimestamp().toJson().doubleValue();
+                    r.writer.enqueue(() -> entry(prev, end, -1, null));
+                }
+                Pending p = new Pending();
+                p.wallTimeSec = e.getWallTime().toJson().doubleValue();
+                p.startMono = e.getTimestamp().toJson().doubleValue();
+                p.request = e.getRequest();
+                r.inFlight.put(e.getRequestId(), p);
+            }));
+            r.subscriptions.add(hub.subscribe(Network.responseReceived(), e -> {
+                Pending p = r.inFlight.get(e.getRequestId());
+                if (p != null) p.response = e.getResponse();
+            }));
+            r.subscriptions.add(hub.subscribe(Network.loadingFinished(), e -> {
+                Pending p = r.inFlight.remove(e.getRequestId());
+                if (p != null) {
+                    double end = e.getTimestamp().toJson().doubleValue();
+                    long size = e.getEncodedDataLength().longValue();
+                    r.writer.enqueue(() -> entry(p, end, size, null));
+                }
+            }));
+            r.subscriptions.add(hub.subscribe(Network.loadingFailed(), e -> {
+                Pending p = r.inFlight.remove(e.getRequestId());
+                if (p != null) {
+                    double end = e.getTimestamp().toJson().doubleValue();
+                    String error = e.getErrorText();
+                    r.writer.enqueue(() -> entry(p, end, -1, error));
+                }
+            }));
+            ACTIVE.put(driver, r);
+            logger.debug("[HAR] recording to {}", file);
+        } catch (Exception e) {
+            logger.debug("[HAR] could not start recording: {}", e.toString());
+        }
+    }
+
+    /**
+     * Stop recording. With {@code keep} (or har.keepPassed) the HAR is closed, gzipped and its path returned;
+     * otherwise the file is deleted. Requests still in flight are not written.
+     */
+    public static Optional<Path> finish(WebDriver driver, boolean keep) {
+        Optional<HarWriter> w = stop(driver);
+        if (w.isEmpty()) return Optional.empty();
+        if (!keep && !Config.getBoolean("har.keepPassed", "HAR_KEEP_PASSED", false)) {
+            w.get().discard();
+            return Optional.empty();
+        }
+        return close(w.get());
+    }
+
+    /**
+     * Detach from the driver's events and hand back the open writer, so the gzip in {@link #close} can run
+     * off the test thread. Empty when this driver was not being recorded.
+     */
+    public static Optional<HarWriter> stop(WebDriver driver) {
+        if (driver == null) return Optional.empty();
+        HarRecorder r = ACTIVE.remove(driver);
+        if (r == null) return Optional.empty();
+        r.subscriptions.forEach(DevToolsHub.Subscription::close);
+        r.subscriptions.clear();
+        r.inFlight.clear();
+        return Optional.of(r.writer);
+    }
+
+    /** Finish and gzip a writer returned by {@link #stop}. */
+    public static Optional<Path> close(HarWriter writer) {
+        try {
+            Path gz = writer.finish();
+            logger.info("[HAR] {} entries → {}", writer.entries(), gz);
+            return Optional.of(gz);
+        } catch (Exception e) {
+            logger.debug("[HAR] could not finish: {}", e.toString());
+            writer.discard();
+            return Optional.empty();
+        }
+    }
+
+    public static boolean isRecording(WebDriver driver) {
+        return driver != null && ACTIVE.containsKey(driver);
+    }
+
+    // ---------- entry building ----------
+
+    private static JsonObject entry(Pending p, double endMono, long transferSize, String error) {
+        Request rq = p.request;
+        Response rs = p.response;
+
+        JsonObject request = new JsonObject();
+        request.addProperty("method", rq.getMethod());
+        request.addProperty("url", cap(rq.getUrl() + rq.getUrlFragment().orElse(""), MAX_VALUE_CHARS));
+        request.addProperty("httpVersion", rs != null ? rs.getProtocol().orElse("") : "");
+        request.add("cookies", new JsonArray());
+        request.add("headers", headers(rq.getHeaders()));
+        request.add("queryString", new JsonArray());
+        byte[] postBody = postBody(rq);
+        if (postBody != null) {
+            JsonObject pd = new JsonObject();
+            pd.addProperty("mimeType", header(rq.getHeaders(), "content-type"));
+            pd.addProperty("text", cap(new String(postBody, StandardCharsets.UTF_8), MAX_POST_CHARS));
+            request.add("postData", pd);
+        }
+        request.addProperty("headersSize", -1);
+        request.addProperty("bodySize", postBody != null ? postBody.length : 0);
+
+        JsonObject content = new JsonObject();
+        content.addProperty("size", Math.max(0, transferSize));
+        content.addProperty("mimeType", rs != null ? rs.getMimeType() : "");
+
+        JsonObject response = new JsonObject();
+        response.addProperty("status", rs != null ? rs.getStatus() : 0);
+        response.addProperty("statusText", rs != null ? rs.getStatusText() : "");
+        response.addProperty("httpVersion", rs != null ? rs.getProtocol().orElse("") : "");
+        response.add("cookies", new JsonArray());
+        response.add("headers", rs != null ? headers(rs.getHeaders()) : new JsonArray());
+        response.add("content", content);
+        response.addProperty("redirectURL", rs != null ? header(rs.getHeaders(), "location") : "");
+        response.addProperty("headersSize", -1);
+        response.addProperty("bodySize", transferSize);
+        if (error != null) response.addProperty("_error", error);
+
+        double totalMs = Math.max(0, (endMono - p.startMono) * 1000.0);
+        JsonObject timings = timings(rs != null ? rs.getTiming().orElse(null) : null, endMono, totalMs);
+
+        JsonObject e = new JsonObject();
+        e.addProperty("startedDateTime", Instant.ofEpochMilli((long) (p.wallTimeSec * 1000)).toString());
+        e.addProperty("time", sum(timings));
+        e.add("request", request);
+        e.add("response", response);
+        e.add("cache", new JsonObject());
+        e.add("timings", timings);
+        if (rs != null) rs.getRemoteIPAddress().ifPresent(ip -> e.addProperty("serverIPAddress", ip));
+        return e;
+    }
+
+    /** HAR timings from CDP ResourceTiming (ms offsets from requestTime; -1 = not applicable). */
+    static JsonObject timings(ResourceTiming t, double endMono, double totalMs) {
+        JsonObject o = new JsonObject();
+        if (t == null) {
+            o.addProperty("blocked", -1);
+            o.addProperty("dns", -1);
+            o.addProperty("connect", -1);
+            o.addProperty("ssl", -1);
+            o.addProperty("send", 0);
+            o.addProperty("wait", round(totalMs));
+            o.addProperty("receive", 0);
+            return o;
+        }
+        double dnsStart = t.getDnsStart().doubleValue();
+        double connectStart = t.getConnectStart().doubleValue();
+        double sslStart = t.getSslStart().doubleValue();
+        double sendStart = t.getSendStart().doubleValue();
+        double sendEnd = t.getSendEnd().doubleValue();
+        double headersEnd = t.getReceiveHeadersEnd().doubleValue();
+        double blocked = dnsStart >= 0 ? dnsStart : connectStart >= 0 ? connectStart : sendStart;
+        double receive = (endMono - t.getRequestTime().doubleValue()) * 1000.0 - headersEnd;
+
+        o.addProperty("blocked", round(Math.max(0, blocked)));
+        o.addProperty("dns", dnsStart >= 0 ? round(t.getDnsEnd().doubleValue() - dnsStart) : -1);
+        o.addProperty("connect", connectStart >= 0 ? round(t.getConnectEnd().doubleValue() - connectStart) : -1);
+        o.addProperty("ssl", sslStart >= 0 ? round(t.getSslEnd().doubleValue() - sslStart) : -1);
+        o.addProperty("send", round(Math.max(0, sendEnd - sendStart)));
+        o.addProperty("wait", round(Math.max(0, headersEnd - sendEnd)));
+        o.addProperty("receive", round(Math.max(0, receive)));
+        return o;
+    }
+
+    private static double sum(JsonObject timings) {
+        double total = 0;
+        for (String k : new String[]{"blocked", "dns", "connect", "send", "wait", "receive"}) {
+            double v = timings.get(k).getAsDouble();
+            if (v > 0) total += v;   // ssl is already inside connect
+        }
+        return round(total);
+    }
+
+    private static JsonArray headers(Headers h) {
+        JsonArray arr = new JsonArray();
+        if (h == null) return arr;
+        for (Map.Entry<String, Object> kv : h.toJson().entrySet()) {
+            JsonObject o = new JsonObject();
+            o.addProperty("name", kv.getKey());
+            o.addProperty("value", cap(String.valueOf(kv.getValue()), MAX_VALUE_CHARS));
+            arr.add(o);
+        }
+        return arr;
+    }
+
+    private static String header(Headers h, String name) {
+        if (h == null) return "";
+        for (Map.Entry<String, Object> kv : h.toJson().entrySet()) {
+            if (kv.getKey().equalsIgnoreCase(name)) return String.valueOf(kv.getValue());
+        }
+        return "";
+    }
+
+    /** Request body from its base64 postDataEntries (the plain postData field is deprecated); null when there is none. */
+    private static byte[] postBody(Request rq) {
+        List<PostDataEntry> entries = rq.getPostDataEntries().orElse(Collections.emptyList());
+        if (entries.isEmpty()) return null;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (PostDataEntry e : entries) {
+            e.getBytes().ifPresent(b64 -> out.writeBytes(Base64.getDecoder().decode(b64)));
+        }
+        return out.toByteArray();
+    }
+
+    private static String cap(String s, int max) {
+        return s == null || s.length() <= max ? s : s.substring(0, max) + "…";
+    }
+
+    private static double round(double ms) {
+        return Math.round(ms * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,208 @@
+package probes;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only HAR 1.2 file: the log header is written up front, entries are appended as they complete,
+ * and the closing brackets are written on {@link #finish}. Only entries not yet written are held in memory.
+ *
+ * {@link #enqueue} is for CDP event handlers: it only queues the entry; one shared "har-writer" thread builds,
+ * serializes and writes queued entries and flushes once per batch, so the DevTools event thread never
+ * touches the disk. {@link #finish} writes whatever is still queued first.
+ *
+ * Entries larger than {@code maxEntryBytes} lose their headers, cookies and post data (marked with
+ * "_truncated": true); after {@code maxEntries} further entries are dropped and only counted.
+ */
+public final class HarWriter implements AutoCloseable {
+
+    private static final Gson GSON = new Gson();
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "har-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Path file;
+    private final int maxEntryBytes;
+    private final int maxEntries;
+    private BufferedWriter out;
+    private int written;
+    private int truncated;
+    private int dropped;
+    private final ConcurrentLinkedQueue<Supplier<JsonObject>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile boolean closed;
+
+    public HarWriter(Path file, String creatorName, int maxEntryBytes, int maxEntries) throws IOException {
+        this.file = file;
+        this.maxEntryBytes = maxEntryBytes;
+        this.maxEntries = maxEntries;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+
+        JsonObject creator = new JsonObject();
+        creator.addProperty("name", creatorName);
+        creator.addProperty("version", "1.0");
+        out.write("{\"log\":{\"version\":\"1.2\",\"creator\":" + GSON.toJson(creator) + ",\"pages\":[],\"entries\":[\n");
+        out.flush();
+    }
+
+    /** Serialize, append and flush one entry on the caller's thread; returns false once closed or full. */
+    public synchronized boolean append(JsonObject entry) {
+        boolean ok = write(entry);
+        if (ok) flushQuietly();
+        return ok;
+    }
+
+    /**
+     * Queue an entry for the shared writer thread; {@code entry} is built there too. Returns false once the
+     * writer is closed. Never blocks.
+     */
+    public boolean enqueue(Supplier<JsonObject> entry) {
+        if (closed) return false;
+        queue.add(entry);
+        if (drainScheduled.compareAndSet(false, true)) {
+            WRITER.execute(() -> {
+                drainScheduled.set(false);
+                synchronized (this) {
+                    drain();
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Close the entry list and gzip the file next to itself ({@code name.har.gz}); the plain file is removed.
+     * Returns the gzip path.
+     */
+    public synchronized Path finish() throws IOException {
+        drain();
+        closed = true;
+        if (out == null) throw new IOException("HAR writer already closed: " + file);
+        out.write("\n]");
+        if (truncated > 0 || dropped > 0) {
+            out.write(",\"_comment\":\"" + truncated + " entries truncated, " + dropped + " dropped\"");
+        }
+        out.write("}}\n");
+        out.close();
+        out = null;
+
+        Path gz = file.resolveSibling(file.getFileName() + ".gz");
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream zo = new GZIPOutputStream(Files.newOutputStream(gz), 64 * 1024)) {
+            in.transferTo(zo);
+        }
+        Files.deleteIfExists(file);
+        return gz;
+    }
+
+    /** Stop writing and delete the file (passing tests). */
+    public synchronized void discard() {
+        closed = true;
+        queue.clear();
+        closeQuietly();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignore) {
+        }
+    }
+
+    public synchronized int entries() {
+        return written;
+    }
+
+    @Override
+    public void close() {
+        discard();
+    }
+
+    // ---------- internals ----------
+
+    /** Write everything queued so far, then flush once. Caller holds the lock. */
+    private void drain() {
+        boolean any = false;
+        Supplier<JsonObject> next;
+        while ((next = queue.poll()) != null) {
+            JsonObject entry;
+            try {
+                entry = next.get();
+            } catch (RuntimeException e) {
+                continue;   // a malformed event must not stop the rest
+            }
+            any |= write(entry);
+        }
+        if (any) flushQuietly();
+    }
+
+    private boolean write(JsonObject entry) {
+        if (out == null) return false;
+        if (written >= maxEntries) {
+            dropped++;
+            return false;
+        }
+        String json = GSON.toJson(entry);
+        if (json.length() > maxEntryBytes) {
+            json = GSON.toJson(shrink(entry));
+            truncated++;
+        }
+        try {
+            if (written > 0) out.write(",\n");
+            out.write(json);
+            written++;
+            return true;
+        } catch (IOException e) {
+            closeQuietly();
+            return false;
+        }
+    }
+
+    private void flushQuietly() {
+        if (out == null) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            closeQuietly();
+        }
+    }
+
+    private static JsonObject shrink(JsonObject entry) {
+        JsonObject e = entry.deepCopy();
+        for (String part : new String[]{"request", "response"}) {
+            if (!e.has(part)) continue;
+            JsonObject o = e.getAsJsonObject(part);
+            o.add("headers", new JsonArray());
+            o.add("cookies", new JsonArray());
+            o.remove("postData");
+            o.addProperty("headersSize", -1);
+        }
+        e.addProperty("_truncated", true);
+        return e;
+    }
+
+    private void closeQuietly() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException ignore) {
+        }
+        out = null;
+    }
+}
@@ -0,0 +1,89 @@
+package probes;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+public class HarWriterTest {
+
+    private static JsonObject entry(String url, int headerChars) {
+        JsonObject h = new JsonObject();
+        h.addProperty("name", "x-big");
+        h.addProperty("value", "v".repeat(headerChars));
+        JsonArray headers = new JsonArray();
+        headers.add(h);
+        JsonObject req = new JsonObject();
+        req.addProperty("method", "GET");
+        req.addProperty("url", url);
+        req.add("headers", headers);
+        JsonObject e = new JsonObject();
+        e.add("request", req);
+        return e;
+    }
+
+    @Test
+    public void testStreamsEntriesCapsAndGzips() throws Exception {
+        Path dir = Files.createTempDirectory("har");
+        HarWriter w = new HarWriter(dir.resolve("t.har"), "unit", 2_000, 2);
+        Assert.assertTrue(w.append(entry("https://a/1", 10)));
+        Assert.assertTrue(w.append(entry("https://a/2", 5_000)));
+        Assert.assertFalse(w.append(entry("https://a/3", 10)), "over maxEntries");
+        Path gz = w.finish();
+
+        Assert.assertFalse(Files.exists(dir.resolve("t.har")), "plain file removed");
+        JsonObject log;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(gz))) {
+            log = JsonParser.parseReader(new InputStreamReader(in, StandardCharsets.UTF_8)).getAsJsonObject().getAsJsonObject("log");
+        }
+        Assert.assertEquals(log.get("version").getAsString(), "1.2");
+        JsonArray entries = log.getAsJsonArray("entries");
+        Assert.assertEquals(entries.size(), 2);
+        JsonObject big = entries.get(1).getAsJsonObject();
+        Assert.assertTrue(big.get("_truncated").getAsBoolean());
+        Assert.assertEquals(big.getAsJsonObject("request").getAsJsonArray("headers").size(), 0);
+        Assert.assertEquals(big.getAsJsonObject("request").get("url").getAsString(), "https://a/2");
+        Assert.assertTrue(log.get("_comment").getAsString().contains("1 dropped"));
+    }
+
+    @Test
+    public void testQueuedEntriesAreWrittenBeforeFinish() throws Exception {
+        Path dir = Files.createTempDirectory("har");
+        HarWriter w = new HarWriter(dir.resolve("q.har"), "unit", 10_000, 100);
+        for (int i = 0; i < 50; i++) {
+            final int n = i;
+            Assert.assertTrue(w.enqueue(() -> entry("https://a/" + n, 10)));
+        }
+        Path gz = w.finish();
+        Assert.assertFalse(w.enqueue(() -> entry("https://a/late", 10)), "closed writer refuses entries");
+
+        JsonArray entries;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(gz))) {
+            entries = JsonParser.parseReader(new InputStreamReader(in, StandardCharsets.UTF_8)).getAsJsonObject()
+                    .getAsJsonObject("log").getAsJsonArray("entries");
+        }
+        Assert.assertEquals(entries.size(), 50);
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals(entries.get(i).getAsJsonObject().getAsJsonObject("request").get("url").getAsString(),
+                    "https://a/" + i, "queue order kept");
+        }
+    }
+
+    @Test
+    public void testDiscardDeletesFile() throws Exception {
+        Path file = Files.createTempDirectory("har").resolve("p.har");
+        HarWriter w = new HarWriter(file, "unit", 10_000, 10);
+        w.append(entry("https://a/1", 10));
+        w.discard();
+        Assert.assertFalse(Files.exists(file));
+        Assert.assertFalse(w.append(entry("https://a/2", 10)));
+    }
+}
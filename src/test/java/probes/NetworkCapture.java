@@ -1,10 +1,9 @@
 package probes;
 
+import Utils.Config;
+import base.DevToolsHub;
 import io.qameta.allure.Allure;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.devtools.Command;
-import org.openqa.selenium.devtools.DevTools;
-import org.openqa.selenium.devtools.HasDevTools;
 import org.openqa.selenium.devtools.v142.network.Network;              // ← DevTools v142
 import org.openqa.selenium.devtools.v142.network.model.RequestId;
 import org.openqa.selenium.devtools.v142.network.model.Response;
@@ -12,22 +11,68 @@ import org.openqa.selenium.devtools.v142.network.model.Response;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
+/**
+ * CDP capture of filtered responses for evidence checks.
+ *
+ * The event listener only records response metadata into a bounded ring buffer
+ * (-Dnetcap.capacity / NETCAP_CAPACITY, default 200); bodies are fetched lazily with
+ * Network.getResponseBody from the caller's thread when a query needs them, newest first,
+ * and cached on the entry. A body is only requested once Chrome reports loadingFinished for it
+ * (before that getResponseBody fails), so an early query skips the entry and a later one retries it.
+ * Nothing is attached to Allure unless {@link #attachEvidence} is called, which callers do on failure.
+ *
+ * Runs on the driver's {@link DevToolsHub}; close() only detaches this capture's subscriber.
+ */
 public final class NetworkCapture implements AutoCloseable {
 
-    private final DevTools dt;
+    private static final int CAPACITY = Math.max(1, Config.getInt("netcap.capacity", "NETCAP_CAPACITY", 200));
+    /** Bodies longer than this are truncated in the cache (and in attachments). */
+    private static final int MAX_BODY_CHARS = Math.max(1024, Config.getInt("netcap.maxBodyChars", "NETCAP_MAX_BODY_CHARS", 512 * 1024));
+
+    /** One captured response; the body is filled in on first demand. */
+    static final class Entry {
+        final RequestId requestId;
+        final String url;
+        final int status;
+        final String mimeType;
+        final long atMillis;
+        volatile String body;            // null until fetched
+        volatile boolean finished;       // loadingFinished seen: the body can be fetched
+        volatile boolean bodyUnavailable; // loadingFailed, or the fetch failed after loadingFinished
+
+        Entry(RequestId requestId, String url, int status, String mimeType, long atMillis) {
+            this.requestId = requestId;
+            this.url = url;
+            this.status = status;
+            this.mimeType = mimeType;
+            this.atMillis = atMillis;
+        }
+
+        String meta() {
+            return status + " " + url;
+        }
+    }
+
+    private final DevToolsHub hub;
     private final Predicate<String> urlFilter;
-    private final Map<RequestId, Response> responses = new ConcurrentHashMap<>();
-    private final Map<RequestId, String> bodies     = new ConcurrentHashMap<>();
-    private volatile boolean enabled = false;
+    private final ArrayDeque<Entry> ring = new ArrayDeque<>();   // guarded by itself
+    private final Map<RequestId, Entry> byId = new HashMap<>();   // guarded by ring
+    private final List<DevToolsHub.Subscription> subscriptions = new ArrayList<>();
+    private volatile int seen = 0;
 
-    private NetworkCapture(DevTools dt, Predicate<String> urlFilter) {
-        this.dt = dt;
+    private NetworkCapture(DevToolsHub hub, Predicate<String> urlFilter) {
+        this.hub = hub;
         this.urlFilter = urlFilter;
     }
 
@@ -35,126 +80,171 @@ public final class NetworkCapture implements AutoCloseable {
      * Start CDP capture for filtered URLs; no-op (empty Optional) if driver doesn’t support DevTools.
      */
     public static Optional<NetworkCapture> start(WebDriver driver, Predicate<String> urlFilter) {
-        if (!(driver instanceof HasDevTools)) {
+        Optional<DevToolsHub> hubOpt = DevToolsHub.forDriver(driver);
+        if (hubOpt.isEmpty()) {
             return Optional.empty();
         }
+        DevToolsHub hub = hubOpt.get();
+        hub.enableNetwork();
 
-        DevTools dt = ((HasDevTools) driver).getDevTools();
-        dt.createSession();
-
-        // Version-agnostic enable: resolve a suitable Network.enable(…) at runtime
-        dt.send(enableNetworkCmd());
-
-        NetworkCapture cap = new NetworkCapture(dt, urlFilter);
-        cap.enabled = true;
-
-        dt.addListener(Network.responseReceived(), evt -> {
+        NetworkCapture cap = new NetworkCapture(hub, urlFilter);
+        // Metadata only: never call back into DevTools from the event thread.
+        cap.subscriptions.add(hub.subscribe(Network.responseReceived(), evt -> {
             Response r = evt.getResponse();
             if (!cap.urlFilter.test(r.getUrl())) {
                 return;
             }
-
-            cap.responses.put(evt.getRequestId(), r);
-
-            try {
-                var bodyResp = dt.send(Network.getResponseBody(evt.getRequestId()));
-                String body = bodyResp.getBase64Encoded()
-                        ? new String(Base64.getDecoder().decode(bodyResp.getBody()), StandardCharsets.UTF_8)
-                        : bodyResp.getBody();
-
-                cap.bodies.put(evt.getRequestId(), body);
-
-                String meta = "[API] " + r.getStatus() + " " + r.getUrl();
-                System.out.println(meta);
-                Allure.addAttachment("network: " + meta, "application/json", body, ".json");
-            } catch (Exception ignored) {
-                // Some resources may not have retrievable bodies (e.g. images, redirects, etc.).
-            }
-        });
+            cap.record(new Entry(evt.getRequestId(), r.getUrl(), r.getStatus(), r.getMimeType(), System.currentTimeMillis()));
+        }));
+        cap.subscriptions.add(hub.subscribe(Network.loadingFinished(), evt -> {
+            Entry e = cap.lookup(evt.getRequestId());
+            if (e != null) e.finished = true;
+        }));
+        cap.subscriptions.add(hub.subscribe(Network.loadingFailed(), evt -> {
+            Entry e = cap.lookup(evt.getRequestId());
+            if (e != null) e.bodyUnavailable = true;
+        }));
 
         return Optional.of(cap);
     }
 
     /**
-     * Wait until any filtered response arrives within the given timeout.
+     * Wait until any filtered response has finished loading (its body can be read) within the given timeout.
      */
     public boolean waitForAny(Duration timeout) {
         Instant end = Instant.now().plus(timeout);
         while (Instant.now().isBefore(end)) {
-            if (!responses.isEmpty()) {
+            if (anyFinished()) {
                 return true;
             }
             sleep(120);
         }
-        return !responses.isEmpty();
+        return anyFinished();
     }
 
     /**
      * True if any captured body (case-insensitive) contains the given text.
+     * Bodies are fetched newest first and only until the first hit.
      */
     public boolean anyBodyContainsIgnoreCase(String needle) {
-        String n = needle.toLowerCase();
-        return bodies.values().stream().anyMatch(b -> b != null && b.toLowerCase().contains(n));
+        String n = needle.toLowerCase(Locale.ROOT);
+        for (Entry e : newestFirst()) {
+            String b = bodyOf(e);
+            if (b != null && b.toLowerCase(Locale.ROOT).contains(n)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Responses currently held (at most the ring capacity). */
+    public int size() {
+        synchronized (ring) {
+            return ring.size();
+        }
+    }
+
+    /** Responses matched since start, including ones evicted from the ring. */
+    public int seen() {
+        return seen;
+    }
+
+    /**
+     * Attach the captured responses to Allure: one index of status/url lines plus the bodies of
+     * the newest {@code maxBodies} entries (fetched now if not already). Call on failure.
+     */
+    public void attachEvidence(String title, int maxBodies) {
+        List<Entry> entries = newestFirst();
+        StringBuilder index = new StringBuilder()
+                .append("captured ").append(entries.size()).append(" of ").append(seen)
+                .append(" matching responses (newest first)\n");
+        for (Entry e : entries) {
+            index.append(e.meta()).append('\n');
+        }
+        Allure.addAttachment("network: " + title, "text/plain", index.toString(), ".txt");
+
+        int n = 0;
+        for (Entry e : entries) {
+            if (n >= maxBodies) {
+                break;
+            }
+            String body = bodyOf(e);
+            if (body == null) {
+                continue;
+            }
+            boolean json = e.mimeType != null && e.mimeType.contains("json");
+            Allure.addAttachment("network: " + e.meta(), json ? "application/json" : "text/plain", body, json ? ".json" : ".txt");
+            n++;
+        }
     }
 
     @Override
     public void close() {
-        if (!enabled) {
-            return;
+        // the session and Network domain stay with the driver's hub
+        subscriptions.forEach(DevToolsHub.Subscription::close);
+        subscriptions.clear();
+    }
+
+    // ---------- internals ----------
+
+    private void record(Entry e) {
+        synchronized (ring) {
+            if (ring.size() >= CAPACITY) {
+                Entry old = ring.pollFirst();
+                byId.remove(old.requestId, old);
+            }
+            ring.addLast(e);
+            byId.put(e.requestId, e);
+            seen++;
         }
-        try {
-            dt.send(Network.disable());
-        } catch (Exception ignore) {
+    }
+
+    private Entry lookup(RequestId id) {
+        synchronized (ring) {
+            return byId.get(id);
         }
-        enabled = false;
     }
 
-    // ---------- internals ----------
+    private boolean anyFinished() {
+        synchronized (ring) {
+            for (Entry e : ring) {
+                if (e.finished) return true;
+            }
+            return false;
+        }
+    }
+
+    private List<Entry> newestFirst() {
+        synchronized (ring) {
+            List<Entry> out = new ArrayList<>(ring);
+            Collections.reverse(out);
+            return out;
+        }
+    }
 
     /**
-     * Tries to resolve a suitable Network.enable(…) method for the current DevTools version.
-     * We don't assume a specific signature – instead we:
-     *  - find any static method named "enable" that returns Command<?>
-     *  - build default arguments (Optional.empty(), false, null, etc.) based on parameter types
+     * Cached body, fetching it on first use; null while the response is still loading (not cached, so a later
+     * call retries) or when Chrome cannot return it (failed load, redirects, evicted, binary).
      */
-    private static Command<?> enableNetworkCmd() {
+    private String bodyOf(Entry e) {
+        String b = e.body;
+        if (b != null || e.bodyUnavailable || !e.finished) {
+            return b;
+        }
         try {
-            for (var m : Network.class.getMethods()) {
-                if (!m.getName().equals("enable")) {
-                    continue;
-                }
-                if (!Command.class.isAssignableFrom(m.getReturnType())) {
-                    continue;
-                }
-
-                Class<?>[] paramTypes = m.getParameterTypes();
-                Object[] args = new Object[paramTypes.length];
-
-                for (int i = 0; i < paramTypes.length; i++) {
-                    Class<?> p = paramTypes[i];
-
-                    if (Optional.class.isAssignableFrom(p)) {
-                        // Most devtools enable() params are Optional<Something>; empty is a safe default
-                        args[i] = Optional.empty();
-                    } else if (p == boolean.class || p == Boolean.class) {
-                        args[i] = Boolean.FALSE;
-                    } else if (Number.class.isAssignableFrom(p) || p.isPrimitive()
-                            && (p == int.class || p == long.class || p == double.class)) {
-                        // Default numeric params to zero
-                        args[i] = 0;
-                    } else {
-                        // Fallback: null for anything else
-                        args[i] = null;
-                    }
-                }
-
-                return (Command<?>) m.invoke(null, args);
+            var bodyResp = hub.send(Network.getResponseBody(e.requestId));
+            b = bodyResp.getBase64Encoded()
+                    ? new String(Base64.getDecoder().decode(bodyResp.getBody()), StandardCharsets.UTF_8)
+                    : bodyResp.getBody();
+            if (b != null && b.length() > MAX_BODY_CHARS) {
+                b = b.substring(0, MAX_BODY_CHARS) + "\n…[truncated]";
             }
-
-            throw new RuntimeException("No suitable Network.enable method found in DevTools Network class");
-        } catch (Exception e) {
-            throw new RuntimeException("Cannot resolve Network.enable for this DevTools version", e);
+            e.body = b;
+        } catch (Exception ignored) {
+            // Finished but not retrievable (e.g. images, redirects, evicted): that will not change
+            e.bodyUnavailable = true;
         }
+        return b;
     }
 
     private static void sleep(long ms) {
@@ -0,0 +1,220 @@
+package probes;
+
+import Utils.Config;
+import base.DevToolsHub;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.v142.network.Network;
+import org.openqa.selenium.devtools.v142.network.model.RequestId;
+import org.openqa.selenium.devtools.v142.network.model.ResourceType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Browser-side network-idle detection from CDP Network events (requestWillBeSent / loadingFinished /
+ * loadingFailed), one tracker per driver.
+ *
+ * Unlike the window.__pendingRequests shim in WaitUtils, nothing has to be injected into the page:
+ * requests fired during navigation, before app scripts run, or from a fresh document are all counted.
+ * Long-lived channels (WebSocket, EventSource) and data:/blob: URLs are ignored, and a request that has
+ * been in flight longer than net.idle.maxRequestAgeMs (default 15000) is treated as background traffic
+ * (long-poll, analytics beacon) so it cannot hold the page "busy" forever.
+ *
+ * DriverManager attaches the tracker when a driver is acquired, so traffic started before the first
+ * idle wait (navigation, a click's XHRs) is already counted; {@link #forDriver} only attaches lazily for
+ * drivers created elsewhere.
+ *
+ * Knobs: -Dnet.idle.cdp=false to disable, -Dnet.idle.ignore=&lt;regex&gt; for extra URLs to skip.
+ */
+public final class NetworkIdleTracker implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(NetworkIdleTracker.class);
+
+    /** Drivers are compared by identity; entries disappear with the driver. */
+    private static final Map<WebDriver, NetworkIdleTracker> TRACKERS =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final Pattern DEFAULT_IGNORE = Pattern.compile(
+            "^(data|blob|chrome-extension):|google-analytics\\.com|googletagmanager\\.com|doubleclick\\.net" +
+            "|hotjar\\.com|segment\\.io|sentry\\.io|intercom\\.io|fullstory\\.com");
+
+    private final Pattern extraIgnore;
+    private final long maxRequestAgeNanos;
+
+    private final Map<RequestId, Long> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final AtomicLong lastActivityNanos = new AtomicLong(System.nanoTime());
+    private final AtomicLong requestsSeen = new AtomicLong();
+    private final DevToolsHub hub;
+    private final List<DevToolsHub.Subscription> subscriptions = new ArrayList<>();
+    private volatile boolean open = true;
+
+    private NetworkIdleTracker(DevToolsHub hub) {
+        this.hub = hub;
+        String extra = Config.get("net.idle.ignore", "NET_IDLE_IGNORE", "");
+        this.extraIgnore = extra.isBlank() ? null : Pattern.compile(extra);
+        this.maxRequestAgeNanos = Duration.ofMillis(
+                Config.getInt("net.idle.maxRequestAgeMs", "NET_IDLE_MAX_REQUEST_AGE_MS", 15_000)).toNanos();
+    }
+
+    public static boolean isEnabled() {
+        return Config.getBoolean("net.idle.cdp", "NET_IDLE_CDP", true);
+    }
+
+    // =========================================================
+    // ATTACH / LOOKUP
+    // =========================================================
+
+    /**
+     * Tracker for this driver, attaching on first use. Empty when disabled, when the driver has no
+     * DevTools (remote grid, non-Chromium) or the CDP session cannot be opened.
+     */
+    public static Optional<NetworkIdleTracker> forDriver(WebDriver driver) {
+        if (driver == null || !isEnabled()) return Optional.empty();
+        synchronized (TRACKERS) {
+            NetworkIdleTracker t = TRACKERS.get(driver);
+            if (t != null && t.isLive()) return Optional.of(t);
+            if (t != null) t.close();
+            try {
+                DevToolsHub hub = DevToolsHub.forDriver(driver).orElse(null);
+                if (hub == null) return Optional.empty();
+                t = attach(hub);
+                TRACKERS.put(driver, t);
+                return Optional.of(t);
+            } catch (Exception e) {
+                logger.debug("[NetIdle] CDP tracker unavailable: {}", e.toString());
+                return Optional.empty();
+            }
+        }
+    }
+
+    /** Already-attached tracker for this driver, without attaching one. */
+    public static Optional<NetworkIdleTracker> peek(WebDriver driver) {
+        if (driver == null) return Optional.empty();
+        NetworkIdleTracker t = TRACKERS.get(driver);
+        return t != null && t.isLive() ? Optional.of(t) : Optional.empty();
+    }
+
+    /** Stop tracking this driver (e.g. before it is quit). */
+    public static void detach(WebDriver driver) {
+        if (driver == null) return;
+        NetworkIdleTracker t = TRACKERS.remove(driver);
+        if (t != null) t.close();
+    }
+
+    private static NetworkIdleTracker attach(DevToolsHub hub) {
+        hub.enableNetwork();
+
+        NetworkIdleTracker t = new NetworkIdleTracker(hub);
+        t.subscriptions.add(hub.subscribe(Network.requestWillBeSent(), e -> {
+            if (!t.open) return;
+            ResourceType type = e.getType().orElse(null);
+            if (type == ResourceType.WEBSOCKET || type == ResourceType.EVENTSOURCE) return;
+            if (t.ignored(e.getRequest().getUrl())) return;
+            // Redirects re-use the requestId: only the first sighting counts.
+            if (t.inFlight.putIfAbsent(e.getRequestId(), System.nanoTime()) == null) {
+                t.inFlightCount.incrementAndGet();
+                t.requestsSeen.incrementAndGet();
+            }
+            t.touch();
+        }));
+        t.subscriptions.add(hub.subscribe(Network.loadingFinished(), e -> t.done(e.getRequestId())));
+        t.subscriptions.add(hub.subscribe(Network.loadingFailed(), e -> t.done(e.getRequestId())));
+        logger.debug("[NetIdle] CDP network-idle tracker attached");
+        return t;
+    }
+
+    // =========================================================
+    // QUERIES
+    // =========================================================
+
+    /** Requests currently in flight (including ones old enough to be treated as background). */
+    public int inFlight() {
+        return inFlightCount.get();
+    }
+
+    public long requestsSeen() {
+        return requestsSeen.get();
+    }
+
+    /** True when no foreground request is pending and the network has been quiet for {@code quietPeriod}. */
+    public boolean isIdle(Duration quietPeriod) {
+        long now = System.nanoTime();
+        if (inFlightCount.get() > 0 && foregroundInFlight(now) > 0) return false;
+        return now - lastActivityNanos.get() >= quietPeriod.toNanos();
+    }
+
+    /**
+     * Block until the network has been idle for {@code quietPeriod}, or {@code timeout} elapses.
+     * Purely local (no WebDriver round-trips). Returns false on timeout.
+     */
+    public boolean awaitIdle(Duration quietPeriod, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            if (isIdle(quietPeriod)) return true;
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                logger.debug("[NetIdle] not idle after {}ms ({} in flight)", timeout.toMillis(), inFlightCount.get());
+                return false;
+            }
+            try {
+                Thread.sleep(Math.max(1L, Math.min(25L, left / 1_000_000L)));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!open) return;
+        open = false;
+        subscriptions.forEach(DevToolsHub.Subscription::close);
+        subscriptions.clear();
+        inFlight.clear();
+        inFlightCount.set(0);
+    }
+
+    // ---------- internals ----------
+
+    /** Open and still fed by a live hub (the hub closes when the driver is quit or released). */
+    private boolean isLive() {
+        return open && hub.isOpen();
+    }
+
+    private void done(RequestId id) {
+        if (inFlight.remove(id) != null) {
+            inFlightCount.decrementAndGet();
+            touch();
+        }
+    }
+
+    private void touch() {
+        lastActivityNanos.set(System.nanoTime());
+    }
+
+    private int foregroundInFlight(long now) {
+        int n = 0;
+        for (Long started : inFlight.values()) {
+            if (now - started < maxRequestAgeNanos) n++;
+        }
+        return n;
+    }
+
+    private boolean ignored(String url) {
+        if (url == null) return true;
+        return DEFAULT_IGNORE.matcher(url).find() || (extraIgnore != null && extraIgnore.matcher(url).find());
+    }
+}
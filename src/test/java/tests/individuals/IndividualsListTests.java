@@ -5,6 +5,8 @@ import Utils.MailSlurpUtils;
 import Utils.StripeCheckoutHelper;
 import Utils.WaitUtils;
 import base.BaseTest;
+import base.DevToolsHub;
+import base.RequestBlocker;
 import com.mailslurp.models.Email;
 import com.mailslurp.models.EmailPreview;
 import com.mailslurp.models.InboxDto;
@@ -12,9 +14,7 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.devtools.DevTools;
 import org.openqa.selenium.devtools.HasDevTools;
-import org.openqa.selenium.devtools.v142.network.Network;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
@@ -953,17 +953,12 @@ public class IndividualsListTests extends BaseTest {
         String email = emails.get(0);
 
         // --- Begin CDP: block the reminder endpoint so the request fails ---
-        DevTools devTools = ((HasDevTools) driver()).getDevTools();
-        devTools.createSession();
-        devTools.send(Network.enable(
-                Optional.of(10_000_000),  // maxTotalBufferSize (10 MB, pick whatever is sane)
-                Optional.empty(),         // maxResourceBufferSize
-                Optional.empty(),         // maxPostDataSize
-                Optional.empty(),         // captureNetworkRequests (let Chrome default)
-                Optional.empty()          // reportRawHeaders (let Chrome default)
-        ));
-        // Tweak patterns if your endpoint differs (e.g., "/api/*reminder*", "/send_reminder")
-        devTools.send(Network.setBlockedURLs(List.of("*/reminder*", "*/send_reminder*")));
+        if (DevToolsHub.forDriver(driver()).isEmpty()) {
+            throw new SkipException("DevTools not available for this driver");
+        }
+        // Tweak patterns if your endpoint differs (e.g., "/api/*reminder*", "/send_reminder").
+        // Added on top of any driver-level blocklist (setBlockedURLs replaces the whole list).
+        AutoCloseable reminderBlock = RequestBlocker.blockAlso(driver(), List.of("*/reminder*", "*/send_reminder*"));
 
 
         try {
@@ -990,10 +985,8 @@ public class IndividualsListTests extends BaseTest {
             );
 
         } finally {
-            // Always unblock + disable CDP to avoid side effects on later tests
-            try { devTools.send(Network.setBlockedURLs(List.of())); } catch (Exception ignore) {}
-            try { devTools.send(Network.disable()); } catch (Exception ignore) {}
-            try { devTools.close(); } catch (Exception ignore) {}
+            // Always unblock to avoid side effects on later tests (the session belongs to the driver's hub)
+            try { reminderBlock.close(); } catch (Exception ignore) {}
         }
     }
 
@@ -2,13 +2,14 @@ package tests.teams;
 
 import Utils.*;
 import base.BaseTest;
+import base.DevToolsHub;
 import com.mailslurp.clients.ApiException;
 import com.mailslurp.models.Email;
 import com.mailslurp.models.InboxDto;
 import org.openqa.selenium.*;
 import org.openqa.selenium.NoSuchElementException;
-import org.openqa.selenium.devtools.DevTools;
 import org.openqa.selenium.devtools.v142.network.Network;
+import org.openqa.selenium.devtools.v142.network.model.NetworkConditions;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
@@ -1460,19 +1461,14 @@ public class TeamAssessmentPurchaseAndAssignment extends BaseTest {
         // ----- throttle network via DevTools (best-effort) -----
         step("Simulate slow network (best-effort via DevTools)");
         boolean networkThrottled = false;
-        DevTools devTools = null;
+        DevToolsHub devTools = null;
         try {
-            devTools = ((org.openqa.selenium.devtools.HasDevTools) driver()).getDevTools();
-            devTools.createSession();
-            devTools.send(Network.enable(
-                    Optional.of(50_000_000),   // maxTotalBufferSize
-                    Optional.empty(),         // maxResourceBufferSize
-                    Optional.empty(),         // maxPostDataSize
-                    Optional.of(true),        // captureNetworkRequests
-                    Optional.of(true)         // durable messages
-            ));
-            devTools.send(Network.emulateNetworkConditions(
-                    false,
+            devTools = DevToolsHub.forDriver(driver())
+                    .orElseThrow(() -> new IllegalStateException("no DevTools for this driver"));
+            devTools.enableNetwork();
+            // An empty urlPattern matches every request
+            devTools.send(Network.emulateNetworkConditionsByRule(false, List.of(new NetworkConditions(
+                    "",
                     1200,               // latency (ms)
                     100 * 1024,         // download throughput
                     100 * 1024,         // upload throughput
@@ -1480,7 +1476,7 @@ public class TeamAssessmentPurchaseAndAssignment extends BaseTest {
                     Optional.empty(),
                     Optional.empty(),
                     Optional.empty()
-            ));
+            ))));
             networkThrottled = true;
             System.out.println("[DevTools] Network throttling enabled.");
         } catch (Exception e) {
@@ -1552,7 +1548,8 @@ public class TeamAssessmentPurchaseAndAssignment extends BaseTest {
             step("Restore normal network and close Stripe windows when E2E is off");
             if (networkThrottled && devTools != null) {
                 try {
-                    devTools.send(Network.disable());
+                    // Lift the emulation only: Network stays enabled for the driver's other CDP subscribers
+                    devTools.send(Network.emulateNetworkConditionsByRule(false, List.of()));
                     System.out.println("[DevTools] Network throttling disabled.");
                 } catch (Exception e) {
                     System.out.println("[DevTools] Error disabling network throttling: " + e);
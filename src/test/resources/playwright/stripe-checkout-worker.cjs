@@ -0,0 +1,149 @@
+// Long-lived Stripe Hosted Checkout worker driven by PlaywrightStripeWorker (Java).
+//
+// Protocol (one JSON object per line):
+//   stdin : {"id":"1","checkoutUrl":"https://checkout.stripe.com/...","email":"qa@x.com","timeoutMs":120000,"fakeSuccess":false}
+//           {"op":"cancel","id":"1"}   (the Java side timed out or cancelled: dequeue, or close the job's context)
+//           {"op":"shutdown"}
+//   stdout: PW_WORKER::{"event":"ready","browser":"chromium 130..."}
+//           PW_WORKER::{"id":"1","ok":true,"successUrl":"...","captcha":false,"noPaymentElement":false,"error":null,"ms":8123}
+// Anything else on stdout/stderr is log output.
+//
+// Run with cwd = the Playwright repo so 'playwright' / '@playwright/test' resolve from its node_modules.
+// The checkout itself comes from that repo's flow module (PW_WORKER_FLOW, default tests/stripe-checkout.flow.js,
+// exporting async (page, job, signals) => successUrl). There is deliberately no built-in flow: guessed Stripe
+// selectors are not a substitute for the proven spec, so without the module the worker refuses to start.
+
+'use strict';
+
+const path = require('path');
+const fs = require('fs');
+const readline = require('readline');
+const { createRequire } = require('module');
+
+const MARK = 'PW_WORKER::';
+const repoRequire = createRequire(path.join(process.cwd(), 'noop.js'));
+
+function loadPlaywright() {
+  for (const name of ['playwright', '@playwright/test', 'playwright-core']) {
+    try { return repoRequire(name); } catch (e) { /* try next */ }
+  }
+  throw new Error('playwright not found from ' + process.cwd() + ' (npm i -D @playwright/test)');
+}
+
+function loadFlow() {
+  const rel = process.env.PW_WORKER_FLOW || 'tests/stripe-checkout.flow.js';
+  const file = path.resolve(process.cwd(), rel);
+  if (!fs.existsSync(file)) throw new Error('checkout flow module not found: ' + file);
+  const mod = repoRequire(file);
+  const flow = typeof mod === 'function' ? mod : (mod.checkout || mod.default || null);
+  if (typeof flow !== 'function') throw new Error(file + ' must export async (page, job, signals) => successUrl');
+  return flow;
+}
+
+const env = process.env;
+const intEnv = (k, d) => { const n = parseInt(env[k] || '', 10); return Number.isFinite(n) && n > 0 ? n : d; };
+const headless = env.PW_HEADLESS === '1' || env.PW_HEADLESS === 'true';
+const concurrency = intEnv('PW_WORKER_CONCURRENCY', 2);
+const navTimeout = intEnv('PW_NAV_TIMEOUT_MS', 15000);
+const actionTimeout = intEnv('PW_ACTION_TIMEOUT_MS', 10000);
+
+function emit(obj) { process.stdout.write(MARK + JSON.stringify(obj) + '\n'); }
+
+// ---------- job runner ----------
+
+async function main() {
+  const pw = loadPlaywright();
+  const flow = loadFlow();
+  const browser = await pw.chromium.launch({ headless });
+  const contextOptions = {
+    locale: env.PW_LOCALE || 'en-US',
+    timezoneId: env.PW_TZ || 'America/New_York',
+    extraHTTPHeaders: { 'Accept-Language': env.PW_ACCEPT_LANGUAGE || 'en-US,en;q=0.9' },
+  };
+
+  let running = 0;
+  const queue = [];
+  const active = new Map();   // job id -> { context, cancelled }
+  let closing = false;
+
+  async function run(job) {
+    const started = Date.now();
+    const signals = { captcha: false, noPaymentElement: false };
+    const result = { id: job.id, ok: false, successUrl: null, captcha: false, noPaymentElement: false, error: null, ms: 0 };
+    const state = { context: null, cancelled: false };
+    active.set(job.id, state);
+    let context;
+    try {
+      if (job.fakeSuccess) {
+        result.successUrl = job.checkoutUrl + (job.checkoutUrl.includes('?') ? '&' : '?') + 'redirect_status=succeeded';
+        result.ok = true;
+        return result;
+      }
+      context = await browser.newContext(contextOptions);
+      state.context = context;
+      if (state.cancelled) throw new Error('cancelled');
+      context.setDefaultNavigationTimeout(navTimeout);
+      context.setDefaultTimeout(actionTimeout);
+      const page = await context.newPage();
+      page.on('frameattached', f => { if (/hcaptcha/i.test(f.url() || '')) signals.captcha = true; });
+      page.on('framenavigated', f => { if (/hcaptcha/i.test(f.url() || '')) signals.captcha = true; });
+
+      result.successUrl = await flow(page, job, signals);
+      result.ok = !!result.successUrl;
+    } catch (e) {
+      result.error = state.cancelled ? 'cancelled' : String((e && e.message) || e).split('\n')[0];
+    } finally {
+      active.delete(job.id);
+      result.captcha = signals.captcha;
+      result.noPaymentElement = signals.noPaymentElement;
+      result.ms = Date.now() - started;
+      if (context) await context.close().catch(() => {});
+    }
+    return result;
+  }
+
+  function pump() {
+    while (running < concurrency && queue.length) {
+      const job = queue.shift();
+      running++;
+      run(job).then(emit, e => emit({ id: job.id, ok: false, error: String(e) }))
+        .finally(() => { running--; pump(); maybeExit(); });
+    }
+  }
+
+  // Closing the context makes the flow's next page call throw, so run() settles and its slot frees up
+  function cancel(id) {
+    const queued = queue.findIndex(j => j.id === id);
+    if (queued >= 0) { queue.splice(queued, 1); maybeExit(); return; }
+    const state = active.get(id);
+    if (!state) return;
+    state.cancelled = true;
+    if (state.context) state.context.close().catch(() => {});
+  }
+
+  async function maybeExit() {
+    if (closing && running === 0 && queue.length === 0) {
+      await browser.close().catch(() => {});
+      process.exit(0);
+    }
+  }
+
+  const rl = readline.createInterface({ input: process.stdin });
+  rl.on('line', line => {
+    if (!line.trim()) return;
+    let msg;
+    try { msg = JSON.parse(line); } catch (e) { console.error('bad job line: ' + line); return; }
+    if (msg.op === 'shutdown') { closing = true; maybeExit(); return; }
+    if (msg.op === 'cancel') { cancel(String(msg.id)); return; }
+    queue.push(msg);
+    pump();
+  });
+  rl.on('close', () => { closing = true; maybeExit(); });
+
+  emit({ event: 'ready', browser: 'chromium ' + browser.version(), concurrency, flow: env.PW_WORKER_FLOW || 'tests/stripe-checkout.flow.js' });
+}
+
+main().catch(e => {
+  emit({ event: 'fatal', error: String((e && e.message) || e) });
+  process.exit(1);
+});